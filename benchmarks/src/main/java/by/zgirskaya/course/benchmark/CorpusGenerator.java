@@ -0,0 +1,126 @@
+package by.zgirskaya.course.benchmark;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+// Synthetic text in the format of recourses/text.txt: paragraphs start with four spaces,
+// sentences end with . ! or ?, lexemes mix words, punctuation and digits
+public final class CorpusGenerator {
+  private static final long SEED = 42;
+  private static final String PARAGRAPH_INDENT = "    ";
+  private static final String TERMINALS = ".!?";
+  private static final String PUNCTUATION = ",;:-'";
+  private static final int LINE_LENGTH = 80;
+
+  private CorpusGenerator() {
+  }
+
+  public static long parseSize(String size) {
+    String normalized = size.trim().toUpperCase(Locale.ROOT);
+    long multiplier = 1;
+
+    if (normalized.endsWith("KB")) {
+      multiplier = 1L << 10;
+    } else if (normalized.endsWith("MB")) {
+      multiplier = 1L << 20;
+    } else if (normalized.endsWith("GB")) {
+      multiplier = 1L << 30;
+    }
+
+    String digits = multiplier == 1 ? normalized : normalized.substring(0, normalized.length() - 2);
+    return Long.parseLong(digits.trim()) * multiplier;
+  }
+
+  public static String generate(String size) {
+    long length = parseSize(size);
+    if (length > Integer.MAX_VALUE - 1024) {
+      throw new IllegalArgumentException("Corpus too large for a String: " + size);
+    }
+
+    StringBuilder sb = new StringBuilder((int) length + 1024);
+    generate(sb, length, SEED);
+    sb.setLength((int) length);
+    return sb.toString();
+  }
+
+  public static Path writeTempFile(String size) throws IOException {
+    Path file = Files.createTempFile("corpus-" + size + "-", ".txt");
+
+    try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      generate(writer, parseSize(size), SEED);
+    }
+    return file;
+  }
+
+  private static void generate(Appendable out, long length, long seed) {
+    Random random = new Random(seed);
+    StringBuilder paragraph = new StringBuilder();
+    long written = 0;
+
+    try {
+      while (written < length) {
+        paragraph.setLength(0);
+        appendParagraph(paragraph, random);
+        out.append(paragraph);
+        written += paragraph.length();
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static void appendParagraph(StringBuilder sb, Random random) {
+    sb.append(PARAGRAPH_INDENT);
+    int lineStart = 0;
+    int sentences = 2 + random.nextInt(7);
+
+    for (int s = 0; s < sentences; s++) {
+      int lexemes = 3 + random.nextInt(13);
+
+      for (int l = 0; l < lexemes; l++) {
+        if (l > 0 || s > 0) {
+          // Text is wrapped into lines like the fixture
+          if (sb.length() - lineStart > LINE_LENGTH) {
+            sb.append('\n');
+            lineStart = sb.length();
+          } else {
+            sb.append(' ');
+          }
+        }
+        appendLexeme(sb, random, l == 0);
+      }
+      sb.append(TERMINALS.charAt(random.nextInt(TERMINALS.length())));
+    }
+    sb.append('\n');
+  }
+
+  private static void appendLexeme(StringBuilder sb, Random random, boolean capitalized) {
+    int kind = random.nextInt(20);
+
+    if (kind == 0) {
+      sb.append(random.nextInt(10_000));
+      return;
+    }
+    if (kind == 1) {
+      sb.append('(');
+    }
+
+    int letters = 1 + random.nextInt(10);
+    for (int i = 0; i < letters; i++) {
+      char letter = (char) ('a' + random.nextInt(26));
+      sb.append(i == 0 && capitalized ? Character.toUpperCase(letter) : letter);
+    }
+
+    if (kind == 1) {
+      sb.append(')');
+    } else if (kind < 5) {
+      sb.append(PUNCTUATION.charAt(random.nextInt(PUNCTUATION.length())));
+    }
+  }
+}
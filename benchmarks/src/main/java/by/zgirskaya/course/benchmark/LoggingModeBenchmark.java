@@ -0,0 +1,69 @@
+package by.zgirskaya.course.benchmark;
+
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.metrics.PerformanceMode;
+import by.zgirskaya.course.parser.LexemeParser;
+import by.zgirskaya.course.parser.ParagraphParser;
+import by.zgirskaya.course.parser.SentenceParser;
+import by.zgirskaya.course.parser.SymbolParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Per-node logging against the performance mode, the flag is a static final so each mode gets its own fork.
+// The level property decides how much the guarded log calls actually do when they run.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LoggingModeBenchmark {
+
+  @Param({"1MB"})
+  public String size;
+
+  @Param({"ERROR", "INFO"})
+  public String logLevel;
+
+  private String text;
+  private ParagraphParser symbolChain;
+
+  @Setup
+  public void setUp() throws CustomTextException {
+    // Read by log4j2.xml, log4j is initialized by the first parser created below
+    System.setProperty("benchmark.log.level", logLevel);
+
+    text = CorpusGenerator.generate(size);
+    symbolChain = new ParagraphParser(new SentenceParser(new LexemeParser(new SymbolParser())));
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-D" + PerformanceMode.PROPERTY + "=false"})
+  public TextComposite withNodeLogging() {
+    return parse();
+  }
+
+  @Benchmark
+  @Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-D" + PerformanceMode.PROPERTY + "=true"})
+  public TextComposite performanceMode() {
+    return parse();
+  }
+
+  private TextComposite parse() {
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    symbolChain.parse(text, root);
+    return root;
+  }
+}
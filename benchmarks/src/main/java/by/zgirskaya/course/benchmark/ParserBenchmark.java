@@ -0,0 +1,189 @@
+package by.zgirskaya.course.benchmark;
+
+import by.zgirskaya.course.component.CompactTextDocument;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextNode;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.parser.LexemeParser;
+import by.zgirskaya.course.parser.ParagraphParser;
+import by.zgirskaya.course.parser.SentenceParser;
+import by.zgirskaya.course.parser.SymbolParser;
+import by.zgirskaya.course.parser.TokenizerParser;
+import by.zgirskaya.course.parser.WordParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// One operation parses the whole corpus, each level gets exactly the pieces the chain would pass to it.
+// Levels include the parsers below them, the chain cannot be cut.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ParserBenchmark {
+  private static final Pattern PARAGRAPH_PATTERN = Pattern.compile("\\p{Blank}{4}");
+  private static final String TO_REPLACE_REGEX = "\\p{Blank}{2,}";
+  private static final String SENTENCE_DELIMITER = "(?<=[.!?])\\s+";
+  private static final String LEXEME_DELIMITER = "\\s+";
+
+  @Param({"1KB", "64KB", "1MB", "16MB"})
+  public String size;
+
+  private String text;
+  private String[] paragraphs;
+  private String[] sentences;
+  private String[] lexemes;
+
+  private ParagraphParser wordChain;
+  private ParagraphParser symbolChain;
+  private ParagraphParser offsetWordChain;
+  private SentenceParser sentenceParser;
+  private LexemeParser lexemeParser;
+  private WordParser wordParser;
+  private WordParser offsetWordParser;
+  private SymbolParser symbolParser;
+  private TokenizerParser tokenizerParser;
+
+  @Setup
+  public void setUp() throws CustomTextException {
+    text = CorpusGenerator.generate(size);
+
+    paragraphs = PARAGRAPH_PATTERN.split(text);
+    List<String> sentenceList = new ArrayList<>();
+    for (int i = 0; i < paragraphs.length; i++) {
+      paragraphs[i] = paragraphs[i].replaceAll(TO_REPLACE_REGEX, " ");
+      sentenceList.addAll(List.of(paragraphs[i].split(SENTENCE_DELIMITER)));
+    }
+    sentences = sentenceList.toArray(new String[0]);
+
+    List<String> lexemeList = new ArrayList<>();
+    for (String sentence : sentences) {
+      lexemeList.addAll(List.of(sentence.trim().split(LEXEME_DELIMITER)));
+    }
+    lexemes = lexemeList.toArray(new String[0]);
+
+    wordParser = new WordParser();
+    offsetWordParser = new WordParser(WordParser.Letters.ASCII);
+    symbolParser = new SymbolParser();
+    lexemeParser = new LexemeParser(new WordParser());
+    sentenceParser = new SentenceParser(new LexemeParser(new WordParser()));
+    wordChain = new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser())));
+    symbolChain = new ParagraphParser(new SentenceParser(new LexemeParser(new SymbolParser())));
+    offsetWordChain = new ParagraphParser(new SentenceParser(new LexemeParser(
+            new WordParser(WordParser.Letters.ASCII))));
+    tokenizerParser = new TokenizerParser(TextComponentType.SYMBOL);
+  }
+
+  @Benchmark
+  public TextComposite fullChainWords() {
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    wordChain.parse(text, root);
+    return root;
+  }
+
+  @Benchmark
+  public TextComposite fullChainSymbols() {
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    symbolChain.parse(text, root);
+    return root;
+  }
+
+  @Benchmark
+  public TextComposite fullChainOffsetWords() {
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    offsetWordChain.parse(text, root);
+    return root;
+  }
+
+  @Benchmark
+  public TextComposite fullChainSymbolsParallel() {
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    symbolChain.parse(text, root, ForkJoinPool.commonPool());
+    return root;
+  }
+
+  @Benchmark
+  public TextNode fullChainSymbolsImmutable() {
+    return symbolChain.parseNode(text);
+  }
+
+  @Benchmark
+  public TextComposite tokenizerSymbols() {
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    tokenizerParser.parse(text, root);
+    return root;
+  }
+
+  @Benchmark
+  public CompactTextDocument tokenizerCompact() {
+    return tokenizerParser.parseCompact(text);
+  }
+
+  @Benchmark
+  public TextNode tokenizerImmutable() {
+    return tokenizerParser.parseNode(text);
+  }
+
+  @Benchmark
+  public void sentenceLevel(Blackhole blackhole) {
+    for (String paragraph : paragraphs) {
+      TextComposite composite = new TextComposite(TextComponentType.PARAGRAPH);
+      sentenceParser.parse(paragraph, composite);
+      blackhole.consume(composite);
+    }
+  }
+
+  @Benchmark
+  public void lexemeLevel(Blackhole blackhole) {
+    for (String sentence : sentences) {
+      TextComposite composite = new TextComposite(TextComponentType.SENTENCE);
+      lexemeParser.parse(sentence, composite);
+      blackhole.consume(composite);
+    }
+  }
+
+  @Benchmark
+  public void wordLevel(Blackhole blackhole) {
+    parseLexemes(wordParser, blackhole);
+  }
+
+  @Benchmark
+  public void wordLevelOffsets(Blackhole blackhole) {
+    parseLexemes(offsetWordParser, blackhole);
+  }
+
+  @Benchmark
+  public void symbolLevel(Blackhole blackhole) {
+    for (String lexeme : lexemes) {
+      TextComposite composite = new TextComposite(TextComponentType.LEXEME);
+      symbolParser.parse(lexeme, composite);
+      blackhole.consume(composite);
+    }
+  }
+
+  private void parseLexemes(WordParser parser, Blackhole blackhole) {
+    for (String lexeme : lexemes) {
+      TextComposite composite = new TextComposite(TextComponentType.LEXEME);
+      parser.parse(lexeme, composite);
+      blackhole.consume(composite);
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package by.zgirskaya.course.benchmark;
+
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.reader.impl.CustomParagraphReaderImpl;
+import by.zgirskaya.course.reader.impl.CustomTextReaderImpl;
+import by.zgirskaya.course.reader.impl.MappedTextReaderImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Whole-file readers against the memory-mapped reader and the streaming paragraph reader
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+public class ReaderBenchmark {
+
+  @Param({"10MB", "100MB", "1GB"})
+  public String size;
+
+  private Path file;
+  private String filePath;
+
+  @Setup
+  public void setUp() throws IOException {
+    file = CorpusGenerator.writeTempFile(size);
+    filePath = file.toString();
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file);
+  }
+
+  @Benchmark
+  public int readAllBytes() throws CustomTextException {
+    return new CustomTextReaderImpl().readTextFromFile(filePath).length();
+  }
+
+  @Benchmark
+  public int memoryMapped() throws CustomTextException {
+    CharSequence text = new MappedTextReaderImpl(StandardCharsets.UTF_8).readCharSequenceFromFile(filePath);
+    return text.length();
+  }
+
+  @Benchmark
+  public long streamingParagraphs() throws CustomTextException {
+    long length = 0;
+
+    try (CustomParagraphReaderImpl reader = CustomParagraphReaderImpl.fromFile(filePath)) {
+      String paragraph;
+      while ((paragraph = reader.readParagraph()) != null) {
+        length += paragraph.length();
+      }
+    }
+    return length;
+  }
+}
@@ -0,0 +1,100 @@
+package by.zgirskaya.course.benchmark;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextNode;
+import by.zgirskaya.course.component.TextVisitor;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.parser.TokenizerParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+// makeCopy and rendering; a cold render builds the string from the tree, a warm one hits the cached rendering
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RenderingBenchmark {
+  private static final TextVisitor NO_OP_VISITOR = new TextVisitor() {
+  };
+
+  @Param({"1KB", "64KB", "1MB", "16MB"})
+  public String size;
+
+  private TextComposite tree;
+  private TextNode node;
+
+  @Setup
+  public void setUp() throws CustomTextException {
+    String text = CorpusGenerator.generate(size);
+
+    tree = new TextComposite(TextComponentType.PARAGRAPH);
+    new TokenizerParser(TextComponentType.SYMBOL).parse(text, tree);
+    tree.toString();
+    node = TextNode.fromComponent(tree);
+  }
+
+  @State(Scope.Thread)
+  public static class ColdTree {
+    TextComposite tree;
+
+    @Setup(Level.Invocation)
+    public void setUp(RenderingBenchmark benchmark) {
+      tree = (TextComposite) benchmark.node.toComponent();
+    }
+  }
+
+  @Benchmark
+  public TextComposite makeCopy() {
+    return tree.makeCopy();
+  }
+
+  // Copy-on-write copy walked completely, so every composite of the copy gets its own children
+  @Benchmark
+  public TextComposite makeCopyAndTraverse() {
+    TextComposite copy = tree.makeCopy();
+    copy.accept(NO_OP_VISITOR);
+    return copy;
+  }
+
+  @Benchmark
+  public String toStringCold(ColdTree cold) {
+    return cold.tree.toString();
+  }
+
+  @Benchmark
+  public String toStringCached() {
+    return tree.toString();
+  }
+
+  @Benchmark
+  public void writeToStream(ColdTree cold) throws CustomTextException {
+    cold.tree.writeTo(Writer.nullWriter());
+  }
+
+  @Benchmark
+  public String immutableToString() {
+    return TextNode.fromComponent(tree).toString();
+  }
+
+  @Benchmark
+  public AbstractTextComponent immutableToComponent() {
+    return node.toComponent();
+  }
+}
@@ -0,0 +1,94 @@
+package by.zgirskaya.course.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+// Heap still used after a full GC by what the iteration handed to retain(), plus the collections that ran
+// during the iteration. The profiler's own collections are not counted
+// Run with: java -jar target/benchmarks.jar SymbolLeafBenchmark -prof by.zgirskaya.course.benchmark.RetainedHeapProfiler
+public class RetainedHeapProfiler implements InternalProfiler {
+  private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+  private static final int COLLECTIONS = 5;
+  private static final long COLLECTION_PAUSE_MILLIS = 100;
+
+  private static volatile Object retained;
+
+  private long heapBefore;
+  private long gcCountBefore;
+  private long gcMillisBefore;
+
+  // Keeps the result of the iteration reachable until it is measured
+  public static void retain(Object result) {
+    retained = result;
+  }
+
+  @Override
+  public String getDescription() {
+    return "Heap retained after GC, GC cycles and GC time per iteration";
+  }
+
+  @Override
+  public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+    retained = null;
+    heapBefore = heapAfterGc();
+    gcCountBefore = gcCount();
+    gcMillisBefore = gcMillis();
+  }
+
+  @Override
+  public List<Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                     IterationResult result) {
+    long cycles = gcCount() - gcCountBefore;
+    long millis = gcMillis() - gcMillisBefore;
+    long heapAfter = heapAfterGc();
+    retained = null;
+
+    return List.of(
+            new ScalarResult("retained.heap", (heapAfter - heapBefore) / BYTES_PER_MB, "MB", AggregationPolicy.AVG),
+            new ScalarResult("gc.cycles", cycles, "counts", AggregationPolicy.AVG),
+            new ScalarResult("gc.time", millis, "ms", AggregationPolicy.AVG));
+  }
+
+  // The lowest reading of a few full collections, the worker thread of the iteration may still hold
+  // its result for a moment after the iteration ends
+  private static long heapAfterGc() {
+    long used = Long.MAX_VALUE;
+    for (int i = 0; i < COLLECTIONS; i++) {
+      System.gc();
+      used = Math.min(used, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+
+      try {
+        Thread.sleep(COLLECTION_PAUSE_MILLIS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+    return used;
+  }
+
+  private static long gcCount() {
+    long count = 0;
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += Math.max(collector.getCollectionCount(), 0);
+    }
+    return count;
+  }
+
+  private static long gcMillis() {
+    long millis = 0;
+    for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+      millis += Math.max(collector.getCollectionTime(), 0);
+    }
+    return millis;
+  }
+}
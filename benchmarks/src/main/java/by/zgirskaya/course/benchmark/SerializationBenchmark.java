@@ -0,0 +1,79 @@
+package by.zgirskaya.course.benchmark;
+
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.parser.LexemeParser;
+import by.zgirskaya.course.parser.ParagraphParser;
+import by.zgirskaya.course.parser.SentenceParser;
+import by.zgirskaya.course.parser.SymbolParser;
+import by.zgirskaya.course.reader.impl.CustomTextReaderImpl;
+import by.zgirskaya.course.serializer.BinaryTextDocument;
+import by.zgirskaya.course.serializer.BinaryTextWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Loading a saved symbol tree against reading and parsing the source text again
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SerializationBenchmark {
+
+  @Param({"1MB", "16MB"})
+  public String size;
+
+  private Path textFile;
+  private Path binaryFile;
+  private ParagraphParser symbolChain;
+
+  @Setup
+  public void setUp() throws IOException, CustomTextException {
+    textFile = CorpusGenerator.writeTempFile(size);
+    binaryFile = Files.createTempFile("corpus-", ".txtb");
+    symbolChain = new ParagraphParser(new SentenceParser(new LexemeParser(new SymbolParser())));
+
+    new BinaryTextWriter().write(reparse(), binaryFile);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(textFile);
+    Files.deleteIfExists(binaryFile);
+  }
+
+  @Benchmark
+  public TextComposite reparse() throws CustomTextException {
+    String text = new CustomTextReaderImpl().readTextFromFile(textFile.toString());
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    symbolChain.parse(text, root);
+    return root;
+  }
+
+  @Benchmark
+  public TextComposite loadMapped() throws CustomTextException {
+    return BinaryTextDocument.map(binaryFile).materialize();
+  }
+
+  @Benchmark
+  public Object loadFirstParagraph() throws CustomTextException {
+    return BinaryTextDocument.map(binaryFile).materializeChild(0);
+  }
+}
@@ -0,0 +1,127 @@
+package by.zgirskaya.course.benchmark;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.parser.TokenizerParser;
+import by.zgirskaya.course.service.analysis.FirstLastLexemeSwapAnalysis;
+import by.zgirskaya.course.service.analysis.MaxSentencesWithSameWordsAnalysis;
+import by.zgirskaya.course.service.analysis.RankedSentence;
+import by.zgirskaya.course.service.analysis.SentenceInfo;
+import by.zgirskaya.course.service.analysis.SentenceOverlapIndex;
+import by.zgirskaya.course.service.analysis.SentencePair;
+import by.zgirskaya.course.service.analysis.SentencesByLexemeCountAnalysis;
+import by.zgirskaya.course.service.analysis.TextAnalysisEngine;
+import by.zgirskaya.course.service.analysis.WordSentenceIndex;
+import by.zgirskaya.course.service.impl.TextServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Run with -prof gc to see the allocation rate of every service operation
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ServiceBenchmark {
+  private static final int TOP_K = 10;
+  private static final int MIN_SHARED_WORDS = 3;
+
+  @Param({"1KB", "64KB", "1MB", "16MB"})
+  public String size;
+
+  private final TextServiceImpl textService = new TextServiceImpl();
+
+  private TextComposite wordTree;
+  private TextComposite symbolTree;
+
+  @Setup
+  public void setUp() throws CustomTextException {
+    String text = CorpusGenerator.generate(size);
+
+    wordTree = new TextComposite(TextComponentType.PARAGRAPH);
+    new TokenizerParser(TextComponentType.WORD).parse(text, wordTree);
+    symbolTree = new TextComposite(TextComponentType.PARAGRAPH);
+    new TokenizerParser(TextComponentType.SYMBOL).parse(text, symbolTree);
+  }
+
+  @Benchmark
+  public int findMaxSentenceCountWithSameWords() throws CustomTextException {
+    return textService.findMaxSentenceCountWithSameWords(wordTree);
+  }
+
+  @Benchmark
+  public List<SentenceInfo> displaySentencesByLexemeCountAscending() throws CustomTextException {
+    return textService.displaySentencesByLexemeCountAscending(symbolTree);
+  }
+
+  @Benchmark
+  public List<RankedSentence> shortestSentences() throws CustomTextException {
+    return textService.rankSentencesByLexemeCount(symbolTree).shortest(TOP_K);
+  }
+
+  @Benchmark
+  public AbstractTextComponent changeFirstAndLastLexemesInSentences() throws CustomTextException {
+    return textService.changeFirstAndLastLexemesInSentences(symbolTree);
+  }
+
+  // The three operations above in a single traversal
+  @Benchmark
+  public void allAnalysesInOnePass(Blackhole blackhole) {
+    MaxSentencesWithSameWordsAnalysis sameWords = new MaxSentencesWithSameWordsAnalysis();
+    SentencesByLexemeCountAnalysis byLexemeCount = new SentencesByLexemeCountAnalysis();
+    FirstLastLexemeSwapAnalysis swap = new FirstLastLexemeSwapAnalysis();
+
+    new TextAnalysisEngine().register(sameWords).register(byLexemeCount).register(swap).run(wordTree);
+
+    blackhole.consume(sameWords.getResult());
+    blackhole.consume(byLexemeCount.getResult());
+    blackhole.consume(swap.getResult());
+  }
+
+  @Benchmark
+  public WordSentenceIndex wordSentenceIndex() {
+    return WordSentenceIndex.of(wordTree);
+  }
+
+  @Benchmark
+  public SentenceOverlapIndex sentenceOverlapIndex() {
+    return SentenceOverlapIndex.of(wordTree);
+  }
+
+  @Benchmark
+  public List<SentencePair> pairsSharingThreeWords(OverlapState state) {
+    return state.index.pairsSharingAtLeast(MIN_SHARED_WORDS);
+  }
+
+  // All-pairs output grows with the square of the sentence count, so it gets smaller corpora of its own
+  @State(Scope.Benchmark)
+  public static class OverlapState {
+    @Param({"64KB", "1MB"})
+    public String overlapSize;
+
+    private SentenceOverlapIndex index;
+
+    @Setup
+    public void setUp() throws CustomTextException {
+      TextComposite tree = new TextComposite(TextComponentType.PARAGRAPH);
+      new TokenizerParser(TextComponentType.WORD).parse(CorpusGenerator.generate(overlapSize), tree);
+      index = SentenceOverlapIndex.of(tree);
+    }
+  }
+}
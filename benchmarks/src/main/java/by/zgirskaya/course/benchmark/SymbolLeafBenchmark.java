@@ -0,0 +1,66 @@
+package by.zgirskaya.course.benchmark;
+
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextLeaf;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.parser.LexemeParser;
+import by.zgirskaya.course.parser.ParagraphParser;
+import by.zgirskaya.course.parser.SentenceParser;
+import by.zgirskaya.course.parser.SymbolParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// One SymbolParser chain parse per iteration with shared flyweight symbol leaves against one new leaf per
+// position. The parsed tree stays reachable until RetainedHeapProfiler has measured it
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class SymbolLeafBenchmark {
+
+  @Param({"1MB", "16MB"})
+  public String size;
+
+  @Param({"flyweight", "perPosition"})
+  public String leaves;
+
+  private String text;
+  private ParagraphParser symbolChain;
+
+  @Setup
+  public void setUp() throws CustomTextException {
+    text = CorpusGenerator.generate(size);
+    SymbolParser symbolParser = leaves.equals("flyweight") ? new SymbolParser() : new PerPositionSymbolParser();
+    symbolChain = new ParagraphParser(new SentenceParser(new LexemeParser(symbolParser)));
+  }
+
+  @Benchmark
+  public TextComposite symbolChain() {
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    symbolChain.parse(text, root);
+    RetainedHeapProfiler.retain(root);
+    return root;
+  }
+
+  // A new leaf for every symbol, as SymbolParser built them before the leaves were shared
+  private static class PerPositionSymbolParser extends SymbolParser {
+    @Override
+    protected TextLeaf symbolLeaf(char symbol) {
+      return new TextLeaf(String.valueOf(symbol), TextComponentType.SYMBOL);
+    }
+  }
+}
@@ -0,0 +1,23 @@
+package by.zgirskaya.course.batch;
+
+import by.zgirskaya.course.component.TextComposite;
+
+import java.nio.file.Path;
+
+// Travels through the stage queues, every stage drops what the next ones no longer need
+final class BatchDocument {
+  static final BatchDocument END = new BatchDocument(null);
+
+  final Path file;
+  final long startNanos;
+
+  String text;
+  TextComposite tree;
+  FileResult result;
+  Exception error;
+
+  BatchDocument(Path file) {
+    this.file = file;
+    this.startNanos = System.nanoTime();
+  }
+}
@@ -0,0 +1,289 @@
+package by.zgirskaya.course.batch;
+
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.parser.TokenizerParser;
+import by.zgirskaya.course.reader.CustomTextReader;
+import by.zgirskaya.course.reader.impl.CustomTextReaderImpl;
+import by.zgirskaya.course.service.analysis.ComponentCountAnalysis;
+import by.zgirskaya.course.service.analysis.MaxSentencesWithSameWordsAnalysis;
+import by.zgirskaya.course.service.analysis.TextAnalysisEngine;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+// Read -> parse -> analyze -> write pipeline over many files. Stages are connected by bounded queues,
+// so memory depends on the queue capacity and thread counts, not on the number or size of the files
+public class BatchProcessor {
+  private static final Logger logger = LogManager.getLogger();
+
+  private static final int DEFAULT_QUEUE_CAPACITY = 16;
+  private static final int MAX_DEFAULT_READ_THREADS = 4;
+  private static final String REPORT_HEADER =
+          "file\tcharacters\tparagraphs\tsentences\tlexemes\twords\tmaxSentencesWithSameWords\tmillis\terror";
+
+  private final int readThreads;
+  private final int parseThreads;
+  private final int analyzeThreads;
+  private final int queueCapacity;
+
+  private final CustomTextReader reader = new CustomTextReaderImpl();
+  private final TokenizerParser parser;
+
+  public BatchProcessor() throws CustomTextException {
+    this(Math.min(MAX_DEFAULT_READ_THREADS, Runtime.getRuntime().availableProcessors()),
+            Runtime.getRuntime().availableProcessors(),
+            Runtime.getRuntime().availableProcessors(),
+            DEFAULT_QUEUE_CAPACITY);
+  }
+
+  public BatchProcessor(int readThreads, int parseThreads, int analyzeThreads, int queueCapacity)
+          throws CustomTextException {
+    if (readThreads < 1 || parseThreads < 1 || analyzeThreads < 1 || queueCapacity < 1) {
+      throw new CustomTextException("Batch stage thread counts and queue capacity must be positive");
+    }
+
+    this.readThreads = readThreads;
+    this.parseThreads = parseThreads;
+    this.analyzeThreads = analyzeThreads;
+    this.queueCapacity = queueCapacity;
+    this.parser = new TokenizerParser(TextComponentType.WORD);
+  }
+
+  public BatchReport process(Path directory, Path reportFile) throws CustomTextException {
+    return process(listFiles(directory, reportFile), reportFile);
+  }
+
+  public BatchReport process(List<Path> files, Path reportFile) throws CustomTextException {
+    try (BufferedWriter writer = Files.newBufferedWriter(reportFile, StandardCharsets.UTF_8)) {
+      return process(files, writer);
+    } catch (IOException e) {
+      throw new CustomTextException("Error writing batch report: " + reportFile, e);
+    }
+  }
+
+  public BatchReport process(List<Path> files, Appendable report) throws CustomTextException {
+    logger.info("Starting batch. Files: {}, Read threads: {}, Parse threads: {}, Analyze threads: {}, Queue capacity: {}",
+            files.size(), readThreads, parseThreads, analyzeThreads, queueCapacity);
+
+    BlockingQueue<BatchDocument> readQueue = new ArrayBlockingQueue<>(queueCapacity);
+    BlockingQueue<BatchDocument> parseQueue = new ArrayBlockingQueue<>(queueCapacity);
+    BlockingQueue<BatchDocument> analyzeQueue = new ArrayBlockingQueue<>(queueCapacity);
+    AtomicInteger nextFile = new AtomicInteger();
+
+    List<ExecutorService> executors = new ArrayList<>();
+    List<Future<?>> workers = new ArrayList<>();
+    try {
+      DocumentSource fileSource = () -> {
+        int index = nextFile.getAndIncrement();
+        return index < files.size() ? new BatchDocument(files.get(index)) : BatchDocument.END;
+      };
+
+      startStage("read", readThreads, fileSource, this::read, readQueue, executors, workers);
+      startStage("parse", parseThreads, queueSource(readQueue), this::parse, parseQueue, executors, workers);
+      startStage("analyze", analyzeThreads, queueSource(parseQueue), this::analyze, analyzeQueue, executors, workers);
+
+      BatchReport batchReport = writeReport(analyzeQueue, report);
+      checkWorkers(workers);
+
+      logger.info("Batch completed. Files: {}, Failed: {}, Characters: {}, Time ms: {}",
+              batchReport.fileCount(), batchReport.failedCount(), batchReport.characters(),
+              TimeUnit.NANOSECONDS.toMillis(batchReport.nanos()));
+
+      return batchReport;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CustomTextException("Batch processing was interrupted", e);
+    } finally {
+      for (ExecutorService executor : executors) {
+        executor.shutdownNow();
+      }
+    }
+  }
+
+  private static List<Path> listFiles(Path directory, Path reportFile) throws CustomTextException {
+    if (directory == null || !Files.isDirectory(directory)) {
+      throw new CustomTextException("Path is not a directory: " + directory);
+    }
+
+    Path report = reportFile.toAbsolutePath().normalize();
+    try (Stream<Path> paths = Files.walk(directory)) {
+      return paths.filter(Files::isRegularFile)
+              .filter(path -> !path.toAbsolutePath().normalize().equals(report))
+              .sorted()
+              .toList();
+    } catch (IOException e) {
+      throw new CustomTextException("Error listing directory: " + directory, e);
+    }
+  }
+
+  private void read(BatchDocument document) throws CustomTextException {
+    document.text = reader.readTextFromFile(document.file.toString());
+  }
+
+  private void parse(BatchDocument document) {
+    TextComposite tree = new TextComposite(TextComponentType.PARAGRAPH);
+    parser.parse(document.text, tree);
+
+    document.tree = tree;
+  }
+
+  private void analyze(BatchDocument document) {
+    ComponentCountAnalysis counts = new ComponentCountAnalysis();
+    MaxSentencesWithSameWordsAnalysis sameWords = new MaxSentencesWithSameWordsAnalysis();
+    new TextAnalysisEngine().register(counts).register(sameWords).run(document.tree);
+
+    document.result = new FileResult(document.file, document.text.length(),
+            counts.getCount(TextComponentType.PARAGRAPH),
+            counts.getCount(TextComponentType.SENTENCE),
+            counts.getCount(TextComponentType.LEXEME),
+            counts.getCount(TextComponentType.WORD),
+            sameWords.getResult(),
+            System.nanoTime() - document.startNanos,
+            null);
+    document.text = null;
+    document.tree = null;
+  }
+
+  // The report is a single stream, so the write stage runs on the calling thread
+  private static BatchReport writeReport(BlockingQueue<BatchDocument> input, Appendable report)
+          throws InterruptedException, CustomTextException {
+    long startNanos = System.nanoTime();
+    int fileCount = 0;
+    int failedCount = 0;
+    long characters = 0;
+    long sentences = 0;
+
+    try {
+      report.append(REPORT_HEADER).append(System.lineSeparator());
+
+      BatchDocument document;
+      while ((document = input.take()) != BatchDocument.END) {
+        FileResult result = document.result;
+        if (document.error != null) {
+          result = FileResult.failed(document.file, System.nanoTime() - document.startNanos,
+                  String.valueOf(document.error.getMessage()));
+          logger.warn("Batch file failed: {}, Error: {}", document.file, result.error());
+        }
+
+        appendRow(result, report);
+
+        fileCount++;
+        characters += result.characters();
+        sentences += result.sentences();
+        if (result.isFailed()) {
+          failedCount++;
+        }
+      }
+    } catch (IOException e) {
+      throw new CustomTextException("Error writing batch report", e);
+    }
+
+    return new BatchReport(fileCount, failedCount, characters, sentences, System.nanoTime() - startNanos);
+  }
+
+  private static void appendRow(FileResult result, Appendable report) throws IOException {
+    report.append(result.file().toString()).append('\t')
+            .append(Long.toString(result.characters())).append('\t')
+            .append(Integer.toString(result.paragraphs())).append('\t')
+            .append(Integer.toString(result.sentences())).append('\t')
+            .append(Integer.toString(result.lexemes())).append('\t')
+            .append(Integer.toString(result.words())).append('\t')
+            .append(Integer.toString(result.maxSentencesWithSameWords())).append('\t')
+            .append(Long.toString(TimeUnit.NANOSECONDS.toMillis(result.nanos()))).append('\t')
+            .append(result.isFailed() ? result.error().replaceAll("\\s", " ") : "")
+            .append(System.lineSeparator());
+  }
+
+  private static void checkWorkers(List<Future<?>> workers) throws InterruptedException, CustomTextException {
+    for (Future<?> worker : workers) {
+      try {
+        worker.get();
+      } catch (ExecutionException e) {
+        throw new CustomTextException("Batch stage failed", e.getCause());
+      }
+    }
+  }
+
+  private static DocumentSource queueSource(BlockingQueue<BatchDocument> queue) {
+    return () -> {
+      BatchDocument document = queue.take();
+      if (document == BatchDocument.END) {
+        // Put back for the other workers of the stage
+        queue.put(document);
+      }
+      return document;
+    };
+  }
+
+  private static void startStage(String name, int threads, DocumentSource input, Step step,
+                                 BlockingQueue<BatchDocument> output,
+                                 List<ExecutorService> executors, List<Future<?>> workers) {
+    ExecutorService executor = Executors.newFixedThreadPool(threads,
+            Thread.ofPlatform().name("batch-" + name + "-", 1).daemon().factory());
+    executors.add(executor);
+
+    AtomicInteger running = new AtomicInteger(threads);
+    for (int i = 0; i < threads; i++) {
+      workers.add(executor.submit(() -> runWorker(name, input, step, output, running)));
+    }
+  }
+
+  private static void runWorker(String name, DocumentSource input, Step step,
+                                BlockingQueue<BatchDocument> output, AtomicInteger running) {
+    try {
+      BatchDocument document;
+      while ((document = input.next()) != BatchDocument.END) {
+        if (document.error == null) {
+          try {
+            step.apply(document);
+          } catch (CustomTextException | RuntimeException e) {
+            document.error = e;
+            document.text = null;
+            document.tree = null;
+          }
+        }
+        output.put(document);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      logger.debug("Batch {} worker interrupted", name);
+    } finally {
+      // The last worker of the stage tells the next stage that no more documents come
+      if (running.decrementAndGet() == 0) {
+        try {
+          output.put(BatchDocument.END);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+  }
+
+  @FunctionalInterface
+  private interface DocumentSource {
+    BatchDocument next() throws InterruptedException;
+  }
+
+  @FunctionalInterface
+  private interface Step {
+    void apply(BatchDocument document) throws CustomTextException;
+  }
+}
@@ -0,0 +1,4 @@
+package by.zgirskaya.course.batch;
+
+public record BatchReport(int fileCount, int failedCount, long characters, long sentences, long nanos) {
+}
@@ -0,0 +1,16 @@
+package by.zgirskaya.course.batch;
+
+import java.nio.file.Path;
+
+// One report row, error is null for files that went through every stage
+public record FileResult(Path file, long characters, int paragraphs, int sentences, int lexemes, int words,
+                         int maxSentencesWithSameWords, long nanos, String error) {
+
+  static FileResult failed(Path file, long nanos, String error) {
+    return new FileResult(file, 0, 0, 0, 0, 0, 0, nanos, error);
+  }
+
+  public boolean isFailed() {
+    return error != null;
+  }
+}
@@ -1,6 +1,17 @@
 package by.zgirskaya.course.component;
 
+import by.zgirskaya.course.exception.CustomTextException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+
 public abstract class AbstractTextComponent {
+  private static final int CHANNEL_BUFFER_SIZE = 8192;
 
   private TextComponentType type;
 
@@ -12,5 +23,49 @@ public abstract class AbstractTextComponent {
   }
 
   public abstract String toString();
+
+  // Streams the same text toString() returns depth-first, without building it in memory
+  public void writeTo(Appendable out) throws CustomTextException {
+    try {
+      renderTo(out);
+    } catch (IOException e) {
+      throw new CustomTextException("Error writing text component", e);
+    }
+  }
+
+  // The channel is flushed but stays open, closing it is up to the caller
+  public void writeTo(WritableByteChannel channel, Charset charset) throws CustomTextException {
+    Writer writer = Channels.newWriter(channel, charset.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE), CHANNEL_BUFFER_SIZE);
+
+    writeTo(writer);
+
+    try {
+      writer.flush();
+    } catch (IOException e) {
+      throw new CustomTextException("Error flushing text component to channel", e);
+    }
+  }
+
+  // Rendering hooks, composites use them to write a whole subtree into one pre-sized buffer or a stream
+  void renderTo(Appendable out) throws IOException {
+    out.append(toString());
+  }
+
+  final void renderToBuilder(StringBuilder sb) {
+    try {
+      renderTo(sb);
+    } catch (IOException e) {
+      // StringBuilder never throws
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  int getRenderedLength() {
+    return toString().length();
+  }
+
   public abstract AbstractTextComponent makeCopy();
+  public abstract void accept(TextVisitor visitor);
 }
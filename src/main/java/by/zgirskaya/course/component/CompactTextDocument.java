@@ -0,0 +1,376 @@
+package by.zgirskaya.course.component;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Struct-of-arrays text tree: one source buffer plus parallel arrays per node, node 0 is the root
+public class CompactTextDocument {
+  private static final Logger logger = LogManager.getLogger();
+
+  public static final int NO_NODE = -1;
+  public static final int BYTES_PER_NODE = Byte.BYTES + 4 * Integer.BYTES;
+
+  private static final int INITIAL_CAPACITY = 64;
+  private static final TextComponentType[] TYPES = TextComponentType.values();
+  private static final String PARAGRAPH = "\t";
+  private static final String SPACE = " ";
+
+  private final CharBuffer source;
+
+  private byte[] types = new byte[INITIAL_CAPACITY];
+  private int[] starts = new int[INITIAL_CAPACITY];
+  private int[] ends = new int[INITIAL_CAPACITY];
+  private int[] firstChildren = new int[INITIAL_CAPACITY];
+  private int[] nextSiblings = new int[INITIAL_CAPACITY];
+  private int nodeCount;
+
+  private CompactTextDocument(CharSequence source) {
+    this.source = CharBuffer.wrap(source);
+  }
+
+  public static Builder builder(CharSequence source, TextComponentType rootType) {
+    return new Builder(new CompactTextDocument(source), rootType);
+  }
+
+  public TextComposite getRoot() {
+    return new CompactComposite(this, 0);
+  }
+
+  public int getNodeCount() {
+    return nodeCount;
+  }
+
+  public TextComponentType getType(int node) {
+    return TYPES[types[node]];
+  }
+
+  public int getStart(int node) {
+    return starts[node];
+  }
+
+  public int getEnd(int node) {
+    return ends[node];
+  }
+
+  public int getFirstChild(int node) {
+    return firstChildren[node];
+  }
+
+  public int getNextSibling(int node) {
+    return nextSiblings[node];
+  }
+
+  public boolean isLeaf(int node) {
+    TextComponentType type = getType(node);
+    return type == TextComponentType.WORD || type == TextComponentType.SYMBOL;
+  }
+
+  public CharSequence getText(int node) {
+    return source.subSequence(starts[node], ends[node]);
+  }
+
+  public long getFootprintBytes() {
+    return (long) nodeCount * BYTES_PER_NODE + (long) source.length() * Character.BYTES;
+  }
+
+  private AbstractTextComponent adapt(int node) {
+    return isLeaf(node) ? new CompactLeaf(this, node) : new CompactComposite(this, node);
+  }
+
+  private int getRenderedLength(int node) {
+    int length = 0;
+    for (int child = firstChildren[node]; child != NO_NODE; child = nextSiblings[child]) {
+      length += isLeaf(child) ? ends[child] - starts[child] : getRenderedLength(child);
+
+      switch (getType(child)) {
+        case PARAGRAPH -> length += PARAGRAPH.length();
+        case LEXEME -> length += SPACE.length();
+      }
+    }
+    return length;
+  }
+
+  private void render(int node, Appendable out) throws IOException {
+    for (int child = firstChildren[node]; child != NO_NODE; child = nextSiblings[child]) {
+      if (isLeaf(child)) {
+        out.append(source, starts[child], ends[child]);
+      } else {
+        render(child, out);
+      }
+
+      switch (getType(child)) {
+        case PARAGRAPH -> out.append(PARAGRAPH);
+        case LEXEME -> out.append(SPACE);
+      }
+    }
+  }
+
+  private AbstractTextComponent materialize(int node) {
+    if (isLeaf(node)) {
+      if (getType(node) == TextComponentType.SYMBOL && ends[node] - starts[node] == 1) {
+        return TextLeaf.symbol(source.charAt(starts[node]));
+      }
+      return new TextLeaf(getText(node).toString(), getType(node));
+    }
+
+    TextComposite composite = new TextComposite(getType(node));
+    for (int child = firstChildren[node]; child != NO_NODE; child = nextSiblings[child]) {
+      composite.addChildComponent(materialize(child));
+    }
+    return composite;
+  }
+
+  private int addNode(TextComponentType type, int start, int end) {
+    if (nodeCount == types.length) {
+      int capacity = types.length * 2;
+      types = Arrays.copyOf(types, capacity);
+      starts = Arrays.copyOf(starts, capacity);
+      ends = Arrays.copyOf(ends, capacity);
+      firstChildren = Arrays.copyOf(firstChildren, capacity);
+      nextSiblings = Arrays.copyOf(nextSiblings, capacity);
+    }
+
+    int node = nodeCount++;
+    types[node] = (byte) type.ordinal();
+    starts[node] = start;
+    ends[node] = end;
+    firstChildren[node] = NO_NODE;
+    nextSiblings[node] = NO_NODE;
+    return node;
+  }
+
+  private void trimToSize() {
+    types = Arrays.copyOf(types, nodeCount);
+    starts = Arrays.copyOf(starts, nodeCount);
+    ends = Arrays.copyOf(ends, nodeCount);
+    firstChildren = Arrays.copyOf(firstChildren, nodeCount);
+    nextSiblings = Arrays.copyOf(nextSiblings, nodeCount);
+  }
+
+  public static class Builder {
+    private final CompactTextDocument document;
+
+    private int[] openNodes = new int[8];
+    private int[] lastChildren = new int[8];
+    private int depth;
+
+    private Builder(CompactTextDocument document, TextComponentType rootType) {
+      this.document = document;
+      openNodes[0] = document.addNode(rootType, 0, document.source.length());
+      lastChildren[0] = NO_NODE;
+    }
+
+    public Builder open(TextComponentType type, int start) {
+      int node = append(type, start, start);
+
+      if (++depth == openNodes.length) {
+        openNodes = Arrays.copyOf(openNodes, depth * 2);
+        lastChildren = Arrays.copyOf(lastChildren, depth * 2);
+      }
+      openNodes[depth] = node;
+      lastChildren[depth] = NO_NODE;
+      return this;
+    }
+
+    public Builder close(int end) {
+      if (depth == 0) {
+        throw new IllegalStateException("No open node to close");
+      }
+
+      document.ends[openNodes[depth--]] = end;
+      return this;
+    }
+
+    public Builder leaf(TextComponentType type, int start, int end) {
+      append(type, start, end);
+      return this;
+    }
+
+    public CompactTextDocument build() {
+      if (depth != 0) {
+        throw new IllegalStateException("Unclosed nodes left: " + depth);
+      }
+
+      document.trimToSize();
+      logger.debug("Built compact document. Nodes: {}, Footprint bytes: {}",
+              document.nodeCount, document.getFootprintBytes());
+
+      return document;
+    }
+
+    private int append(TextComponentType type, int start, int end) {
+      int node = document.addNode(type, start, end);
+      int lastChild = lastChildren[depth];
+
+      if (lastChild == NO_NODE) {
+        document.firstChildren[openNodes[depth]] = node;
+      } else {
+        document.nextSiblings[lastChild] = node;
+      }
+      lastChildren[depth] = node;
+      return node;
+    }
+  }
+
+  // Read-only views, created on demand, so only the arrays stay in memory
+  private static class CompactComposite extends TextComposite {
+    private final CompactTextDocument document;
+    private final int node;
+
+    CompactComposite(CompactTextDocument document, int node) {
+      super(document.getType(node));
+      this.document = document;
+      this.node = node;
+    }
+
+    @Override
+    public List<AbstractTextComponent> getChildComponents() {
+      List<AbstractTextComponent> children = new ArrayList<>();
+      for (int child = document.firstChildren[node]; child != NO_NODE; child = document.nextSiblings[child]) {
+        children.add(document.adapt(child));
+      }
+      return children;
+    }
+
+    @Override
+    public List<AbstractTextComponent> getChildComponentsView() {
+      return Collections.unmodifiableList(getChildComponents());
+    }
+
+    @Override
+    public AbstractTextComponent getChildComponent(int index) {
+      int child = document.firstChildren[node];
+      for (int i = 0; i < index && child != NO_NODE; i++) {
+        child = document.nextSiblings[child];
+      }
+
+      if (index < 0 || child == NO_NODE) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + getChildComponentCount());
+      }
+      return document.adapt(child);
+    }
+
+    @Override
+    public int getChildComponentCount() {
+      int count = 0;
+      for (int child = document.firstChildren[node]; child != NO_NODE; child = document.nextSiblings[child]) {
+        count++;
+      }
+      return count;
+    }
+
+    @Override
+    public void forEachChildComponent(Consumer<? super AbstractTextComponent> action) {
+      for (int child = document.firstChildren[node]; child != NO_NODE; child = document.nextSiblings[child]) {
+        action.accept(document.adapt(child));
+      }
+    }
+
+    @Override
+    public void setChildComponents(List<AbstractTextComponent> components) {
+      throw new UnsupportedOperationException("Compact document is read-only");
+    }
+
+    @Override
+    public void replaceChildComponents(int from, int to, List<? extends AbstractTextComponent> components) {
+      throw new UnsupportedOperationException("Compact document is read-only");
+    }
+
+    @Override
+    public void setChildComponent(int index, AbstractTextComponent component) {
+      throw new UnsupportedOperationException("Compact document is read-only");
+    }
+
+    @Override
+    public void addChildComponent(AbstractTextComponent component) {
+      throw new UnsupportedOperationException("Compact document is read-only");
+    }
+
+    @Override
+    public void setComponentType(TextComponentType type) {
+      throw new UnsupportedOperationException("Compact document is read-only");
+    }
+
+    @Override
+    public void accept(TextVisitor visitor) {
+      visitor.enterComposite(this);
+
+      for (int child = document.firstChildren[node]; child != NO_NODE; child = document.nextSiblings[child]) {
+        document.adapt(child).accept(visitor);
+      }
+
+      visitor.exitComposite(this);
+    }
+
+    @Override
+    void renderTo(Appendable out) throws IOException {
+      document.render(node, out);
+    }
+
+    @Override
+    int getRenderedLength() {
+      return document.getRenderedLength(node);
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder sb = new StringBuilder(getRenderedLength());
+      renderToBuilder(sb);
+      return sb.toString();
+    }
+
+    @Override
+    public TextComposite makeCopy() {
+      return (TextComposite) document.materialize(node);
+    }
+  }
+
+  private static class CompactLeaf extends AbstractTextComponent {
+    private final CompactTextDocument document;
+    private final int node;
+
+    CompactLeaf(CompactTextDocument document, int node) {
+      super.setComponentType(document.getType(node));
+      this.document = document;
+      this.node = node;
+    }
+
+    @Override
+    public void setComponentType(TextComponentType type) {
+      throw new UnsupportedOperationException("Compact document is read-only");
+    }
+
+    @Override
+    public void accept(TextVisitor visitor) {
+      visitor.visitLeaf(this);
+    }
+
+    @Override
+    void renderTo(Appendable out) throws IOException {
+      out.append(document.getText(node));
+    }
+
+    @Override
+    int getRenderedLength() {
+      return document.ends[node] - document.starts[node];
+    }
+
+    @Override
+    public String toString() {
+      return document.getText(node).toString();
+    }
+
+    @Override
+    public AbstractTextComponent makeCopy() {
+      return document.materialize(node);
+    }
+  }
+}
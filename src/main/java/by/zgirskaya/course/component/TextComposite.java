@@ -1,79 +1,464 @@
 package by.zgirskaya.course.component;
 
+import by.zgirskaya.course.metrics.PerformanceMode;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
 
 public class TextComposite extends AbstractTextComponent {
   private static final Logger logger = LogManager.getLogger();
 
   private static final String PARAGRAPH = "\t";
   private static final String SPACE = " ";
+  private static final int UNKNOWN_LENGTH = -1;
+  private static final int MIN_DEPENDENTS_TO_PRUNE = 4;
 
-  private ArrayList<AbstractTextComponent> childComponents = new ArrayList<>();
+  private ArrayList<AbstractTextComponent> childComponents;
+  private final List<AbstractTextComponent> childComponentsView = new ChildComponentsView();
+
+  // Set while this copy still reads the children of its source, copies get their own children before a change
+  private volatile TextComposite source;
+  // Copies sharing the children of this composite, they take their own ones before this composite changes
+  private List<WeakReference<TextComposite>> dependents;
+  private int dependentsToPrune = MIN_DEPENDENTS_TO_PRUNE;
+
+  // Composites this one is attached to, extra parents only appear when a subtree is shared. Trees built
+  // over a shared subtree must not keep each other alive through it, so extra parents are held weakly
+  private TextComposite parent;
+  private List<WeakReference<TextComposite>> extraParents;
+  private int extraParentsToPrune = MIN_DEPENDENTS_TO_PRUNE;
+
+  // Memoized rendering, a known length implies known lengths of all child composites
+  private int renderedLength = UNKNOWN_LENGTH;
+  private String rendered;
 
   public TextComposite(TextComponentType type) {
-    logger.debug("Creating TextComposite with type: {}", type);
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.debug("Creating TextComposite with type: {}", type);
+    }
+
+    super.setComponentType(type);
+    childComponents = new ArrayList<>();
+  }
 
-    this.setComponentType(type);
+  private TextComposite(TextComposite source, TextComponentType type) {
+    super.setComponentType(type);
+    this.source = source;
   }
 
+  // A copy takes its own children first, so the returned ones can be changed without touching its source
   public List<AbstractTextComponent> getChildComponents() {
-    logger.debug("Getting child components. Current count: {}", childComponents.size());
+    ArrayList<AbstractTextComponent> children = ownChildComponents();
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.debug("Getting child components. Current count: {}", children.size());
+    }
+
+    return new ArrayList<>(children);
+  }
 
-    return new ArrayList<>(childComponents);
+  // Zero-copy access for traversals, the view follows later changes of the children.
+  // Reads never copy: a copy that has not changed yet hands out the children of its source
+  public List<AbstractTextComponent> getChildComponentsView() {
+    return childComponentsView;
+  }
+
+  public AbstractTextComponent getChildComponent(int index) {
+    return readChildComponents().get(index);
+  }
+
+  public int getChildComponentCount() {
+    return readChildComponents().size();
+  }
+
+  public void forEachChildComponent(Consumer<? super AbstractTextComponent> action) {
+    for (AbstractTextComponent component : readChildComponents()) {
+      action.accept(component);
+    }
   }
 
   public void setChildComponents(List<AbstractTextComponent> components) {
-    logger.debug("Setting child components. Old count: {}, New count: {}",
-            childComponents.size(), components.size());
+    prepareForWrite();
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.debug("Setting child components. Old count: {}, New count: {}",
+              childComponents.size(), components.size());
+    }
+
+    for (AbstractTextComponent component : childComponents) {
+      if (component instanceof TextComposite composite) {
+        composite.detachFrom(this);
+      }
+    }
 
     childComponents = new ArrayList<>(components);
+
+    for (AbstractTextComponent component : childComponents) {
+      if (component instanceof TextComposite composite) {
+        composite.attachTo(this);
+      }
+    }
+    invalidateRendering();
+  }
+
+  // Replaces the children in [from, to), the other children stay attached as they are
+  public void replaceChildComponents(int from, int to, List<? extends AbstractTextComponent> components) {
+    prepareForWrite();
+    Objects.checkFromToIndex(from, to, childComponents.size());
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.debug("Replacing child components. From: {}, To: {}, New count: {}",
+              from, to, components.size());
+    }
+
+    List<AbstractTextComponent> range = childComponents.subList(from, to);
+    for (AbstractTextComponent component : range) {
+      if (component instanceof TextComposite composite) {
+        composite.detachFrom(this);
+      }
+    }
+
+    range.clear();
+    childComponents.addAll(from, components);
+
+    for (AbstractTextComponent component : components) {
+      if (component instanceof TextComposite composite) {
+        composite.attachTo(this);
+      }
+    }
+    invalidateRendering();
+  }
+
+  // Replaces one child, e.g. a leaf by a retyped one, copies sharing this composite keep the old child
+  public void setChildComponent(int index, AbstractTextComponent component) {
+    prepareForWrite();
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.debug("Setting child component. Index: {}, Type: {}", index, component.getComponentType());
+    }
+
+    AbstractTextComponent previous = childComponents.set(index, component);
+    if (previous instanceof TextComposite composite) {
+      composite.detachFrom(this);
+    }
+
+    if (component instanceof TextComposite composite) {
+      composite.attachTo(this);
+    }
+    invalidateRendering();
   }
 
   public void addChildComponent(AbstractTextComponent component) {
-    logger.debug("Adding child component. Type: {}, Current children before: {}",
-            component.getComponentType(), childComponents.size());
+    prepareForWrite();
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.debug("Adding child component. Type: {}, Current children before: {}",
+              component.getComponentType(), childComponents.size());
+    }
 
     childComponents.add(component);
+
+    if (component instanceof TextComposite composite) {
+      composite.attachTo(this);
+    }
+    invalidateRendering();
   }
 
   @Override
-  public String toString() {
-    logger.debug("Starting toString() for TextComposite. Type: {}, Children count: {}",
-            this.getComponentType(), childComponents.size());
+  public void setComponentType(TextComponentType type) {
+    prepareForWrite();
+    super.setComponentType(type);
+
+    // The type decides which separator the parents append after this composite
+    invalidateParents();
+  }
+
+  private ArrayList<AbstractTextComponent> readChildComponents() {
+    TextComposite origin = source;
+    return origin != null ? origin.childComponents : childComponents;
+  }
 
-    StringBuilder sb = new StringBuilder();
+  private ArrayList<AbstractTextComponent> ownChildComponents() {
+    if (source != null) {
+      materialize();
+    }
+    return childComponents;
+  }
+
+  // Replaces the shared children with copies of them, one level at a time
+  private synchronized void materialize() {
+    TextComposite origin = source;
+    if (origin == null) {
+      return;
+    }
+
+    ArrayList<AbstractTextComponent> children = new ArrayList<>(origin.childComponents.size());
+    for (AbstractTextComponent child : origin.childComponents) {
+      AbstractTextComponent childCopy = child.makeCopy();
+      children.add(childCopy);
+
+      if (childCopy instanceof TextComposite composite) {
+        composite.attachTo(this);
+      }
+    }
+
+    childComponents = children;
+    // Same content as the source, so its rendering still holds
+    renderedLength = origin.renderedLength;
+    rendered = origin.rendered;
+    source = null;
+  }
+
+  // Copies sharing this composite directly or through an ancestor must not see the change
+  private void prepareForWrite() {
+    if (source != null) {
+      materialize();
+    }
+    materializeDependents();
+  }
+
+  private void materializeDependents() {
+    if (parent != null) {
+      parent.materializeDependents();
+    }
+    if (extraParents != null) {
+      for (TextComposite extraParent : liveExtraParents()) {
+        extraParent.materializeDependents();
+      }
+    }
+
+    if (dependents == null) {
+      return;
+    }
+
+    List<TextComposite> copies;
+    synchronized (this) {
+      if (dependents == null) {
+        return;
+      }
+      copies = liveDependents();
+      dependents = null;
+      dependentsToPrune = MIN_DEPENDENTS_TO_PRUNE;
+    }
+
+    for (TextComposite copy : copies) {
+      copy.materialize();
+    }
+  }
+
+  private synchronized void addDependent(TextComposite copy) {
+    if (dependents == null) {
+      dependents = new ArrayList<>(1);
+    } else if (dependents.size() >= dependentsToPrune) {
+      List<WeakReference<TextComposite>> live = new ArrayList<>();
+      for (TextComposite dependent : liveDependents()) {
+        live.add(new WeakReference<>(dependent));
+      }
+      dependents = live;
+      dependentsToPrune = Math.max(MIN_DEPENDENTS_TO_PRUNE, live.size() * 2);
+    }
+
+    dependents.add(new WeakReference<>(copy));
+  }
+
+  // Copies that still read the children of this composite
+  synchronized int getDependentCount() {
+    return dependents == null ? 0 : liveDependents().size();
+  }
+
+  private List<TextComposite> liveDependents() {
+    List<TextComposite> live = new ArrayList<>(dependents.size());
+    for (WeakReference<TextComposite> reference : dependents) {
+      TextComposite dependent = reference.get();
+      if (dependent != null && dependent.source == this) {
+        live.add(dependent);
+      }
+    }
+    return live;
+  }
+
+  // Synchronized as analyses running side by side may build trees over the same subtree
+  private synchronized void attachTo(TextComposite newParent) {
+    if (parent == null || parent == newParent) {
+      parent = newParent;
+      return;
+    }
+
+    if (extraParents == null) {
+      extraParents = new ArrayList<>(1);
+    } else if (extraParents.size() >= extraParentsToPrune) {
+      extraParents.removeIf(reference -> reference.get() == null);
+      extraParentsToPrune = Math.max(MIN_DEPENDENTS_TO_PRUNE, extraParents.size() * 2);
+    }
+    extraParents.add(new WeakReference<>(newParent));
+  }
+
+  private synchronized void detachFrom(TextComposite oldParent) {
+    if (parent == oldParent) {
+      parent = null;
+      while (parent == null && extraParents != null && !extraParents.isEmpty()) {
+        parent = extraParents.removeLast().get();
+      }
+    } else if (extraParents != null) {
+      for (int i = 0; i < extraParents.size(); i++) {
+        if (extraParents.get(i).get() == oldParent) {
+          extraParents.remove(i);
+          break;
+        }
+      }
+    }
+  }
+
+  private synchronized List<TextComposite> liveExtraParents() {
+    List<TextComposite> live = new ArrayList<>(extraParents.size());
+    for (WeakReference<TextComposite> reference : extraParents) {
+      TextComposite extraParent = reference.get();
+      if (extraParent != null) {
+        live.add(extraParent);
+      }
+    }
+    return live;
+  }
+
+  private void invalidateRendering() {
+    // Already invalid means the ancestors were invalidated before as well
+    if (renderedLength == UNKNOWN_LENGTH) {
+      return;
+    }
+
+    renderedLength = UNKNOWN_LENGTH;
+    rendered = null;
+    invalidateParents();
+  }
+
+  private void invalidateParents() {
+    if (parent != null) {
+      parent.invalidateRendering();
+    }
+    if (extraParents != null) {
+      for (TextComposite extraParent : liveExtraParents()) {
+        extraParent.invalidateRendering();
+      }
+    }
+  }
+
+  @Override
+  public void accept(TextVisitor visitor) {
+    visitor.enterComposite(this);
+
+    for (AbstractTextComponent component : readChildComponents()) {
+      component.accept(visitor);
+    }
+
+    visitor.exitComposite(this);
+  }
+
+  @Override
+  void renderTo(Appendable out) throws IOException {
+    TextComposite origin = source;
+    if (origin != null) {
+      origin.renderTo(out);
+      return;
+    }
+
+    if (rendered != null) {
+      out.append(rendered);
+      return;
+    }
 
     for (AbstractTextComponent component : childComponents) {
-      sb.append(component);
+      component.renderTo(out);
 
       switch (component.getComponentType()) {
-        case TextComponentType.PARAGRAPH -> sb.append(PARAGRAPH);
-        case TextComponentType.LEXEME -> sb.append(SPACE);
+        case TextComponentType.PARAGRAPH -> out.append(PARAGRAPH);
+        case TextComponentType.LEXEME -> out.append(SPACE);
       }
     }
+  }
+
+  @Override
+  int getRenderedLength() {
+    TextComposite origin = source;
+    if (origin != null) {
+      return origin.getRenderedLength();
+    }
+
+    if (renderedLength == UNKNOWN_LENGTH) {
+      int length = 0;
+
+      for (AbstractTextComponent component : childComponents) {
+        length += component.getRenderedLength();
+
+        switch (component.getComponentType()) {
+          case TextComponentType.PARAGRAPH -> length += PARAGRAPH.length();
+          case TextComponentType.LEXEME -> length += SPACE.length();
+        }
+      }
+
+      renderedLength = length;
+    }
 
-    return sb.toString();
+    return renderedLength;
   }
 
   @Override
-  public TextComposite makeCopy() {
-    logger.info("Creating deep copy of TextComposite. Type: {}, Children count: {}",
-            this.getComponentType(), childComponents.size());
+  public String toString() {
+    TextComposite origin = source;
+    if (origin != null) {
+      return origin.toString();
+    }
 
-    TextComposite copy = new TextComposite(this.getComponentType());
+    if (rendered != null) {
+      return rendered;
+    }
 
-    for (AbstractTextComponent child : childComponents) {
-      AbstractTextComponent childCopy = child.makeCopy();
-      copy.addChildComponent(childCopy);
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.debug("Starting toString() for TextComposite. Type: {}, Children count: {}",
+              this.getComponentType(), childComponents.size());
     }
 
-    logger.info("Deep copy completed successfully. Original children: {}, Copied children: {}",
-            childComponents.size(), copy.childComponents.size());
+    StringBuilder sb = new StringBuilder(getRenderedLength());
+    renderToBuilder(sb);
+    rendered = sb.toString();
+
+    return rendered;
+  }
+
+  // O(1), the copy reads the children of its source until either side changes
+  @Override
+  public TextComposite makeCopy() {
+    TextComposite origin = source;
+    if (origin == null) {
+      origin = this;
+    }
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.debug("Creating copy-on-write copy of TextComposite. Type: {}", getComponentType());
+    }
+
+    TextComposite copy = new TextComposite(origin, getComponentType());
+    origin.addDependent(copy);
 
     return copy;
   }
-}
\ No newline at end of file
+
+  private class ChildComponentsView extends AbstractList<AbstractTextComponent> implements RandomAccess {
+    @Override
+    public AbstractTextComponent get(int index) {
+      return readChildComponents().get(index);
+    }
+
+    @Override
+    public int size() {
+      return readChildComponents().size();
+    }
+  }
+}
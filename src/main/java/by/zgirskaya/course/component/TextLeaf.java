@@ -1,33 +1,118 @@
 package by.zgirskaya.course.component;
 
+import by.zgirskaya.course.metrics.PerformanceMode;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 public class TextLeaf extends AbstractTextComponent {
   private static final Logger logger = LogManager.getLogger();
 
+  // Flyweight SYMBOL leaves, one per char, created on first use
+  private static final AtomicReferenceArray<TextLeaf> SYMBOL_LEAVES =
+          new AtomicReferenceArray<>(Character.MAX_VALUE + 1);
+
   private final String text;
+  private final boolean shared;
+  // Set on WORD leaves created through a dictionary, analyses compare the ids instead of the texts
+  private final WordDictionary dictionary;
+  private final int wordId;
 
   public TextLeaf(String text, TextComponentType type) {
-    logger.debug("Creating TextLeaf. Type: {}, Text: '{}', Text length: {}",
-            type, text, text.length());
+    this(text, type, false, null, WordDictionary.NO_WORD);
+  }
+
+  private TextLeaf(String text, TextComponentType type, boolean shared, WordDictionary dictionary, int wordId) {
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.debug("Creating TextLeaf. Type: {}, Text: '{}', Text length: {}, Shared: {}",
+              type, text, text.length(), shared);
+    }
 
     this.text = text;
-    this.setComponentType(type);
+    this.shared = shared;
+    this.dictionary = dictionary;
+    this.wordId = wordId;
+    super.setComponentType(type);
+  }
+
+  public static TextLeaf symbol(char symbol) {
+    TextLeaf leaf = SYMBOL_LEAVES.get(symbol);
+
+    if (leaf == null) {
+      leaf = new TextLeaf(String.valueOf(symbol), TextComponentType.SYMBOL, true, null, WordDictionary.NO_WORD);
+      if (!SYMBOL_LEAVES.compareAndSet(symbol, null, leaf)) {
+        leaf = SYMBOL_LEAVES.get(symbol);
+      }
+    }
+
+    return leaf;
   }
 
+  public static TextLeaf word(String text, WordDictionary dictionary) {
+    return new TextLeaf(text, TextComponentType.WORD, false, dictionary, dictionary.idOf(text));
+  }
+
+  // Null for leaves created without a dictionary
+  public WordDictionary getDictionary() {
+    return dictionary;
+  }
+
+  public int getWordId() {
+    return wordId;
+  }
+
+  public boolean isShared() {
+    return shared;
+  }
+
+  // A shared leaf sits at many positions, a new type would show up at all of them.
+  // Copies may still read this leaf and parents memoize their rendering, TextComposite.setChildComponent
+  // with a retyped leaf keeps both right
+  @Override
+  public void setComponentType(TextComponentType type) {
+    if (shared) {
+      throw new UnsupportedOperationException("Shared text leaf cannot change its type");
+    }
+    super.setComponentType(type);
+  }
+
+  // Shared leaves are immutable, so every copy can use the same one
   @Override
   public TextLeaf makeCopy() {
-    logger.debug("Creating copy of TextLeaf. Original type: {}, Text: '{}'",
-            getComponentType(), text);
+    if (shared) {
+      return this;
+    }
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.debug("Creating copy of TextLeaf. Original type: {}, Text: '{}'", getComponentType(), text);
+    }
+
+    return new TextLeaf(text, getComponentType(), false, dictionary, wordId);
+  }
 
-    return new TextLeaf(this.text, getComponentType());
+  @Override
+  public void accept(TextVisitor visitor) {
+    visitor.visitLeaf(this);
+  }
+
+  @Override
+  void renderTo(Appendable out) throws IOException {
+    out.append(text);
+  }
+
+  @Override
+  int getRenderedLength() {
+    return text.length();
   }
 
   @Override
   public String toString() {
-    logger.debug("Calling toString() on TextLeaf. Type: {}, Text: '{}'",
-            getComponentType(), text);
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.debug("Calling toString() on TextLeaf. Type: {}, Text: '{}'",
+              getComponentType(), text);
+    }
 
     return this.text;
   }
@@ -0,0 +1,454 @@
+package by.zgirskaya.course.component;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+// Immutable document node, safe to share between threads and caches.
+// Modifications return new trees that reuse every unchanged subtree.
+public final class TextNode {
+  private static final Logger logger = LogManager.getLogger();
+
+  private static final String PARAGRAPH = "\t";
+  private static final String SPACE = " ";
+
+  private static final AtomicReferenceArray<TextNode> SYMBOL_NODES =
+          new AtomicReferenceArray<>(Character.MAX_VALUE + 1);
+
+  private final TextComponentType type;
+  private final String text;
+  private final List<TextNode> children;
+  private final int renderedLength;
+
+  // Benign race, every thread renders the same string
+  private String rendered;
+
+  private TextNode(TextComponentType type, String text, List<TextNode> children) {
+    this.type = type;
+    this.text = text;
+    this.children = children;
+    this.renderedLength = text != null ? text.length() : computeRenderedLength(children);
+  }
+
+  public static TextNode leaf(String text, TextComponentType type) {
+    if (type == TextComponentType.SYMBOL && text.length() == 1) {
+      return symbol(text.charAt(0));
+    }
+    return new TextNode(type, text, List.of());
+  }
+
+  public static TextNode symbol(char symbol) {
+    TextNode node = SYMBOL_NODES.get(symbol);
+
+    if (node == null) {
+      node = new TextNode(TextComponentType.SYMBOL, String.valueOf(symbol), List.of());
+      if (!SYMBOL_NODES.compareAndSet(symbol, null, node)) {
+        node = SYMBOL_NODES.get(symbol);
+      }
+    }
+
+    return node;
+  }
+
+  public static TextNode composite(TextComponentType type, List<TextNode> children) {
+    return new TextNode(type, null, List.copyOf(children));
+  }
+
+  public static Builder builder(TextComponentType rootType) {
+    return new Builder(rootType);
+  }
+
+  public static TextNode fromComponent(AbstractTextComponent component) {
+    // Views from asComponent() already have their node
+    if (component instanceof NodeComposite view) {
+      return view.node;
+    }
+    if (component instanceof NodeLeaf view) {
+      return view.node;
+    }
+    if (!(component instanceof TextComposite composite)) {
+      return leaf(component.toString(), component.getComponentType());
+    }
+
+    List<AbstractTextComponent> components = composite.getChildComponentsView();
+    TextNode[] nodes = new TextNode[components.size()];
+    for (int i = 0; i < nodes.length; i++) {
+      nodes[i] = fromComponent(components.get(i));
+    }
+    return new TextNode(composite.getComponentType(), null, List.of(nodes));
+  }
+
+  public AbstractTextComponent toComponent() {
+    if (isLeaf()) {
+      return type == TextComponentType.SYMBOL && text.length() == 1
+              ? TextLeaf.symbol(text.charAt(0))
+              : new TextLeaf(text, type);
+    }
+
+    TextComposite composite = new TextComposite(type);
+    List<AbstractTextComponent> components = new ArrayList<>(children.size());
+    for (TextNode child : children) {
+      components.add(child.toComponent());
+    }
+    composite.setChildComponents(components);
+    return composite;
+  }
+
+  // Read-only component over this node for services and analyses, nothing is copied. Adapters are created
+  // on demand while the tree is walked, makeCopy() on them gives a mutable copy
+  public AbstractTextComponent asComponent() {
+    if (!isLeaf()) {
+      return new NodeComposite(this);
+    }
+    return type == TextComponentType.SYMBOL && text.length() == 1
+            ? TextLeaf.symbol(text.charAt(0))
+            : new NodeLeaf(this);
+  }
+
+  public void accept(TextVisitor visitor) {
+    asComponent().accept(visitor);
+  }
+
+  public TextComponentType getType() {
+    return type;
+  }
+
+  public boolean isLeaf() {
+    return text != null;
+  }
+
+  public String getText() {
+    return text;
+  }
+
+  public List<TextNode> getChildren() {
+    return children;
+  }
+
+  public TextNode getChild(int index) {
+    return children.get(index);
+  }
+
+  public int getChildCount() {
+    return children.size();
+  }
+
+  public int getRenderedLength() {
+    return renderedLength;
+  }
+
+  public TextNode withType(TextComponentType newType) {
+    return newType == type ? this : new TextNode(newType, text, children);
+  }
+
+  public TextNode withChildren(List<TextNode> newChildren) {
+    requireComposite();
+    return new TextNode(type, null, List.copyOf(newChildren));
+  }
+
+  public TextNode withChild(int index, TextNode child) {
+    requireComposite();
+    if (children.get(index) == child) {
+      return this;
+    }
+
+    TextNode[] nodes = children.toArray(new TextNode[0]);
+    nodes[index] = child;
+    return new TextNode(type, null, List.of(nodes));
+  }
+
+  public TextNode withChildAdded(TextNode child) {
+    requireComposite();
+
+    TextNode[] nodes = children.toArray(new TextNode[children.size() + 1]);
+    nodes[children.size()] = child;
+    return new TextNode(type, null, List.of(nodes));
+  }
+
+  public TextNode withChildrenSwapped(int first, int second) {
+    requireComposite();
+    if (first == second) {
+      return this;
+    }
+
+    TextNode[] nodes = children.toArray(new TextNode[0]);
+    nodes[first] = children.get(second);
+    nodes[second] = children.get(first);
+    return new TextNode(type, null, List.of(nodes));
+  }
+
+  // Rebuilds only the nodes on the path, path holds child indexes starting from this node
+  public TextNode updateAt(int[] path, UnaryOperator<TextNode> update) {
+    return updateAt(path, 0, update);
+  }
+
+  private TextNode updateAt(int[] path, int depth, UnaryOperator<TextNode> update) {
+    if (depth == path.length) {
+      return update.apply(this);
+    }
+
+    requireComposite();
+    TextNode child = children.get(path[depth]);
+    return withChild(path[depth], child.updateAt(path, depth + 1, update));
+  }
+
+  private void requireComposite() {
+    if (isLeaf()) {
+      throw new UnsupportedOperationException("Leaf node has no children");
+    }
+  }
+
+  @Override
+  public String toString() {
+    if (text != null) {
+      return text;
+    }
+
+    String result = rendered;
+    if (result == null) {
+      StringBuilder sb = new StringBuilder(renderedLength);
+      renderTo(sb);
+      result = sb.toString();
+      rendered = result;
+    }
+    return result;
+  }
+
+  private void renderTo(StringBuilder sb) {
+    if (text != null) {
+      sb.append(text);
+      return;
+    }
+
+    String result = rendered;
+    if (result != null) {
+      sb.append(result);
+      return;
+    }
+
+    for (TextNode child : children) {
+      child.renderTo(sb);
+
+      switch (child.type) {
+        case PARAGRAPH -> sb.append(PARAGRAPH);
+        case LEXEME -> sb.append(SPACE);
+      }
+    }
+  }
+
+  private static int computeRenderedLength(List<TextNode> children) {
+    int length = 0;
+    for (TextNode child : children) {
+      length += child.renderedLength;
+
+      switch (child.type) {
+        case PARAGRAPH -> length += PARAGRAPH.length();
+        case LEXEME -> length += SPACE.length();
+      }
+    }
+    return length;
+  }
+
+  private static class NodeComposite extends TextComposite {
+    private final TextNode node;
+
+    NodeComposite(TextNode node) {
+      super(node.type);
+      this.node = node;
+    }
+
+    @Override
+    public List<AbstractTextComponent> getChildComponents() {
+      return new ArrayList<>(getChildComponentsView());
+    }
+
+    @Override
+    public List<AbstractTextComponent> getChildComponentsView() {
+      return new NodeChildren(node.children);
+    }
+
+    @Override
+    public AbstractTextComponent getChildComponent(int index) {
+      return node.children.get(index).asComponent();
+    }
+
+    @Override
+    public int getChildComponentCount() {
+      return node.children.size();
+    }
+
+    @Override
+    public void forEachChildComponent(Consumer<? super AbstractTextComponent> action) {
+      for (TextNode child : node.children) {
+        action.accept(child.asComponent());
+      }
+    }
+
+    @Override
+    public void setChildComponents(List<AbstractTextComponent> components) {
+      throw new UnsupportedOperationException("Text node is read-only");
+    }
+
+    @Override
+    public void replaceChildComponents(int from, int to, List<? extends AbstractTextComponent> components) {
+      throw new UnsupportedOperationException("Text node is read-only");
+    }
+
+    @Override
+    public void setChildComponent(int index, AbstractTextComponent component) {
+      throw new UnsupportedOperationException("Text node is read-only");
+    }
+
+    @Override
+    public void addChildComponent(AbstractTextComponent component) {
+      throw new UnsupportedOperationException("Text node is read-only");
+    }
+
+    @Override
+    public void setComponentType(TextComponentType type) {
+      throw new UnsupportedOperationException("Text node is read-only");
+    }
+
+    @Override
+    public void accept(TextVisitor visitor) {
+      visitor.enterComposite(this);
+
+      for (TextNode child : node.children) {
+        child.asComponent().accept(visitor);
+      }
+
+      visitor.exitComposite(this);
+    }
+
+    @Override
+    void renderTo(Appendable out) throws IOException {
+      out.append(node.toString());
+    }
+
+    @Override
+    int getRenderedLength() {
+      return node.renderedLength;
+    }
+
+    @Override
+    public String toString() {
+      return node.toString();
+    }
+
+    @Override
+    public TextComposite makeCopy() {
+      return (TextComposite) node.toComponent();
+    }
+  }
+
+  private static class NodeLeaf extends AbstractTextComponent {
+    private final TextNode node;
+
+    NodeLeaf(TextNode node) {
+      super.setComponentType(node.type);
+      this.node = node;
+    }
+
+    @Override
+    public void setComponentType(TextComponentType type) {
+      throw new UnsupportedOperationException("Text node is read-only");
+    }
+
+    @Override
+    public void accept(TextVisitor visitor) {
+      visitor.visitLeaf(this);
+    }
+
+    @Override
+    int getRenderedLength() {
+      return node.renderedLength;
+    }
+
+    @Override
+    public String toString() {
+      return node.text;
+    }
+
+    @Override
+    public AbstractTextComponent makeCopy() {
+      return node.toComponent();
+    }
+  }
+
+  private static class NodeChildren extends AbstractList<AbstractTextComponent> implements RandomAccess {
+    private final List<TextNode> children;
+
+    NodeChildren(List<TextNode> children) {
+      this.children = children;
+    }
+
+    @Override
+    public AbstractTextComponent get(int index) {
+      return children.get(index).asComponent();
+    }
+
+    @Override
+    public int size() {
+      return children.size();
+    }
+  }
+
+  public static class Builder {
+    private final List<TextComponentType> openTypes = new ArrayList<>();
+    private final List<List<TextNode>> openChildren = new ArrayList<>();
+
+    private int nodeCount = 1;
+
+    private Builder(TextComponentType rootType) {
+      openTypes.add(rootType);
+      openChildren.add(new ArrayList<>());
+    }
+
+    public Builder open(TextComponentType type) {
+      openTypes.add(type);
+      openChildren.add(new ArrayList<>());
+      return this;
+    }
+
+    public Builder close() {
+      int depth = openTypes.size() - 1;
+      if (depth == 0) {
+        throw new IllegalStateException("No open node to close");
+      }
+
+      TextNode node = new TextNode(openTypes.remove(depth), null, List.copyOf(openChildren.remove(depth)));
+      openChildren.get(depth - 1).add(node);
+      nodeCount++;
+      return this;
+    }
+
+    public Builder leaf(String text, TextComponentType type) {
+      return add(TextNode.leaf(text, type));
+    }
+
+    public Builder add(TextNode node) {
+      openChildren.getLast().add(node);
+      nodeCount++;
+      return this;
+    }
+
+    public TextNode build() {
+      if (openTypes.size() != 1) {
+        throw new IllegalStateException("Unclosed nodes left: " + (openTypes.size() - 1));
+      }
+
+      TextNode root = new TextNode(openTypes.getFirst(), null, List.copyOf(openChildren.getFirst()));
+      logger.debug("Built immutable document. Nodes: {}, Rendered length: {}", nodeCount, root.renderedLength);
+
+      return root;
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package by.zgirskaya.course.component;
+
+import java.io.IOException;
+import java.util.Objects;
+
+// Immutable leaf over a range of a larger text, the String is only created when asked for
+public final class TextSlice extends AbstractTextComponent {
+  private final CharSequence source;
+  private final int start;
+  private final int end;
+  private final WordDictionary dictionary;
+  private final int wordId;
+
+  // Benign race, every thread creates the same string
+  private String text;
+
+  public TextSlice(CharSequence source, int start, int end, TextComponentType type) {
+    this(source, start, end, type, null);
+  }
+
+  private TextSlice(CharSequence source, int start, int end, TextComponentType type, WordDictionary dictionary) {
+    Objects.checkFromToIndex(start, end, source.length());
+
+    this.source = source;
+    this.start = start;
+    this.end = end;
+    this.dictionary = dictionary;
+    this.wordId = dictionary != null ? dictionary.idOf(source, start, end) : WordDictionary.NO_WORD;
+    super.setComponentType(type);
+  }
+
+  public static TextSlice word(CharSequence source, int start, int end, WordDictionary dictionary) {
+    return new TextSlice(source, start, end, TextComponentType.WORD, Objects.requireNonNull(dictionary));
+  }
+
+  public CharSequence getSource() {
+    return source;
+  }
+
+  public int getStart() {
+    return start;
+  }
+
+  public int getEnd() {
+    return end;
+  }
+
+  // Null for slices created without a dictionary
+  public WordDictionary getDictionary() {
+    return dictionary;
+  }
+
+  public int getWordId() {
+    return wordId;
+  }
+
+  public int length() {
+    return end - start;
+  }
+
+  public char charAt(int index) {
+    return source.charAt(start + Objects.checkIndex(index, end - start));
+  }
+
+  @Override
+  public void setComponentType(TextComponentType type) {
+    throw new UnsupportedOperationException("Text slice cannot change its type");
+  }
+
+  @Override
+  public TextSlice makeCopy() {
+    return this;
+  }
+
+  @Override
+  public void accept(TextVisitor visitor) {
+    visitor.visitLeaf(this);
+  }
+
+  @Override
+  void renderTo(Appendable out) throws IOException {
+    if (text != null) {
+      out.append(text);
+    } else {
+      out.append(source, start, end);
+    }
+  }
+
+  @Override
+  int getRenderedLength() {
+    return end - start;
+  }
+
+  @Override
+  public String toString() {
+    String result = text;
+    if (result == null) {
+      result = source.subSequence(start, end).toString();
+      text = result;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,12 @@
+package by.zgirskaya.course.component;
+
+public interface TextVisitor {
+  default void enterComposite(TextComposite composite) {
+  }
+
+  default void exitComposite(TextComposite composite) {
+  }
+
+  default void visitLeaf(AbstractTextComponent leaf) {
+  }
+}
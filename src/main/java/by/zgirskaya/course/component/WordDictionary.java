@@ -0,0 +1,215 @@
+package by.zgirskaya.course.component;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Case-folded words with dense int ids in order of first appearance. Lookups fold char by char while
+// hashing and comparing, so only a word seen for the first time allocates its String.
+// Folding is per char Character.toLowerCase, the same as String.toLowerCase outside of locale special cases.
+// Safe for concurrent use: known words are found without locking, a new word only locks the stripe
+// its hash falls into, so parallel parses share one dictionary without waiting on each other
+public class WordDictionary {
+  public static final int NO_WORD = -1;
+
+  private static final int STRIPES = 16;
+  private static final int STRIPE_SHIFT = Integer.SIZE - Integer.numberOfTrailingZeros(STRIPES);
+  private static final int INITIAL_TABLE_SIZE = 16;
+  private static final int CHUNK_BITS = 10;
+  private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+  private static final int INITIAL_CHUNKS = 4;
+
+  private final Stripe[] stripes = new Stripe[STRIPES];
+  private final AtomicInteger nextId = new AtomicInteger();
+  // Words by id in chunks, the chunk array only grows under the lock of this dictionary
+  private volatile AtomicReferenceArray<AtomicReferenceArray<String>> chunks =
+          new AtomicReferenceArray<>(INITIAL_CHUNKS);
+
+  public WordDictionary() {
+    for (int i = 0; i < STRIPES; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  public int idOf(CharSequence word) {
+    return idOf(word, 0, word.length());
+  }
+
+  // Assigns the next id to a new word, empty words get NO_WORD
+  public int idOf(CharSequence text, int start, int end) {
+    Objects.checkFromToIndex(start, end, text.length());
+    if (start == end) {
+      return NO_WORD;
+    }
+
+    int hash = foldedHash(text, start, end);
+    Stripe stripe = stripes[spread(hash) >>> STRIPE_SHIFT];
+
+    Entry entry = lookup(stripe.table, text, start, end, hash);
+    if (entry != null) {
+      return entry.id();
+    }
+    return stripe.add(this, text, start, end, hash);
+  }
+
+  public int find(CharSequence word) {
+    return find(word, 0, word.length());
+  }
+
+  // Never adds the word, NO_WORD when it is unknown
+  public int find(CharSequence text, int start, int end) {
+    Objects.checkFromToIndex(start, end, text.length());
+    if (start == end) {
+      return NO_WORD;
+    }
+
+    int hash = foldedHash(text, start, end);
+    Entry entry = lookup(stripes[spread(hash) >>> STRIPE_SHIFT].table, text, start, end, hash);
+    return entry != null ? entry.id() : NO_WORD;
+  }
+
+  // Ids handed out by idOf() are always known here, even while other threads add words
+  public String word(int id) {
+    Objects.checkIndex(id, nextId.get());
+    return chunks.get(id >>> CHUNK_BITS).get(id & (CHUNK_SIZE - 1));
+  }
+
+  // Counts words other threads are adding at the moment as well
+  public int size() {
+    return nextId.get();
+  }
+
+  private void store(int id, String word) {
+    int chunkIndex = id >>> CHUNK_BITS;
+    AtomicReferenceArray<AtomicReferenceArray<String>> current = chunks;
+
+    AtomicReferenceArray<String> chunk = chunkIndex < current.length() ? current.get(chunkIndex) : null;
+    if (chunk == null) {
+      chunk = createChunk(chunkIndex);
+    }
+    chunk.set(id & (CHUNK_SIZE - 1), word);
+  }
+
+  // Once per CHUNK_SIZE words
+  private synchronized AtomicReferenceArray<String> createChunk(int chunkIndex) {
+    AtomicReferenceArray<AtomicReferenceArray<String>> current = chunks;
+
+    if (chunkIndex >= current.length()) {
+      AtomicReferenceArray<AtomicReferenceArray<String>> grown =
+              new AtomicReferenceArray<>(Math.max(current.length() * 2, chunkIndex + 1));
+      for (int i = 0; i < current.length(); i++) {
+        grown.set(i, current.get(i));
+      }
+      chunks = grown;
+      current = grown;
+    }
+
+    AtomicReferenceArray<String> chunk = current.get(chunkIndex);
+    if (chunk == null) {
+      chunk = new AtomicReferenceArray<>(CHUNK_SIZE);
+      current.set(chunkIndex, chunk);
+    }
+    return chunk;
+  }
+
+  private static Entry lookup(AtomicReferenceArray<Entry> table, CharSequence text, int start, int end, int hash) {
+    int mask = table.length() - 1;
+
+    for (int slot = spread(hash) & mask; ; slot = (slot + 1) & mask) {
+      Entry entry = table.get(slot);
+      if (entry == null) {
+        return null;
+      }
+      if (entry.hash() == hash && matches(entry.word(), text, start, end)) {
+        return entry;
+      }
+    }
+  }
+
+  // Equals hashCode() of the folded String
+  private static int foldedHash(CharSequence text, int start, int end) {
+    int hash = 0;
+    for (int i = start; i < end; i++) {
+      hash = 31 * hash + Character.toLowerCase(text.charAt(i));
+    }
+    return hash;
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  private static boolean matches(String word, CharSequence text, int start, int end) {
+    if (word.length() != end - start) {
+      return false;
+    }
+
+    for (int i = 0; i < word.length(); i++) {
+      if (word.charAt(i) != Character.toLowerCase(text.charAt(start + i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static String fold(CharSequence text, int start, int end) {
+    char[] folded = new char[end - start];
+    for (int i = 0; i < folded.length; i++) {
+      folded[i] = Character.toLowerCase(text.charAt(start + i));
+    }
+    return new String(folded);
+  }
+
+  private record Entry(String word, int hash, int id) {
+  }
+
+  // Open addressing table of the words whose hash falls into this stripe. Readers probe the published
+  // table without locking, writers set new entries or publish a larger table under the stripe lock
+  private static final class Stripe {
+    private volatile AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(INITIAL_TABLE_SIZE);
+    private int size;
+
+    synchronized int add(WordDictionary dictionary, CharSequence text, int start, int end, int hash) {
+      AtomicReferenceArray<Entry> current = table;
+      int mask = current.length() - 1;
+      int slot = spread(hash) & mask;
+
+      for (Entry entry = current.get(slot); entry != null; entry = current.get(slot)) {
+        // Added by another thread since the lookup
+        if (entry.hash() == hash && matches(entry.word(), text, start, end)) {
+          return entry.id();
+        }
+        slot = (slot + 1) & mask;
+      }
+
+      int id = dictionary.nextId.getAndIncrement();
+      String word = fold(text, start, end);
+      dictionary.store(id, word);
+      current.set(slot, new Entry(word, hash, id));
+
+      if (++size * 2 > current.length()) {
+        table = rehash(current, current.length() * 2);
+      }
+      return id;
+    }
+
+    private static AtomicReferenceArray<Entry> rehash(AtomicReferenceArray<Entry> current, int tableSize) {
+      AtomicReferenceArray<Entry> grown = new AtomicReferenceArray<>(tableSize);
+      int mask = tableSize - 1;
+
+      for (int i = 0; i < current.length(); i++) {
+        Entry entry = current.get(i);
+        if (entry == null) {
+          continue;
+        }
+
+        int slot = spread(entry.hash()) & mask;
+        while (grown.get(slot) != null) {
+          slot = (slot + 1) & mask;
+        }
+        grown.set(slot, entry);
+      }
+      return grown;
+    }
+  }
+}
@@ -1,22 +1,36 @@
 package by.zgirskaya.course.main;
 
+import by.zgirskaya.course.batch.BatchProcessor;
+import by.zgirskaya.course.batch.BatchReport;
 import by.zgirskaya.course.component.AbstractTextComponent;
 import by.zgirskaya.course.component.TextComponentType;
 import by.zgirskaya.course.component.TextComposite;
 import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.metrics.MetricsRegistry;
 import by.zgirskaya.course.parser.*;
 import by.zgirskaya.course.reader.impl.CustomTextReaderImpl;
 import by.zgirskaya.course.service.impl.TextServiceImpl;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.nio.file.Path;
+
 public class Main {
   private static final Logger logger = LogManager.getLogger();
   private static final String FILE_PATH = "recourses\\text.txt";
 
   public static void main(String[] args) {
     try {
+      // Batch mode: <input directory> <report file>
+      if (args.length == 2) {
+        BatchReport report = new BatchProcessor().process(Path.of(args[0]), Path.of(args[1]));
+        logger.info("Batch report written to {}. Files: {}, Failed: {}",
+                args[1], report.fileCount(), report.failedCount());
+        return;
+      }
+
       logger.info("Starting text processing application");
+      MetricsRegistry.getDefault().publish();
 
       // 1. Read text from file
       CustomTextReaderImpl reader = new CustomTextReaderImpl();
@@ -98,6 +112,7 @@ public class Main {
       logger.info(modifiedText.toString());
       logger.info("=====================");
 
+      logger.info("=== METRICS ===\n{}", MetricsRegistry.getDefault().dump());
       logger.info("Application completed successfully");
 
     } catch (CustomTextException e) {
@@ -119,27 +134,27 @@ public class Main {
     int symbolCount = 0;
 
     // Count different components
-    for (AbstractTextComponent paragraph : textComposite.getChildComponents()) {
+    for (AbstractTextComponent paragraph : textComposite.getChildComponentsView()) {
       if (paragraph instanceof TextComposite) {
         paragraphCount++;
 
-        for (AbstractTextComponent sentence : ((TextComposite) paragraph).getChildComponents()) {
+        for (AbstractTextComponent sentence : ((TextComposite) paragraph).getChildComponentsView()) {
           if (sentence instanceof TextComposite) {
             sentenceCount++;
 
-            for (AbstractTextComponent lexeme : ((TextComposite) sentence).getChildComponents()) {
+            for (AbstractTextComponent lexeme : ((TextComposite) sentence).getChildComponentsView()) {
               if (lexeme instanceof TextComposite &&
                       lexeme.getComponentType() == TextComponentType.LEXEME) {
                 lexemeCount++;
 
-                for (AbstractTextComponent component : ((TextComposite) lexeme).getChildComponents()) {
+                for (AbstractTextComponent component : ((TextComposite) lexeme).getChildComponentsView()) {
                   if (component.getComponentType() == TextComponentType.WORD) {
                     wordCount++;
                   } else if (component.getComponentType() == TextComponentType.SYMBOL) {
                     symbolCount++;
                   } else if (component instanceof TextComposite) {
                     // Если это композит, проверяем его детей
-                    for (AbstractTextComponent child : ((TextComposite) component).getChildComponents()) {
+                    for (AbstractTextComponent child : ((TextComposite) component).getChildComponentsView()) {
                       if (child.getComponentType() == TextComponentType.WORD) {
                         wordCount++;
                       } else if (child.getComponentType() == TextComponentType.SYMBOL) {
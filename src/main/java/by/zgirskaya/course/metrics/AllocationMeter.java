@@ -0,0 +1,25 @@
+package by.zgirskaya.course.metrics;
+
+import java.lang.management.ManagementFactory;
+
+// Bytes allocated by the current thread, UNKNOWN when the JVM does not track them or on virtual threads
+final class AllocationMeter {
+  static final long UNKNOWN = -1;
+
+  private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+  private AllocationMeter() {
+  }
+
+  static long currentThreadAllocatedBytes() {
+    return THREADS != null ? THREADS.getCurrentThreadAllocatedBytes() : UNKNOWN;
+  }
+
+  private static com.sun.management.ThreadMXBean threadBean() {
+    if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+            && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+      return threads;
+    }
+    return null;
+  }
+}
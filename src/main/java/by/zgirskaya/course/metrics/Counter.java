@@ -0,0 +1,20 @@
+package by.zgirskaya.course.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class Counter implements CounterMXBean {
+  private final LongAdder count = new LongAdder();
+
+  public void increment() {
+    count.increment();
+  }
+
+  public void add(long amount) {
+    count.add(amount);
+  }
+
+  @Override
+  public long getCount() {
+    return count.sum();
+  }
+}
@@ -0,0 +1,5 @@
+package by.zgirskaya.course.metrics;
+
+public interface CounterMXBean {
+  long getCount();
+}
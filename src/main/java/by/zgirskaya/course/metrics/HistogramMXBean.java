@@ -0,0 +1,16 @@
+package by.zgirskaya.course.metrics;
+
+// Latencies in nanoseconds, percentiles are upper bounds of their buckets
+public interface HistogramMXBean {
+  long getCount();
+
+  double getMean();
+
+  long getP50();
+
+  long getP90();
+
+  long getP99();
+
+  long getMax();
+}
@@ -0,0 +1,120 @@
+package by.zgirskaya.course.metrics;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Log-linear buckets: every power of two is split into eight, so a percentile is at most 12.5% above the
+// recorded value. Recording takes no lock, buckets are created on first use
+public class LatencyHistogram implements HistogramMXBean {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_EXPONENT = 62;
+  private static final int BUCKET_COUNT = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+  private final AtomicReferenceArray<LongAdder> buckets = new AtomicReferenceArray<>(BUCKET_COUNT);
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  public void record(long nanos) {
+    long value = Math.max(nanos, 0);
+    int index = bucketIndex(value);
+
+    LongAdder bucket = buckets.get(index);
+    if (bucket == null) {
+      buckets.compareAndSet(index, null, new LongAdder());
+      bucket = buckets.get(index);
+    }
+
+    bucket.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKET_COUNT];
+    long count = 0;
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      LongAdder bucket = buckets.get(i);
+      if (bucket != null) {
+        counts[i] = bucket.sum();
+        count += counts[i];
+      }
+    }
+
+    long maxValue = max.get();
+    double mean = count == 0 ? 0 : (double) sum.sum() / count;
+    return new Snapshot(count, mean, percentile(counts, count, 0.5, maxValue),
+            percentile(counts, count, 0.9, maxValue), percentile(counts, count, 0.99, maxValue), maxValue);
+  }
+
+  @Override
+  public long getCount() {
+    return snapshot().count();
+  }
+
+  @Override
+  public double getMean() {
+    return snapshot().mean();
+  }
+
+  @Override
+  public long getP50() {
+    return snapshot().p50();
+  }
+
+  @Override
+  public long getP90() {
+    return snapshot().p90();
+  }
+
+  @Override
+  public long getP99() {
+    return snapshot().p99();
+  }
+
+  @Override
+  public long getMax() {
+    return max.get();
+  }
+
+  private static long percentile(long[] counts, long count, double quantile, long maxValue) {
+    if (count == 0) {
+      return 0;
+    }
+
+    long rank = (long) Math.ceil(quantile * count);
+    long seen = 0;
+    for (int i = 0; i < counts.length; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(bucketUpperBound(i), maxValue);
+      }
+    }
+    return maxValue;
+  }
+
+  // Values below SUB_BUCKETS get a bucket each, larger ones by exponent and the next three bits
+  static int bucketIndex(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long bucketUpperBound(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+
+    int shift = index / SUB_BUCKETS - 1;
+    long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lower + (1L << shift) - 1;
+  }
+
+  public record Snapshot(long count, double mean, long p50, long p90, long p99, long max) {
+  }
+}
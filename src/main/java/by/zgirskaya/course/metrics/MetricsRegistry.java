@@ -0,0 +1,163 @@
+package by.zgirskaya.course.metrics;
+
+import by.zgirskaya.course.exception.CustomTextException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Counters and latency histograms by name, created on first use. Once published, every metric is
+// registered as an MXBean under by.zgirskaya.course:type=Counter|Histogram,name=<name>
+public class MetricsRegistry {
+  private static final Logger logger = LogManager.getLogger();
+
+  public static final String DOCUMENTS = "documents";
+  public static final String PARAGRAPHS = "paragraphs";
+  public static final String SENTENCES = "sentences";
+  public static final String LEXEMES = "lexemes";
+  public static final String WORDS = "words";
+  public static final String SYMBOLS = "symbols";
+
+  private static final String DOMAIN = "by.zgirskaya.course";
+  private static final String ALLOCATED_BYTES_SUFFIX = ".allocatedBytes";
+  private static final double NANOS_PER_MICRO = 1_000.0;
+
+  private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+  private final Map<String, Stage> stages = new ConcurrentHashMap<>();
+  private volatile MBeanServer server;
+
+  // Shared by the parsers and the services
+  public static MetricsRegistry getDefault() {
+    return DEFAULT;
+  }
+
+  public Counter counter(String name) {
+    return counters.computeIfAbsent(name, key -> register("Counter", key, new Counter()));
+  }
+
+  public LatencyHistogram histogram(String name) {
+    return histograms.computeIfAbsent(name, key -> register("Histogram", key, new LatencyHistogram()));
+  }
+
+  // Histogram <name> plus counter <name>.allocatedBytes
+  public Stage stage(String name) {
+    return stages.computeIfAbsent(name, key -> new Stage(histogram(key), counter(key + ALLOCATED_BYTES_SUFFIX)));
+  }
+
+  public synchronized void publish() throws CustomTextException {
+    publish(ManagementFactory.getPlatformMBeanServer());
+  }
+
+  public synchronized void publish(MBeanServer mBeanServer) throws CustomTextException {
+    if (server != null) {
+      throw new CustomTextException("Metrics are already published");
+    }
+
+    // Set first, so metrics created meanwhile register themselves and are skipped below
+    server = mBeanServer;
+
+    try {
+      for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+        registerIfAbsent(mBeanServer, entry.getValue(), objectName("Counter", entry.getKey()));
+      }
+      for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+        registerIfAbsent(mBeanServer, entry.getValue(), objectName("Histogram", entry.getKey()));
+      }
+    } catch (JMException e) {
+      server = null;
+      throw new CustomTextException("Failed to publish metrics", e);
+    }
+
+    logger.info("Published metrics. Counters: {}, Histograms: {}", counters.size(), histograms.size());
+  }
+
+  public synchronized void unpublish() throws CustomTextException {
+    MBeanServer mBeanServer = server;
+    if (mBeanServer == null) {
+      return;
+    }
+    server = null;
+
+    try {
+      for (String name : counters.keySet()) {
+        unregisterIfPresent(mBeanServer, objectName("Counter", name));
+      }
+      for (String name : histograms.keySet()) {
+        unregisterIfPresent(mBeanServer, objectName("Histogram", name));
+      }
+    } catch (JMException e) {
+      throw new CustomTextException("Failed to unpublish metrics", e);
+    }
+  }
+
+  // One line per metric sorted by name, latencies in microseconds
+  public String dump() {
+    StringBuilder sb = new StringBuilder();
+
+    for (Map.Entry<String, Counter> entry : new TreeMap<>(counters).entrySet()) {
+      sb.append("counter ").append(entry.getKey()).append(' ').append(entry.getValue().getCount()).append('\n');
+    }
+
+    for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<>(histograms).entrySet()) {
+      LatencyHistogram.Snapshot snapshot = entry.getValue().snapshot();
+      sb.append("histogram ").append(entry.getKey())
+              .append(" count=").append(snapshot.count())
+              .append(" mean=").append(micros(snapshot.mean()))
+              .append(" p50=").append(micros(snapshot.p50()))
+              .append(" p90=").append(micros(snapshot.p90()))
+              .append(" p99=").append(micros(snapshot.p99()))
+              .append(" max=").append(micros(snapshot.max()))
+              .append('\n');
+    }
+
+    return sb.toString();
+  }
+
+  private static String micros(double nanos) {
+    return String.format(Locale.ROOT, "%.1fus", nanos / NANOS_PER_MICRO);
+  }
+
+  // Metrics created after publish() are registered right away
+  private <T> T register(String type, String name, T metric) {
+    MBeanServer mBeanServer = server;
+    if (mBeanServer != null) {
+      try {
+        mBeanServer.registerMBean(metric, objectName(type, name));
+      } catch (JMException e) {
+        logger.warn("Failed to register metric {} {}", type, name, e);
+      }
+    }
+    return metric;
+  }
+
+  private static void registerIfAbsent(MBeanServer mBeanServer, Object metric, ObjectName name) throws JMException {
+    if (!mBeanServer.isRegistered(name)) {
+      try {
+        mBeanServer.registerMBean(metric, name);
+      } catch (InstanceAlreadyExistsException e) {
+        logger.debug("Metric registered concurrently: {}", name);
+      }
+    }
+  }
+
+  private static void unregisterIfPresent(MBeanServer mBeanServer, ObjectName name) throws JMException {
+    if (mBeanServer.isRegistered(name)) {
+      mBeanServer.unregisterMBean(name);
+    }
+  }
+
+  private static ObjectName objectName(String type, String name) throws JMException {
+    return new ObjectName(DOMAIN + ":type=" + type + ",name=" + name);
+  }
+}
@@ -0,0 +1,57 @@
+package by.zgirskaya.course.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Coarse statistics of one parse level, summed over every call and reported once per document.
+// Held per parser, so per-document figures need one document at a time per parser chain.
+// Times include the levels below. Every record also goes to the registry: its latency to the
+// parse.<level> histogram and the produced count to the counter of the produced components.
+// Levels below the paragraph are recorded in batches, one per paragraph, with the time of the batch
+public class ParseMetrics {
+  private static final String HISTOGRAM_PREFIX = "parse.";
+
+  private final String level;
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder produced = new LongAdder();
+  private final LongAdder nanos = new LongAdder();
+
+  private final LatencyHistogram latency;
+  private final Counter producedCounter;
+
+  public ParseMetrics(String level, String producedCounter) {
+    this(level, producedCounter, MetricsRegistry.getDefault());
+  }
+
+  public ParseMetrics(String level, String producedCounter, MetricsRegistry registry) {
+    this.level = level;
+    this.latency = registry.histogram(HISTOGRAM_PREFIX + level);
+    this.producedCounter = registry.counter(producedCounter);
+  }
+
+  public void record(int producedCount, long startNanos) {
+    long elapsed = System.nanoTime() - startNanos;
+    nanos.add(elapsed);
+    produced.add(producedCount);
+    calls.increment();
+
+    latency.record(elapsed);
+    producedCounter.add(producedCount);
+  }
+
+  // Many calls at once, counted by the caller, the histogram gets one sample for the whole batch
+  public void recordBatch(int callCount, long producedCount, long elapsedNanos) {
+    nanos.add(elapsedNanos);
+    produced.add(producedCount);
+    calls.add(callCount);
+
+    latency.record(elapsedNanos);
+    producedCounter.add(producedCount);
+  }
+
+  public Snapshot snapshotAndReset() {
+    return new Snapshot(level, calls.sumThenReset(), produced.sumThenReset(), nanos.sumThenReset());
+  }
+
+  public record Snapshot(String level, long calls, long produced, long nanos) {
+  }
+}
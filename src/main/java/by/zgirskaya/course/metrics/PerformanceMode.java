@@ -0,0 +1,11 @@
+package by.zgirskaya.course.metrics;
+
+public final class PerformanceMode {
+  public static final String PROPERTY = "text.performance";
+
+  // Read once: with -Dtext.performance=true the JIT removes every per-node log statement guarded by this flag
+  public static final boolean NODE_LOGGING = !Boolean.getBoolean(PROPERTY);
+
+  private PerformanceMode() {
+  }
+}
@@ -0,0 +1,46 @@
+package by.zgirskaya.course.metrics;
+
+// Latency and allocated bytes of one operation. Only the calling thread's allocations are counted,
+// so stages should wrap whole operations rather than per node work. Virtual threads report no
+// allocations, operations run on them only add to the latency
+public class Stage {
+  private final LatencyHistogram latency;
+  private final Counter allocatedBytes;
+
+  Stage(LatencyHistogram latency, Counter allocatedBytes) {
+    this.latency = latency;
+    this.allocatedBytes = allocatedBytes;
+  }
+
+  public Sample start() {
+    return new Sample(System.nanoTime(), AllocationMeter.currentThreadAllocatedBytes());
+  }
+
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  public Counter getAllocatedBytes() {
+    return allocatedBytes;
+  }
+
+  public class Sample implements AutoCloseable {
+    private final long startNanos;
+    private final long startBytes;
+
+    private Sample(long startNanos, long startBytes) {
+      this.startNanos = startNanos;
+      this.startBytes = startBytes;
+    }
+
+    @Override
+    public void close() {
+      latency.record(System.nanoTime() - startNanos);
+
+      long endBytes = AllocationMeter.currentThreadAllocatedBytes();
+      if (startBytes != AllocationMeter.UNKNOWN && endBytes != AllocationMeter.UNKNOWN) {
+        allocatedBytes.add(endBytes - startBytes);
+      }
+    }
+  }
+}
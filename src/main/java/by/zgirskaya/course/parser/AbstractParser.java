@@ -1,10 +1,26 @@
 package by.zgirskaya.course.parser;
 
 import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.metrics.ParseMetrics;
 
 public abstract class AbstractParser {
 
   protected AbstractParser nextParser;
+  protected final ParseMetrics metrics;
+
+  // Names the registry counter of the components this level produces
+  protected AbstractParser(String producedCounter) {
+    metrics = new ParseMetrics(getClass().getSimpleName(), producedCounter);
+  }
 
   public abstract void parse(String text, TextComposite parentComposite);
+
+  public ParseMetrics getMetrics() {
+    return metrics;
+  }
+
+  // Identifies the parser configuration, parsers with equal descriptions build equal trees
+  protected String describe() {
+    return getClass().getSimpleName();
+  }
 }
@@ -0,0 +1,52 @@
+package by.zgirskaya.course.parser;
+
+import by.zgirskaya.course.component.CompactTextDocument;
+import by.zgirskaya.course.component.TextComponentType;
+
+class CompactTokenHandler implements TextTokenHandler {
+  private final CompactTextDocument.Builder builder;
+
+  CompactTokenHandler(CompactTextDocument.Builder builder) {
+    this.builder = builder;
+  }
+
+  @Override
+  public void startParagraph(int offset) {
+    builder.open(TextComponentType.PARAGRAPH, offset);
+  }
+
+  @Override
+  public void endParagraph(int offset) {
+    builder.close(offset);
+  }
+
+  @Override
+  public void startSentence(int offset) {
+    builder.open(TextComponentType.SENTENCE, offset);
+  }
+
+  @Override
+  public void endSentence(int offset) {
+    builder.close(offset);
+  }
+
+  @Override
+  public void startLexeme(int offset) {
+    builder.open(TextComponentType.LEXEME, offset);
+  }
+
+  @Override
+  public void endLexeme(int offset) {
+    builder.close(offset);
+  }
+
+  @Override
+  public void word(CharSequence text, int start, int end) {
+    builder.leaf(TextComponentType.WORD, start, end);
+  }
+
+  @Override
+  public void symbol(CharSequence text, int index) {
+    builder.leaf(TextComponentType.SYMBOL, index, index + 1);
+  }
+}
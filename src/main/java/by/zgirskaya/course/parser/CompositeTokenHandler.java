@@ -0,0 +1,70 @@
+package by.zgirskaya.course.parser;
+
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextLeaf;
+import by.zgirskaya.course.component.WordDictionary;
+
+// Builds the same TextComposite tree the regex parser chain produces
+class CompositeTokenHandler implements TextTokenHandler {
+  private final TextComposite rootComposite;
+  // One per document, concurrent parses do not contend for a shared one
+  private final WordDictionary dictionary = new WordDictionary();
+
+  private TextComposite paragraphComposite;
+  private TextComposite sentenceComposite;
+  private TextComposite lexemeComposite;
+  private int paragraphCount;
+
+  CompositeTokenHandler(TextComposite rootComposite) {
+    this.rootComposite = rootComposite;
+  }
+
+  int getParagraphCount() {
+    return paragraphCount;
+  }
+
+  @Override
+  public void startParagraph(int offset) {
+    paragraphComposite = new TextComposite(TextComponentType.PARAGRAPH);
+    rootComposite.addChildComponent(paragraphComposite);
+    paragraphCount++;
+  }
+
+  @Override
+  public void endParagraph(int offset) {
+    paragraphComposite = null;
+  }
+
+  @Override
+  public void startSentence(int offset) {
+    sentenceComposite = new TextComposite(TextComponentType.SENTENCE);
+    paragraphComposite.addChildComponent(sentenceComposite);
+  }
+
+  @Override
+  public void endSentence(int offset) {
+    sentenceComposite = null;
+  }
+
+  @Override
+  public void startLexeme(int offset) {
+    lexemeComposite = new TextComposite(TextComponentType.LEXEME);
+    sentenceComposite.addChildComponent(lexemeComposite);
+  }
+
+  @Override
+  public void endLexeme(int offset) {
+    lexemeComposite = null;
+  }
+
+  @Override
+  public void word(CharSequence text, int start, int end) {
+    lexemeComposite.addChildComponent(TextLeaf.word(text.subSequence(start, end).toString(), dictionary));
+  }
+
+  @Override
+  public void symbol(CharSequence text, int index) {
+    lexemeComposite.addChildComponent(TextLeaf.symbol(text.charAt(index)));
+  }
+}
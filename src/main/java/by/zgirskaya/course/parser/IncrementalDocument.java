@@ -0,0 +1,234 @@
+package by.zgirskaya.course.parser;
+
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.exception.CustomTextException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+
+// Source text plus the paragraph pieces it was split into, so an edit only parses the paragraphs it touches.
+// Pieces follow Pattern.split: delimiters are blank runs cut into groups of four from the start of the run,
+// trailing empty pieces are kept here but not attached to the tree. The tree must only change through edits
+public class IncrementalDocument {
+  private static final Logger logger = LogManager.getLogger();
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final ParagraphParser paragraphParser;
+  private final TextComposite parentComposite;
+  private final int childOffset;
+  private final StringBuilder text;
+
+  private int[] starts = new int[INITIAL_CAPACITY];
+  private int[] ends = new int[INITIAL_CAPACITY];
+  private TextComposite[] paragraphs = new TextComposite[INITIAL_CAPACITY];
+  private int pieceCount;
+  private int attachedCount;
+
+  IncrementalDocument(ParagraphParser paragraphParser, CharSequence text, TextComposite parentComposite) {
+    this.paragraphParser = paragraphParser;
+    this.parentComposite = parentComposite;
+    this.childOffset = parentComposite.getChildComponentCount();
+    this.text = new StringBuilder(text);
+
+    int[] bounds = split(0, this.text.length());
+    pieceCount = bounds.length / 2;
+    ensureCapacity(pieceCount);
+    for (int i = 0; i < pieceCount; i++) {
+      starts[i] = bounds[2 * i];
+      ends[i] = bounds[2 * i + 1];
+      paragraphs[i] = parsePiece(i);
+    }
+
+    attachedCount = countAttached();
+    parentComposite.replaceChildComponents(childOffset, childOffset,
+            Arrays.asList(paragraphs).subList(0, attachedCount));
+  }
+
+  public TextComposite getParentComposite() {
+    return parentComposite;
+  }
+
+  public String getText() {
+    return text.toString();
+  }
+
+  public int length() {
+    return text.length();
+  }
+
+  public int getParagraphCount() {
+    return attachedCount;
+  }
+
+  // Returns how many paragraphs were parsed again
+  public int apply(TextEdit edit) throws CustomTextException {
+    int offset = edit.offset();
+    int deleteEnd = offset + edit.deletedLength();
+    if (offset < 0 || edit.deletedLength() < 0 || deleteEnd > text.length()) {
+      throw new CustomTextException("Edit is out of text bounds. Offset: " + offset
+              + ", Deleted length: " + edit.deletedLength() + ", Text length: " + text.length());
+    }
+
+    // Only blank runs touching the edit can gain or lose delimiters
+    int windowStart = offset;
+    while (windowStart > 0 && isBlank(text.charAt(windowStart - 1))) {
+      windowStart--;
+    }
+    int windowEnd = deleteEnd;
+    while (windowEnd < text.length() && isBlank(text.charAt(windowEnd))) {
+      windowEnd++;
+    }
+
+    int first = lastPieceStartingAtOrBefore(windowStart);
+    int last = firstPieceEndingAtOrAfter(windowEnd);
+    int delta = edit.insertedText().length() - edit.deletedLength();
+
+    text.replace(offset, deleteEnd, edit.insertedText());
+    int[] bounds = split(starts[first], ends[last] + delta);
+    int newCount = bounds.length / 2;
+
+    int oldAttachedCount = attachedCount;
+    splice(first, last, bounds, delta);
+    for (int i = first; i < first + newCount; i++) {
+      paragraphs[i] = parsePiece(i);
+    }
+    attachedCount = countAttached();
+
+    updateParent(first, last, newCount, oldAttachedCount);
+
+    logger.debug("Applied edit. Offset: {}, Deleted: {}, Inserted: {}, Paragraphs parsed again: {}, Paragraphs: {}",
+            offset, edit.deletedLength(), edit.insertedText().length(), newCount, attachedCount);
+
+    return newCount;
+  }
+
+  private TextComposite parsePiece(int piece) {
+    return paragraphParser.parseParagraph(text.substring(starts[piece], ends[piece]));
+  }
+
+  // Pattern.split keeps a lone piece even when it is empty and drops trailing empty pieces otherwise
+  private int countAttached() {
+    if (pieceCount == 1) {
+      return 1;
+    }
+
+    int count = pieceCount;
+    while (count > 0 && starts[count - 1] == ends[count - 1]) {
+      count--;
+    }
+    return count;
+  }
+
+  private void splice(int first, int last, int[] bounds, int delta) {
+    int newCount = bounds.length / 2;
+    int tail = pieceCount - last - 1;
+    int newPieceCount = first + newCount + tail;
+
+    ensureCapacity(newPieceCount);
+    System.arraycopy(starts, last + 1, starts, first + newCount, tail);
+    System.arraycopy(ends, last + 1, ends, first + newCount, tail);
+    System.arraycopy(paragraphs, last + 1, paragraphs, first + newCount, tail);
+
+    for (int i = first + newCount; i < newPieceCount; i++) {
+      starts[i] += delta;
+      ends[i] += delta;
+    }
+    for (int i = 0; i < newCount; i++) {
+      starts[first + i] = bounds[2 * i];
+      ends[first + i] = bounds[2 * i + 1];
+    }
+    Arrays.fill(paragraphs, newPieceCount, Math.max(newPieceCount, pieceCount), null);
+
+    pieceCount = newPieceCount;
+  }
+
+  // Replaces only the changed pieces in the tree, attached pieces before and after them stay in place
+  private void updateParent(int first, int last, int newCount, int oldAttachedCount) {
+    int common = Math.min(first, Math.min(oldAttachedCount, attachedCount));
+    int oldMiddleEnd = Math.max(common, Math.min(oldAttachedCount, last + 1));
+    int newMiddleEnd = Math.max(common, Math.min(attachedCount, first + newCount));
+
+    List<TextComposite> pieces = Arrays.asList(paragraphs);
+    parentComposite.replaceChildComponents(childOffset + common, childOffset + oldMiddleEnd,
+            pieces.subList(common, newMiddleEnd));
+
+    // Trailing empty pieces after the edit may become attached or detached
+    int oldTail = Math.max(0, oldAttachedCount - last - 1);
+    int newTail = Math.max(0, attachedCount - first - newCount);
+    int tailStart = childOffset + newMiddleEnd;
+
+    if (newTail > oldTail) {
+      parentComposite.replaceChildComponents(tailStart + oldTail, tailStart + oldTail,
+              pieces.subList(first + newCount + oldTail, first + newCount + newTail));
+    } else if (newTail < oldTail) {
+      parentComposite.replaceChildComponents(tailStart + newTail, tailStart + oldTail, List.of());
+    }
+  }
+
+  private int lastPieceStartingAtOrBefore(int position) {
+    int low = 0;
+    int high = pieceCount - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (starts[middle] <= position) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  private int firstPieceEndingAtOrAfter(int position) {
+    int low = 0;
+    int high = pieceCount - 1;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (ends[middle] >= position) {
+        high = middle;
+      } else {
+        low = middle + 1;
+      }
+    }
+    return low;
+  }
+
+  // Bounds of every piece in [from, to) as start, end pairs, trailing empty pieces included
+  private int[] split(int from, int to) {
+    int[] bounds = new int[INITIAL_CAPACITY];
+    int count = 0;
+    int pieceStart = from;
+
+    Matcher matcher = ParagraphParser.PARAGRAPH_PATTERN.matcher(text).region(from, to);
+    while (true) {
+      boolean found = matcher.find();
+      if (count + 2 > bounds.length) {
+        bounds = Arrays.copyOf(bounds, bounds.length * 2);
+      }
+
+      bounds[count++] = pieceStart;
+      bounds[count++] = found ? matcher.start() : to;
+      if (!found) {
+        return Arrays.copyOf(bounds, count);
+      }
+      pieceStart = matcher.end();
+    }
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity > starts.length) {
+      int newCapacity = Math.max(capacity, starts.length * 2);
+      starts = Arrays.copyOf(starts, newCapacity);
+      ends = Arrays.copyOf(ends, newCapacity);
+      paragraphs = Arrays.copyOf(paragraphs, newCapacity);
+    }
+  }
+
+  private static boolean isBlank(char symbol) {
+    return symbol == ' ' || symbol == '\t';
+  }
+}
@@ -2,7 +2,10 @@ package by.zgirskaya.course.parser;
 
 import by.zgirskaya.course.component.TextComponentType;
 import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextNode;
 import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.metrics.MetricsRegistry;
+import by.zgirskaya.course.metrics.PerformanceMode;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -11,8 +14,13 @@ public class LexemeParser extends AbstractParser {
 
   private static final String LEXEME_DELIMITER = "\\s+";
 
+  // One of them is set, depending on the next parser
+  private final WordParser wordParser;
+  private final SymbolParser symbolParser;
+
   // Word or Symbol parser - depending on task
   public LexemeParser(AbstractParser nextParser) throws CustomTextException {
+    super(MetricsRegistry.LEXEMES);
     logger.debug("Creating LexemeParser with next parser: {}",
             nextParser.getClass().getSimpleName());
 
@@ -20,12 +28,29 @@ public class LexemeParser extends AbstractParser {
       throw new CustomTextException("LexemeParser: next parser must be WordParser or SymbolParser");
     }
     this.nextParser = nextParser;
+    this.wordParser = nextParser instanceof WordParser parser ? parser : null;
+    this.symbolParser = nextParser instanceof SymbolParser parser ? parser : null;
   }
 
   @Override
   public void parse(String sentence, TextComposite parentComposite) {
-    logger.info("Starting lexeme parsing. Parent type: {}, Input sentence: '{}'",
-            parentComposite.getComponentType(), sentence);
+    long startNanos = System.nanoTime();
+    ParseTally tally = new ParseTally();
+    parse(sentence, parentComposite, tally);
+    tally.record(this, ParseTally.LEXEMES, startNanos);
+  }
+
+  // Records nothing, the lexemes and the leaves below them are counted in the tally
+  void parse(String sentence, TextComposite parentComposite, ParseTally tally) {
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.info("Starting lexeme parsing. Parent type: {}, Input sentence: '{}'",
+              parentComposite.getComponentType(), sentence);
+    }
+
+    if (wordParser != null && wordParser.isOffsetMode()) {
+      tally.add(ParseTally.LEXEMES, parseOffsets(sentence, parentComposite, tally));
+      return;
+    }
 
     String trimmedSentence = sentence.trim();
     String[] lexemeArray = trimmedSentence.split(LEXEME_DELIMITER);
@@ -33,12 +58,74 @@ public class LexemeParser extends AbstractParser {
     for (String lexeme : lexemeArray) {
       TextComposite lexemeComposite = new TextComposite(TextComponentType.LEXEME);
       parentComposite.addChildComponent(lexemeComposite);
-      nextParser.parse(lexeme, lexemeComposite);
+      tally.add(ParseTally.LEAVES, wordParser != null
+              ? wordParser.parseWords(lexeme, lexemeComposite)
+              : symbolParser.parseSymbols(lexeme, lexemeComposite));
+
+      if (PerformanceMode.NODE_LOGGING) {
+        logger.debug("Next parser completed for lexeme: '{}'", lexeme);
+      }
+    }
+
+    tally.add(ParseTally.LEXEMES, lexemeArray.length);
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.info("Lexeme parsing completed. Total lexemes processed: {}, Parent children count: {}",
+              lexemeArray.length, parentComposite.getChildComponentCount());
+    }
+  }
+
+  // The same lexemes as nodes of an immutable tree, for ParagraphParser.parseNode
+  void parse(String sentence, TextNode.Builder builder, ParseTally tally) {
+    String[] lexemeArray = sentence.trim().split(LEXEME_DELIMITER);
 
-      logger.debug("Next parser completed for lexeme: '{}'", lexeme);
+    for (String lexeme : lexemeArray) {
+      builder.open(TextComponentType.LEXEME);
+      tally.add(ParseTally.LEAVES, wordParser != null
+              ? wordParser.parseWords(lexeme, builder)
+              : symbolParser.parseSymbols(lexeme, builder));
+      builder.close();
     }
 
-    logger.info("Lexeme parsing completed. Total lexemes processed: {}, Parent children count: {}",
-            lexemeArray.length, parentComposite.getChildComponents().size());
+    tally.add(ParseTally.LEXEMES, lexemeArray.length);
+  }
+
+  // Same lexemes as trim() and split(), passed on as ranges of the sentence instead of substrings
+  private int parseOffsets(String sentence, TextComposite parentComposite, ParseTally tally) {
+    int start = 0;
+    int end = sentence.length();
+    while (start < end && sentence.charAt(start) <= ' ') {
+      start++;
+    }
+    while (end > start && sentence.charAt(end - 1) <= ' ') {
+      end--;
+    }
+
+    int lexemeCount = 0;
+    int lexemeStart = start;
+
+    for (int i = start; i <= end; i++) {
+      if (i == end || isWhitespace(sentence.charAt(i))) {
+        if (i > lexemeStart || lexemeCount == 0) {
+          TextComposite lexemeComposite = new TextComposite(TextComponentType.LEXEME);
+          parentComposite.addChildComponent(lexemeComposite);
+          tally.add(ParseTally.LEAVES, wordParser.parseWords(sentence, lexemeStart, i, lexemeComposite));
+          lexemeCount++;
+        }
+        lexemeStart = i + 1;
+      }
+    }
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.info("Lexeme parsing completed. Total lexemes processed: {}, Parent children count: {}",
+              lexemeCount, parentComposite.getChildComponentCount());
+    }
+
+    return lexemeCount;
+  }
+
+  // The \s class of java.util.regex
+  private static boolean isWhitespace(char symbol) {
+    return symbol == ' ' || (symbol >= '\t' && symbol <= '\r');
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,52 @@
+package by.zgirskaya.course.parser;
+
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextNode;
+
+class NodeTokenHandler implements TextTokenHandler {
+  private final TextNode.Builder builder;
+
+  NodeTokenHandler(TextNode.Builder builder) {
+    this.builder = builder;
+  }
+
+  @Override
+  public void startParagraph(int offset) {
+    builder.open(TextComponentType.PARAGRAPH);
+  }
+
+  @Override
+  public void endParagraph(int offset) {
+    builder.close();
+  }
+
+  @Override
+  public void startSentence(int offset) {
+    builder.open(TextComponentType.SENTENCE);
+  }
+
+  @Override
+  public void endSentence(int offset) {
+    builder.close();
+  }
+
+  @Override
+  public void startLexeme(int offset) {
+    builder.open(TextComponentType.LEXEME);
+  }
+
+  @Override
+  public void endLexeme(int offset) {
+    builder.close();
+  }
+
+  @Override
+  public void word(CharSequence text, int start, int end) {
+    builder.leaf(text.subSequence(start, end).toString(), TextComponentType.WORD);
+  }
+
+  @Override
+  public void symbol(CharSequence text, int index) {
+    builder.add(TextNode.symbol(text.charAt(index)));
+  }
+}
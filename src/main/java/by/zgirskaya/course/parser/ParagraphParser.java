@@ -2,17 +2,41 @@ package by.zgirskaya.course.parser;
 
 import by.zgirskaya.course.component.TextComponentType;
 import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextNode;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.metrics.Counter;
+import by.zgirskaya.course.metrics.MetricsRegistry;
+import by.zgirskaya.course.metrics.ParseMetrics;
+import by.zgirskaya.course.metrics.PerformanceMode;
+import by.zgirskaya.course.metrics.Stage;
+import by.zgirskaya.course.reader.CustomParagraphReader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
 public class ParagraphParser extends AbstractParser {
   private static final Logger logger = LogManager.getLogger();
 
   private static final String PARAGRAPH_DELIMITER = "\\p{Blank}{4}";
   private static final String TO_REPLACE_REGEX = "\\p{Blank}{2,}";
   private static final String SPACE = " ";
+  static final Pattern PARAGRAPH_PATTERN = Pattern.compile(PARAGRAPH_DELIMITER);
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  // Whole documents with the allocations of the calling thread, parallel parsing allocates on the pool too
+  private static final Stage DOCUMENT_STAGE = MetricsRegistry.getDefault().stage("parse.document");
+  private static final Counter DOCUMENTS = MetricsRegistry.getDefault().counter(MetricsRegistry.DOCUMENTS);
+
+  // Read by other threads than the parsing one, e.g. after a parallel or cached parse
+  private volatile List<ParseMetrics.Snapshot> lastDocumentMetrics = List.of();
 
   public ParagraphParser(SentenceParser nextParser) {
+    super(MetricsRegistry.PARAGRAPHS);
     logger.debug("Creating ParagraphParser with next parser: {}",
             nextParser.getClass().getSimpleName());
 
@@ -21,21 +45,180 @@ public class ParagraphParser extends AbstractParser {
 
   @Override
   public void parse(String text, TextComposite parentComposite) {
+    parse((CharSequence) text, parentComposite);
+  }
+
+  // Accepts views such as memory-mapped text without copying the whole input into one String
+  public void parse(CharSequence text, TextComposite parentComposite) {
     logger.info("Starting paragraph parsing. Input text length: {}, Parent type: {}",
             text.length(), parentComposite.getComponentType());
 
-    String[] paragraphArray = text.split(PARAGRAPH_DELIMITER);
+    Stage.Sample documentSample = DOCUMENT_STAGE.start();
+    long startNanos = System.nanoTime();
+    String[] paragraphArray = PARAGRAPH_PATTERN.split(text);
+
+    for (var paragraph : paragraphArray) {
+      parentComposite.addChildComponent(parseParagraph(paragraph));
+    }
+
+    metrics.record(paragraphArray.length, startNanos);
+    reportMetrics(documentSample);
+
+    logger.info("Paragraph parsing completed. Total paragraphs processed: {}, Parent children count: {}",
+            paragraphArray.length, parentComposite.getChildComponentCount());
+  }
+
+  // Paragraphs and their sentences are parsed concurrently, the resulting tree equals the sequential one
+  public void parse(CharSequence text, TextComposite parentComposite, ForkJoinPool pool) {
+    logger.info("Starting parallel paragraph parsing. Input text length: {}, Parent type: {}, Parallelism: {}",
+            text.length(), parentComposite.getComponentType(), pool.getParallelism());
+
+    Stage.Sample documentSample = DOCUMENT_STAGE.start();
+    long startNanos = System.nanoTime();
+    String[] paragraphArray = PARAGRAPH_PATTERN.split(text);
+    TextComposite[] paragraphComposites = new TextComposite[paragraphArray.length];
+
+    for (int i = 0; i < paragraphArray.length; i++) {
+      paragraphComposites[i] = new TextComposite(TextComponentType.PARAGRAPH);
+      parentComposite.addChildComponent(paragraphComposites[i]);
+    }
+
+    SentenceParser sentenceParser = (SentenceParser) nextParser;
+    pool.invoke(new ParallelParseTask(paragraphArray, paragraphComposites, (paragraph, paragraphComposite) ->
+            sentenceParser.parseInParallel(paragraph.replaceAll(TO_REPLACE_REGEX, SPACE), paragraphComposite)));
+
+    metrics.record(paragraphArray.length, startNanos);
+    reportMetrics(documentSample);
+
+    logger.info("Parallel paragraph parsing completed. Total paragraphs processed: {}", paragraphArray.length);
+  }
+
+  // Builds an immutable tree straight from the chain, no composites are created on the way. Pass
+  // asComponent() of the result to services and analyses, the cache can share it as it is
+  public TextNode parseNode(CharSequence text) {
+    logger.info("Starting immutable paragraph parsing. Input text length: {}", text.length());
+
+    Stage.Sample documentSample = DOCUMENT_STAGE.start();
+    long startNanos = System.nanoTime();
+    String[] paragraphArray = PARAGRAPH_PATTERN.split(text);
+    TextNode.Builder builder = TextNode.builder(TextComponentType.PARAGRAPH);
 
     for (var paragraph : paragraphArray) {
-      paragraph = paragraph.replaceAll(TO_REPLACE_REGEX, SPACE);
-      TextComposite paragraphComposite = new TextComposite(TextComponentType.PARAGRAPH);
-      parentComposite.addChildComponent(paragraphComposite);
-      nextParser.parse(paragraph, paragraphComposite);
+      builder.open(TextComponentType.PARAGRAPH);
+      parseParagraph(paragraph, builder);
+      builder.close();
+    }
+
+    TextNode root = builder.build();
+    metrics.record(paragraphArray.length, startNanos);
+    reportMetrics(documentSample);
+
+    logger.info("Immutable paragraph parsing completed. Total paragraphs processed: {}", paragraphArray.length);
+
+    return root;
+  }
+
+  // Keeps the source and paragraph bounds, so later edits only parse the paragraphs they touch
+  public IncrementalDocument parseIncremental(CharSequence text, TextComposite parentComposite) {
+    logger.info("Starting incremental paragraph parsing. Input text length: {}, Parent type: {}",
+            text.length(), parentComposite.getComponentType());
+
+    Stage.Sample documentSample = DOCUMENT_STAGE.start();
+    long startNanos = System.nanoTime();
+    IncrementalDocument document = new IncrementalDocument(this, text, parentComposite);
 
+    metrics.record(document.getParagraphCount(), startNanos);
+    reportMetrics(documentSample);
+
+    logger.info("Incremental paragraph parsing completed. Total paragraphs processed: {}",
+            document.getParagraphCount());
+
+    return document;
+  }
+
+  // Streaming mode: only one raw paragraph is held in memory at a time
+  public void parse(CustomParagraphReader paragraphReader, Consumer<TextComposite> paragraphConsumer)
+          throws CustomTextException {
+    logger.info("Starting streaming paragraph parsing");
+
+    Stage.Sample documentSample = DOCUMENT_STAGE.start();
+    long startNanos = System.nanoTime();
+    int paragraphCount = 0;
+    String paragraph;
+
+    while ((paragraph = paragraphReader.readParagraph()) != null) {
+      paragraphConsumer.accept(parseParagraph(paragraph));
+      paragraphCount++;
+    }
+
+    metrics.record(paragraphCount, startNanos);
+    reportMetrics(documentSample);
+
+    logger.info("Streaming paragraph parsing completed. Total paragraphs processed: {}", paragraphCount);
+  }
+
+  public void parse(CustomParagraphReader paragraphReader, TextComposite parentComposite)
+          throws CustomTextException {
+    parse(paragraphReader, parentComposite::addChildComponent);
+  }
+
+  // Per-level counts and times of the last parsed document, from paragraphs down to words or symbols.
+  // Only exact while one document at a time goes through this chain: documents parsed concurrently by a
+  // shared chain, e.g. from ParseCache, mix their counts. The registry metrics are not affected
+  public List<ParseMetrics.Snapshot> getLastDocumentMetrics() {
+    return lastDocumentMetrics;
+  }
+
+  // Parser classes and modes from paragraphs down to the leaves, e.g. for cache keys
+  public String getChainSignature() {
+    StringBuilder signature = new StringBuilder();
+    for (AbstractParser parser = this; parser != null; parser = parser.nextParser) {
+      if (!signature.isEmpty()) {
+        signature.append('>');
+      }
+      signature.append(parser.describe());
+    }
+    return signature.toString();
+  }
+
+  private void reportMetrics(Stage.Sample documentSample) {
+    documentSample.close();
+    DOCUMENTS.increment();
+
+    List<ParseMetrics.Snapshot> snapshots = new ArrayList<>();
+
+    for (AbstractParser parser = this; parser != null; parser = parser.nextParser) {
+      ParseMetrics.Snapshot snapshot = parser.metrics.snapshotAndReset();
+      snapshots.add(snapshot);
+
+      logger.info("Parse metrics. Level: {}, Calls: {}, Produced: {}, Time ms: {}",
+              snapshot.level(), snapshot.calls(), snapshot.produced(), snapshot.nanos() / NANOS_PER_MILLI);
+    }
+
+    lastDocumentMetrics = List.copyOf(snapshots);
+  }
+
+  TextComposite parseParagraph(String paragraph) {
+    paragraph = paragraph.replaceAll(TO_REPLACE_REGEX, SPACE);
+    TextComposite paragraphComposite = new TextComposite(TextComponentType.PARAGRAPH);
+
+    // The levels below are recorded once per paragraph
+    long startNanos = System.nanoTime();
+    ParseTally tally = new ParseTally();
+    ((SentenceParser) nextParser).parse(paragraph, paragraphComposite, tally);
+    tally.record(nextParser, ParseTally.SENTENCES, startNanos);
+
+    if (PerformanceMode.NODE_LOGGING) {
       logger.debug("Next parser completed for paragraph: '{}'", paragraph);
     }
 
-    logger.info("Paragraph parsing completed. Total paragraphs processed: {}, Parent children count: {}",
-            paragraphArray.length, parentComposite.getChildComponents().size());
+    return paragraphComposite;
+  }
+
+  private void parseParagraph(String paragraph, TextNode.Builder builder) {
+    long startNanos = System.nanoTime();
+    ParseTally tally = new ParseTally();
+    ((SentenceParser) nextParser).parse(paragraph.replaceAll(TO_REPLACE_REGEX, SPACE), builder, tally);
+    tally.record(nextParser, ParseTally.SENTENCES, startNanos);
   }
 }
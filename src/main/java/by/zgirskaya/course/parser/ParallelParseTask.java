@@ -0,0 +1,58 @@
+package by.zgirskaya.course.parser;
+
+import by.zgirskaya.course.component.TextComposite;
+
+import java.io.Serial;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+
+// Parses pieces into composites that were already attached to the parent in their original order
+class ParallelParseTask extends RecursiveAction {
+  @Serial
+  private static final long serialVersionUID = 1L;
+  private static final int SEQUENTIAL_THRESHOLD = 8 * 1024;
+
+  // Tasks only live inside one parse, they are never serialized
+  private final transient String[] pieces;
+  private final transient TextComposite[] composites;
+  private final transient long[] lengthPrefix;
+  private final transient BiConsumer<String, TextComposite> step;
+  private final int from;
+  private final int to;
+
+  ParallelParseTask(String[] pieces, TextComposite[] composites, BiConsumer<String, TextComposite> step) {
+    this(pieces, composites, buildLengthPrefix(pieces), step, 0, pieces.length);
+  }
+
+  private ParallelParseTask(String[] pieces, TextComposite[] composites, long[] lengthPrefix,
+                            BiConsumer<String, TextComposite> step, int from, int to) {
+    this.pieces = pieces;
+    this.composites = composites;
+    this.lengthPrefix = lengthPrefix;
+    this.step = step;
+    this.from = from;
+    this.to = to;
+  }
+
+  private static long[] buildLengthPrefix(String[] pieces) {
+    long[] prefix = new long[pieces.length + 1];
+    for (int i = 0; i < pieces.length; i++) {
+      prefix[i + 1] = prefix[i] + pieces[i].length();
+    }
+    return prefix;
+  }
+
+  @Override
+  protected void compute() {
+    if (to - from <= 1 || lengthPrefix[to] - lengthPrefix[from] <= SEQUENTIAL_THRESHOLD) {
+      for (int i = from; i < to; i++) {
+        step.accept(pieces[i], composites[i]);
+      }
+      return;
+    }
+
+    int middle = (from + to) >>> 1;
+    invokeAll(new ParallelParseTask(pieces, composites, lengthPrefix, step, from, middle),
+            new ParallelParseTask(pieces, composites, lengthPrefix, step, middle, to));
+  }
+}
@@ -0,0 +1,139 @@
+package by.zgirskaya.course.parser;
+
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextNode;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Parsed trees keyed by a SHA-256 of the text plus the parser chain signature, evicted in LRU order
+// once their estimated size exceeds the limit. The cached trees are immutable TextNodes, callers get read-only
+// views of them: reading or analysing a hit copies nothing and leaves no trace in the cache. makeCopy() on a
+// view gives a tree that can be edited
+public class ParseCache {
+  private static final Logger logger = LogManager.getLogger();
+
+  private static final int HASH_BUFFER_SIZE = 8192;
+  private static final long COMPOSITE_BYTES = 64;
+  private static final long LEAF_BYTES = 40;
+
+  private final long maxBytes;
+  private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long totalBytes;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public ParseCache(long maxBytes) {
+    if (maxBytes <= 0) {
+      throw new IllegalArgumentException("Cache size must be positive");
+    }
+    this.maxBytes = maxBytes;
+  }
+
+  public TextComposite parse(CharSequence text, ParagraphParser paragraphParser) {
+    String key = paragraphParser.getChainSignature() + ':' + contentHash(text);
+
+    TextNode cached = get(key);
+    if (cached != null) {
+      hits.increment();
+      logger.debug("Parse cache hit. Text length: {}", text.length());
+      return (TextComposite) cached.asComponent();
+    }
+    misses.increment();
+
+    // Parsed outside the lock, so other documents are served meanwhile
+    TextNode root = paragraphParser.parseNode(text);
+    put(key, root, estimateBytes(root));
+
+    return (TextComposite) root.asComponent();
+  }
+
+  public synchronized Stats getStats() {
+    return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), totalBytes);
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    totalBytes = 0;
+  }
+
+  private synchronized TextNode get(String key) {
+    Entry entry = entries.get(key);
+    return entry != null ? entry.root : null;
+  }
+
+  private synchronized void put(String key, TextNode root, long bytes) {
+    if (bytes > maxBytes) {
+      logger.debug("Parsed tree is larger than the whole cache. Estimated bytes: {}, Max bytes: {}", bytes, maxBytes);
+      return;
+    }
+
+    Entry previous = entries.put(key, new Entry(root, bytes));
+    totalBytes += bytes - (previous != null ? previous.bytes : 0);
+
+    Iterator<Entry> eldest = entries.values().iterator();
+    while (totalBytes > maxBytes) {
+      totalBytes -= eldest.next().bytes;
+      eldest.remove();
+      evictions.increment();
+    }
+  }
+
+  static String contentHash(CharSequence text) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+
+    byte[] buffer = new byte[HASH_BUFFER_SIZE];
+    int filled = 0;
+    for (int i = 0; i < text.length(); i++) {
+      char symbol = text.charAt(i);
+      buffer[filled++] = (byte) (symbol >>> 8);
+      buffer[filled++] = (byte) symbol;
+
+      if (filled == buffer.length) {
+        digest.update(buffer, 0, filled);
+        filled = 0;
+      }
+    }
+    digest.update(buffer, 0, filled);
+
+    return HexFormat.of().formatHex(digest.digest());
+  }
+
+  // Rough heap footprint: object headers, child lists and leaf chars, shared symbol nodes are free.
+  // Leaf nodes keep their text as a String, so nothing is built to measure it
+  private static long estimateBytes(TextNode node) {
+    if (node.isLeaf()) {
+      String text = node.getText();
+      // TextNode.leaf() hands out the shared node for every one-char symbol
+      boolean shared = node.getType() == TextComponentType.SYMBOL && text.length() == 1;
+      return shared ? 0 : LEAF_BYTES + (long) text.length() * Character.BYTES;
+    }
+
+    long bytes = COMPOSITE_BYTES + (long) node.getChildCount() * Integer.BYTES;
+    for (TextNode child : node.getChildren()) {
+      bytes += estimateBytes(child);
+    }
+    return bytes;
+  }
+
+  private record Entry(TextNode root, long bytes) {
+  }
+
+  public record Stats(long hits, long misses, long evictions, int entryCount, long estimatedBytes) {
+  }
+}
@@ -0,0 +1,29 @@
+package by.zgirskaya.course.parser;
+
+// Calls and produced components of the levels below a paragraph, summed in plain fields while it is parsed.
+// Every level is then recorded once instead of once per sentence or lexeme. Used by one thread at a time
+final class ParseTally {
+  static final int SENTENCES = 0;
+  static final int LEXEMES = 1;
+  static final int LEAVES = 2;
+  private static final int LEVELS = 3;
+
+  private final int[] calls = new int[LEVELS];
+  private final long[] produced = new long[LEVELS];
+
+  void add(int level, int producedCount) {
+    calls[level]++;
+    produced[level] += producedCount;
+  }
+
+  // The given parser sits at the given level, each level down the chain gets the time since startNanos
+  void record(AbstractParser parser, int level, long startNanos) {
+    long elapsed = System.nanoTime() - startNanos;
+
+    for (; parser != null && level < LEVELS; parser = parser.nextParser, level++) {
+      if (calls[level] > 0) {
+        parser.metrics.recordBatch(calls[level], produced[level], elapsed);
+      }
+    }
+  }
+}
@@ -2,6 +2,9 @@ package by.zgirskaya.course.parser;
 
 import by.zgirskaya.course.component.TextComponentType;
 import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextNode;
+import by.zgirskaya.course.metrics.MetricsRegistry;
+import by.zgirskaya.course.metrics.PerformanceMode;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -10,29 +13,82 @@ public class SentenceParser extends AbstractParser {
 
   private static final String SENTENCE_DELIMITER = "(?<=[.!?])\\s+";
 
+  private final LexemeParser lexemeParser;
+
   public SentenceParser(LexemeParser nextParser) {
+    super(MetricsRegistry.SENTENCES);
     logger.debug("Creating SentenceParser with next parser: {}",
             nextParser.getClass().getSimpleName());
 
     this.nextParser = nextParser;
+    this.lexemeParser = nextParser;
   }
 
   @Override
   public void parse(String paragraph, TextComposite parentComposite) {
-    logger.info("Starting sentence parsing. Paragraph length: {}, Parent type: {}",
-            paragraph.length(), parentComposite.getComponentType());
+    long startNanos = System.nanoTime();
+    ParseTally tally = new ParseTally();
+    parse(paragraph, parentComposite, tally);
+    tally.record(this, ParseTally.SENTENCES, startNanos);
+  }
+
+  // Records nothing, the sentences and the levels below them are counted in the tally
+  void parse(String paragraph, TextComposite parentComposite, ParseTally tally) {
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.info("Starting sentence parsing. Paragraph length: {}, Parent type: {}",
+              paragraph.length(), parentComposite.getComponentType());
+    }
 
     String[] sentenceArray = paragraph.split(SENTENCE_DELIMITER);
 
     for (var sentence : sentenceArray) {
       TextComposite sentenceComposite = new TextComposite(TextComponentType.SENTENCE);
       parentComposite.addChildComponent(sentenceComposite);
-      nextParser.parse(sentence, sentenceComposite);
+      lexemeParser.parse(sentence, sentenceComposite, tally);
 
-      logger.debug("Next parser completed for sentence: '{}'", paragraph);
+      if (PerformanceMode.NODE_LOGGING) {
+        logger.debug("Next parser completed for sentence: '{}'", paragraph);
+      }
     }
 
-    logger.info("Sentence parsing completed. Total sentences processed: {}, Parent children count: {}",
-            sentenceArray.length, parentComposite.getChildComponents().size());
+    tally.add(ParseTally.SENTENCES, sentenceArray.length);
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.info("Sentence parsing completed. Total sentences processed: {}, Parent children count: {}",
+              sentenceArray.length, parentComposite.getChildComponentCount());
+    }
+  }
+
+  // The same sentences as nodes of an immutable tree, for ParagraphParser.parseNode
+  void parse(String paragraph, TextNode.Builder builder, ParseTally tally) {
+    String[] sentenceArray = paragraph.split(SENTENCE_DELIMITER);
+
+    for (var sentence : sentenceArray) {
+      builder.open(TextComponentType.SENTENCE);
+      lexemeParser.parse(sentence, builder, tally);
+      builder.close();
+    }
+
+    tally.add(ParseTally.SENTENCES, sentenceArray.length);
+  }
+
+  // Sentences are forked as subtasks when called from a ForkJoinPool worker. Each sentence records the
+  // levels below it once, sentences running side by side cannot share a tally
+  void parseInParallel(String paragraph, TextComposite parentComposite) {
+    long startNanos = System.nanoTime();
+    String[] sentenceArray = paragraph.split(SENTENCE_DELIMITER);
+    TextComposite[] sentenceComposites = new TextComposite[sentenceArray.length];
+
+    for (int i = 0; i < sentenceArray.length; i++) {
+      sentenceComposites[i] = new TextComposite(TextComponentType.SENTENCE);
+      parentComposite.addChildComponent(sentenceComposites[i]);
+    }
+
+    new ParallelParseTask(sentenceArray, sentenceComposites, nextParser::parse).invoke();
+    metrics.record(sentenceArray.length, startNanos);
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.debug("Parallel sentence parsing completed. Total sentences processed: {}", sentenceArray.length);
+    }
   }
 }
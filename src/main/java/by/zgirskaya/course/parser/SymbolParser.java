@@ -1,28 +1,61 @@
 package by.zgirskaya.course.parser;
 
-import by.zgirskaya.course.component.TextComponentType;
 import by.zgirskaya.course.component.TextComposite;
 import by.zgirskaya.course.component.TextLeaf;
+import by.zgirskaya.course.component.TextNode;
+import by.zgirskaya.course.metrics.MetricsRegistry;
+import by.zgirskaya.course.metrics.PerformanceMode;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 public class SymbolParser extends AbstractParser {
   private static final Logger logger = LogManager.getLogger();
 
+  public SymbolParser() {
+    super(MetricsRegistry.SYMBOLS);
+  }
+
   @Override
   public void parse(String lexeme, TextComposite parentComposite) {
-    logger.info("Starting symbol parsing. Lexeme: '{}', Length: {}, Parent type: {}",
-            lexeme, lexeme.length(), parentComposite.getComponentType());
+    long startNanos = System.nanoTime();
+    metrics.record(parseSymbols(lexeme, parentComposite), startNanos);
+  }
+
+  // Records nothing, the caller counts the symbols. Returns how many were added
+  int parseSymbols(String lexeme, TextComposite parentComposite) {
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.info("Starting symbol parsing. Lexeme: '{}', Length: {}, Parent type: {}",
+              lexeme, lexeme.length(), parentComposite.getComponentType());
+    }
 
     for (int i = 0; i < lexeme.length(); i++) {
       char symbol = lexeme.charAt(i);
-      TextLeaf letterComponent = new TextLeaf(String.valueOf(symbol), TextComponentType.SYMBOL);
+      TextLeaf letterComponent = symbolLeaf(symbol);
       parentComposite.addChildComponent(letterComponent);
 
-      logger.debug("Next parser completed for symbol: '{}'", symbol);
+      if (PerformanceMode.NODE_LOGGING) {
+        logger.debug("Next parser completed for symbol: '{}'", symbol);
+      }
+    }
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.info("Symbol parsing completed. Total symbols processed: {}, Parent children count: {}",
+              lexeme.length(), parentComposite.getChildComponentCount());
     }
 
-    logger.info("Symbol parsing completed. Total symbols processed: {}, Parent children count: {}",
-            lexeme.length(), parentComposite.getChildComponents().size());
+    return lexeme.length();
+  }
+
+  // The same symbols as shared nodes of an immutable tree, for ParagraphParser.parseNode
+  int parseSymbols(String lexeme, TextNode.Builder builder) {
+    for (int i = 0; i < lexeme.length(); i++) {
+      builder.add(TextNode.symbol(lexeme.charAt(i)));
+    }
+    return lexeme.length();
+  }
+
+  // The shared flyweight leaf of the symbol
+  protected TextLeaf symbolLeaf(char symbol) {
+    return TextLeaf.symbol(symbol);
   }
 }
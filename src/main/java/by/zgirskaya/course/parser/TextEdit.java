@@ -0,0 +1,13 @@
+package by.zgirskaya.course.parser;
+
+// Replaces deletedLength chars starting at offset with insertedText
+public record TextEdit(int offset, int deletedLength, String insertedText) {
+
+  public static TextEdit insert(int offset, String insertedText) {
+    return new TextEdit(offset, 0, insertedText);
+  }
+
+  public static TextEdit delete(int offset, int deletedLength) {
+    return new TextEdit(offset, deletedLength, "");
+  }
+}
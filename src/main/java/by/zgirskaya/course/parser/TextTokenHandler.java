@@ -0,0 +1,20 @@
+package by.zgirskaya.course.parser;
+
+// Receives the structure found by TextTokenizer, offsets refer to the tokenized text
+public interface TextTokenHandler {
+  void startParagraph(int offset);
+
+  void endParagraph(int offset);
+
+  void startSentence(int offset);
+
+  void endSentence(int offset);
+
+  void startLexeme(int offset);
+
+  void endLexeme(int offset);
+
+  void word(CharSequence text, int start, int end);
+
+  void symbol(CharSequence text, int index);
+}
@@ -0,0 +1,279 @@
+package by.zgirskaya.course.parser;
+
+import by.zgirskaya.course.component.TextComponentType;
+
+// Single left-to-right scan producing the same boundaries as the regex chain
+// ParagraphParser -> SentenceParser -> LexemeParser -> WordParser/SymbolParser, split() quirks included
+public class TextTokenizer {
+  private static final int DELIMITER_LENGTH = 4;
+
+  private final boolean wordLeaves;
+
+  public TextTokenizer(TextComponentType leafType) {
+    this.wordLeaves = leafType == TextComponentType.WORD;
+  }
+
+  public void tokenize(CharSequence text, TextTokenHandler handler) {
+    new Scan(text, handler, wordLeaves).run();
+  }
+
+  private static boolean isBlank(char symbol) {
+    return symbol == ' ' || symbol == '\t';
+  }
+
+  private static boolean isWhitespace(char symbol) {
+    return symbol == ' ' || symbol == '\t' || symbol == '\n' || symbol == '\u000B'
+            || symbol == '\f' || symbol == '\r';
+  }
+
+  private static boolean isLetter(char symbol) {
+    return (symbol >= 'a' && symbol <= 'z') || (symbol >= 'A' && symbol <= 'Z');
+  }
+
+  private static boolean isTerminal(char symbol) {
+    return symbol == '.' || symbol == '!' || symbol == '?';
+  }
+
+  private static final class Scan {
+    private final CharSequence text;
+    private final TextTokenHandler handler;
+    private final boolean wordLeaves;
+
+    // Paragraph level: pieces between runs of four blanks
+    private int pieceStart;
+    private int blankRun;
+    private boolean delimiterFound;
+    private boolean paragraphOpen;
+    private int pendingEmptyParagraphs;
+    private int firstPendingOffset;
+
+    // Sentence level: pieces between a terminal and the following whitespace run
+    private boolean sentenceOpen;
+    private boolean afterTerminal;
+    private boolean inSentenceBreak;
+    private boolean significantSeen;
+    private boolean lexemeEmitted;
+    // Control chars after the last significant char are trimmed unless a significant char follows
+    private int deferredStart = -1;
+
+    // Lexeme and word level
+    private boolean lexemeOpen;
+    private int lexemeStart;
+    private boolean startsWithNonLetter;
+    private boolean leadingEmptyEmitted;
+    private int wordStart = -1;
+
+    Scan(CharSequence text, TextTokenHandler handler, boolean wordLeaves) {
+      this.text = text;
+      this.handler = handler;
+      this.wordLeaves = wordLeaves;
+    }
+
+    void run() {
+      int length = text.length();
+
+      for (int i = 0; i < length; i++) {
+        char symbol = text.charAt(i);
+
+        if (isBlank(symbol)) {
+          if (++blankRun == DELIMITER_LENGTH) {
+            blankRun = 0;
+            delimiterFound = true;
+            endPiece(i - DELIMITER_LENGTH + 1);
+            pieceStart = i + 1;
+            continue;
+          }
+          // Leading blanks of a piece are only trimmed whitespace, the piece opens with its first other char
+          if (!paragraphOpen) {
+            continue;
+          }
+        } else {
+          blankRun = 0;
+          if (!paragraphOpen) {
+            openPiece();
+          }
+        }
+
+        paragraphChar(symbol, i);
+      }
+
+      if (!paragraphOpen && blankRun > 0) {
+        openPiece();
+      }
+
+      if (paragraphOpen) {
+        endPiece(length);
+      } else if (!delimiterFound) {
+        emitEmptyParagraph(pieceStart);
+      }
+    }
+
+    private void openPiece() {
+      while (pendingEmptyParagraphs > 0) {
+        emitEmptyParagraph(firstPendingOffset);
+        firstPendingOffset += DELIMITER_LENGTH;
+        pendingEmptyParagraphs--;
+      }
+
+      handler.startParagraph(pieceStart);
+      paragraphOpen = true;
+      afterTerminal = false;
+      inSentenceBreak = false;
+      openSentence(pieceStart);
+    }
+
+    private void endPiece(int end) {
+      if (paragraphOpen) {
+        if (sentenceOpen) {
+          closeSentence(end);
+        }
+        handler.endParagraph(end);
+        paragraphOpen = false;
+      } else {
+        // Empty pieces are kept only if a non-empty one follows
+        if (pendingEmptyParagraphs == 0) {
+          firstPendingOffset = pieceStart;
+        }
+        pendingEmptyParagraphs++;
+      }
+    }
+
+    private void emitEmptyParagraph(int offset) {
+      handler.startParagraph(offset);
+      handler.startSentence(offset);
+      emitEmptyLexeme(offset);
+      handler.endSentence(offset);
+      handler.endParagraph(offset);
+    }
+
+    private void emitEmptyLexeme(int offset) {
+      handler.startLexeme(offset);
+      if (wordLeaves) {
+        handler.word(text, offset, offset);
+      }
+      handler.endLexeme(offset);
+    }
+
+    private void paragraphChar(char symbol, int index) {
+      if (isWhitespace(symbol)) {
+        if (afterTerminal) {
+          afterTerminal = false;
+          inSentenceBreak = true;
+          closeSentence(index);
+        } else if (!inSentenceBreak) {
+          sentenceWhitespace(index);
+        }
+        return;
+      }
+
+      if (inSentenceBreak) {
+        inSentenceBreak = false;
+        openSentence(index);
+      }
+      afterTerminal = isTerminal(symbol);
+      sentenceChar(symbol, index);
+    }
+
+    private void openSentence(int offset) {
+      handler.startSentence(offset);
+      sentenceOpen = true;
+      significantSeen = false;
+      lexemeEmitted = false;
+      deferredStart = -1;
+    }
+
+    private void closeSentence(int end) {
+      if (lexemeOpen) {
+        closeLexeme(deferredStart >= 0 ? deferredStart : end);
+      }
+      deferredStart = -1;
+
+      if (!lexemeEmitted) {
+        emitEmptyLexeme(end);
+      }
+
+      handler.endSentence(end);
+      sentenceOpen = false;
+    }
+
+    private void sentenceWhitespace(int index) {
+      if (significantSeen && deferredStart < 0 && lexemeOpen) {
+        closeLexeme(index);
+      }
+    }
+
+    private void sentenceChar(char symbol, int index) {
+      if (symbol <= ' ') {
+        if (significantSeen && deferredStart < 0) {
+          deferredStart = index;
+        }
+        return;
+      }
+
+      if (deferredStart >= 0) {
+        replayDeferred(index);
+      }
+      significantSeen = true;
+      lexemeChar(symbol, index);
+    }
+
+    private void replayDeferred(int end) {
+      for (int i = deferredStart; i < end; i++) {
+        char symbol = text.charAt(i);
+        if (isWhitespace(symbol)) {
+          if (lexemeOpen) {
+            closeLexeme(i);
+          }
+        } else {
+          lexemeChar(symbol, i);
+        }
+      }
+      deferredStart = -1;
+    }
+
+    private void lexemeChar(char symbol, int index) {
+      if (!lexemeOpen) {
+        handler.startLexeme(index);
+        lexemeOpen = true;
+        lexemeStart = index;
+        startsWithNonLetter = false;
+        leadingEmptyEmitted = false;
+      }
+
+      if (!wordLeaves) {
+        handler.symbol(text, index);
+        return;
+      }
+
+      if (isLetter(symbol)) {
+        if (wordStart < 0) {
+          // split() keeps a leading empty word when the lexeme starts with a delimiter
+          if (startsWithNonLetter && !leadingEmptyEmitted) {
+            handler.word(text, lexemeStart, lexemeStart);
+            leadingEmptyEmitted = true;
+          }
+          wordStart = index;
+        }
+      } else {
+        if (index == lexemeStart) {
+          startsWithNonLetter = true;
+        }
+        if (wordStart >= 0) {
+          handler.word(text, wordStart, index);
+          wordStart = -1;
+        }
+      }
+    }
+
+    private void closeLexeme(int end) {
+      if (wordStart >= 0) {
+        handler.word(text, wordStart, end);
+        wordStart = -1;
+      }
+
+      handler.endLexeme(end);
+      lexemeOpen = false;
+      lexemeEmitted = true;
+    }
+  }
+}
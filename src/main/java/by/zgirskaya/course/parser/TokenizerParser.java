@@ -0,0 +1,72 @@
+package by.zgirskaya.course.parser;
+
+import by.zgirskaya.course.component.CompactTextDocument;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextNode;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.metrics.MetricsRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+// Drop-in replacement for the ParagraphParser chain built on the single-pass TextTokenizer
+public class TokenizerParser extends AbstractParser {
+  private static final Logger logger = LogManager.getLogger();
+
+  private final TextTokenizer tokenizer;
+
+  public TokenizerParser(TextComponentType leafType) throws CustomTextException {
+    super(MetricsRegistry.PARAGRAPHS);
+    logger.debug("Creating TokenizerParser with leaf type: {}", leafType);
+
+    if (leafType != TextComponentType.WORD && leafType != TextComponentType.SYMBOL) {
+      throw new CustomTextException("TokenizerParser: leaf type must be WORD or SYMBOL");
+    }
+    this.tokenizer = new TextTokenizer(leafType);
+  }
+
+  @Override
+  public void parse(String text, TextComposite parentComposite) {
+    parse((CharSequence) text, parentComposite);
+  }
+
+  public void parse(CharSequence text, TextComposite parentComposite) {
+    logger.info("Starting single-pass parsing. Input text length: {}, Parent type: {}",
+            text.length(), parentComposite.getComponentType());
+
+    long startNanos = System.nanoTime();
+    CompositeTokenHandler handler = new CompositeTokenHandler(parentComposite);
+    tokenizer.tokenize(text, handler);
+    metrics.record(handler.getParagraphCount(), startNanos);
+    MetricsRegistry.getDefault().counter(MetricsRegistry.DOCUMENTS).increment();
+
+    logger.info("Single-pass parsing completed. Total paragraphs processed: {}", handler.getParagraphCount());
+  }
+
+  // Same structure as parse(), stored as parallel arrays over the source instead of node objects
+  public CompactTextDocument parseCompact(CharSequence text) {
+    logger.info("Starting compact parsing. Input text length: {}", text.length());
+
+    CompactTextDocument.Builder builder = CompactTextDocument.builder(text, TextComponentType.PARAGRAPH);
+    tokenizer.tokenize(text, new CompactTokenHandler(builder));
+    CompactTextDocument document = builder.build();
+
+    logger.info("Compact parsing completed. Total nodes: {}, Footprint bytes: {}",
+            document.getNodeCount(), document.getFootprintBytes());
+
+    return document;
+  }
+
+  // Same structure as parse(), built as an immutable tree that can be shared between threads
+  public TextNode parseNode(CharSequence text) {
+    logger.info("Starting immutable parsing. Input text length: {}", text.length());
+
+    TextNode.Builder builder = TextNode.builder(TextComponentType.PARAGRAPH);
+    tokenizer.tokenize(text, new NodeTokenHandler(builder));
+    TextNode root = builder.build();
+
+    logger.info("Immutable parsing completed. Total paragraphs: {}", root.getChildCount());
+
+    return root;
+  }
+}
@@ -3,6 +3,11 @@ package by.zgirskaya.course.parser;
 import by.zgirskaya.course.component.TextComponentType;
 import by.zgirskaya.course.component.TextComposite;
 import by.zgirskaya.course.component.TextLeaf;
+import by.zgirskaya.course.component.TextNode;
+import by.zgirskaya.course.component.TextSlice;
+import by.zgirskaya.course.component.WordDictionary;
+import by.zgirskaya.course.metrics.MetricsRegistry;
+import by.zgirskaya.course.metrics.PerformanceMode;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -11,21 +16,165 @@ public class WordParser extends AbstractParser {
 
   private static final String WORD_DELIMITER = "[^a-zA-Z]+";
 
+  public enum Letters {
+    ASCII,
+    UNICODE
+  }
+
+  // Null keeps the regex split, otherwise words are scanned as offset slices of the input
+  private final Letters letters;
+  // Gives every case-folded word an id at parse time, shared by all documents this parser reads.
+  // Null leaves the words without ids, each analysis then numbers the words of its document itself
+  private final WordDictionary dictionary;
+
+  public WordParser() {
+    this(null, new WordDictionary());
+  }
+
+  // Offset mode: WORD leaves are slices of the input, empty words are not emitted
+  public WordParser(Letters letters) {
+    this(letters, new WordDictionary());
+  }
+
+  // Parsers sharing a dictionary give the same word the same id across their trees. The dictionary
+  // keeps every word it has seen, pass null for an unbounded stream of new words
+  public WordParser(Letters letters, WordDictionary dictionary) {
+    super(MetricsRegistry.WORDS);
+    logger.debug("Creating WordParser with letters: {}", letters);
+
+    this.letters = letters;
+    this.dictionary = dictionary;
+  }
+
+  // Null when the parser gives no ids
+  public WordDictionary getDictionary() {
+    return dictionary;
+  }
+
+  public boolean isOffsetMode() {
+    return letters != null;
+  }
+
+  @Override
+  protected String describe() {
+    return isOffsetMode() ? super.describe() + "(" + letters + ")" : super.describe();
+  }
+
   @Override
   public void parse(String lexeme, TextComposite parentComposite) {
-    logger.info("Starting word parsing. Lexeme: '{}', Length: {}, Parent type: {}",
-            lexeme, lexeme.length(), parentComposite.getComponentType());
+    long startNanos = System.nanoTime();
+    metrics.record(parseWords(lexeme, parentComposite), startNanos);
+  }
+
+  // Allocates nothing but the word slices
+  public void parse(CharSequence source, int start, int end, TextComposite parentComposite) {
+    long startNanos = System.nanoTime();
+    metrics.record(parseWords(source, start, end, parentComposite), startNanos);
+  }
+
+  // Records nothing, the caller counts the words. Returns how many were added
+  int parseWords(String lexeme, TextComposite parentComposite) {
+    if (isOffsetMode()) {
+      return parseWords(lexeme, 0, lexeme.length(), parentComposite);
+    }
+
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.info("Starting word parsing. Lexeme: '{}', Length: {}, Parent type: {}",
+              lexeme, lexeme.length(), parentComposite.getComponentType());
+    }
 
     String[] wordsArray = lexeme.split(WORD_DELIMITER);
 
     for (var word : wordsArray) {
-      TextLeaf wordComponent = new TextLeaf(word, TextComponentType.WORD);
+      TextLeaf wordComponent = dictionary != null
+              ? TextLeaf.word(word, dictionary)
+              : new TextLeaf(word, TextComponentType.WORD);
       parentComposite.addChildComponent(wordComponent);
 
-      logger.debug("Next parser completed for word: '{}'", word);
+      if (PerformanceMode.NODE_LOGGING) {
+        logger.debug("Next parser completed for word: '{}'", word);
+      }
     }
 
-    logger.info("Symbol parsing completed. Total words processed: {}, Parent children count: {}",
-            wordsArray.length, parentComposite.getChildComponents().size());
+    if (PerformanceMode.NODE_LOGGING) {
+      logger.info("Symbol parsing completed. Total words processed: {}, Parent children count: {}",
+              wordsArray.length, parentComposite.getChildComponentCount());
+    }
+
+    return wordsArray.length;
+  }
+
+  int parseWords(CharSequence source, int start, int end, TextComposite parentComposite) {
+    int wordCount = 0;
+    int wordStart = nextIndex(source, start, end, true);
+
+    while (wordStart < end) {
+      int wordEnd = nextIndex(source, wordStart, end, false);
+      parentComposite.addChildComponent(wordSlice(source, wordStart, wordEnd));
+      wordCount++;
+      wordStart = nextIndex(source, wordEnd, end, true);
+    }
+
+    if (PerformanceMode.NODE_LOGGING && logger.isDebugEnabled()) {
+      logger.debug("Offset word parsing completed. Range length: {}, Total words processed: {}",
+              end - start, wordCount);
+    }
+
+    return wordCount;
+  }
+
+  // The same words as leaves of an immutable tree, for ParagraphParser.parseNode
+  int parseWords(String lexeme, TextNode.Builder builder) {
+    if (!isOffsetMode()) {
+      String[] wordsArray = lexeme.split(WORD_DELIMITER);
+      for (String word : wordsArray) {
+        builder.leaf(word, TextComponentType.WORD);
+      }
+      return wordsArray.length;
+    }
+
+    int wordCount = 0;
+    int wordStart = nextIndex(lexeme, 0, lexeme.length(), true);
+
+    while (wordStart < lexeme.length()) {
+      int wordEnd = nextIndex(lexeme, wordStart, lexeme.length(), false);
+      builder.leaf(lexeme.substring(wordStart, wordEnd), TextComponentType.WORD);
+      wordCount++;
+      wordStart = nextIndex(lexeme, wordEnd, lexeme.length(), true);
+    }
+    return wordCount;
+  }
+
+  // First index from the given one whose code point is a letter or is not one, as asked, end if none is
+  private int nextIndex(CharSequence source, int index, int end, boolean letter) {
+    while (index < end) {
+      int codePoint = source.charAt(index);
+      int next = index + 1;
+
+      if (letters == Letters.UNICODE && Character.isHighSurrogate((char) codePoint)
+              && next < end && Character.isLowSurrogate(source.charAt(next))) {
+        codePoint = Character.toCodePoint((char) codePoint, source.charAt(next));
+        next++;
+      }
+
+      if (isLetter(codePoint) == letter) {
+        return index;
+      }
+      index = next;
+    }
+    return end;
+  }
+
+  private TextSlice wordSlice(CharSequence source, int start, int end) {
+    return dictionary != null
+            ? TextSlice.word(source, start, end, dictionary)
+            : new TextSlice(source, start, end, TextComponentType.WORD);
+  }
+
+  private boolean isLetter(int codePoint) {
+    if (letters == Letters.UNICODE) {
+      return Character.isLetter(codePoint);
+    }
+    return (codePoint >= 'a' && codePoint <= 'z') || (codePoint >= 'A' && codePoint <= 'Z');
   }
 }
@@ -0,0 +1,11 @@
+package by.zgirskaya.course.reader;
+
+import by.zgirskaya.course.exception.CustomTextException;
+
+public interface CustomParagraphReader extends AutoCloseable {
+    // Returns the next raw paragraph or null when the input is exhausted
+    String readParagraph() throws CustomTextException;
+
+    @Override
+    void close() throws CustomTextException;
+}
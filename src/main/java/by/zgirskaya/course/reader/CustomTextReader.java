@@ -4,4 +4,8 @@ import by.zgirskaya.course.exception.CustomTextException;
 
 public interface CustomTextReader {
     String readTextFromFile(String filePath) throws CustomTextException;
+
+    default CharSequence readCharSequenceFromFile(String filePath) throws CustomTextException {
+        return readTextFromFile(filePath);
+    }
 }
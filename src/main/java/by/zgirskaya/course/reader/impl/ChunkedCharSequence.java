@@ -0,0 +1,60 @@
+package by.zgirskaya.course.reader.impl;
+
+import java.util.List;
+import java.util.Objects;
+
+final class ChunkedCharSequence implements CharSequence {
+    static final int CHUNK_SHIFT = 16;
+    static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Every chunk except the last one holds exactly CHUNK_SIZE chars
+    private final char[][] chunks;
+    private final int offset;
+    private final int length;
+
+    ChunkedCharSequence(List<char[]> chunks, int length) {
+        this(chunks.toArray(new char[0][]), 0, length);
+    }
+
+    private ChunkedCharSequence(char[][] chunks, int offset, int length) {
+        this.chunks = chunks;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length);
+        int position = offset + index;
+        return chunks[position >>> CHUNK_SHIFT][position & CHUNK_MASK];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        Objects.checkFromToIndex(start, end, length);
+        return new ChunkedCharSequence(chunks, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(length);
+        int position = offset;
+        int remaining = length;
+
+        while (remaining > 0) {
+            int chunkOffset = position & CHUNK_MASK;
+            int count = Math.min(remaining, CHUNK_SIZE - chunkOffset);
+            sb.append(chunks[position >>> CHUNK_SHIFT], chunkOffset, count);
+            position += count;
+            remaining -= count;
+        }
+
+        return sb.toString();
+    }
+}
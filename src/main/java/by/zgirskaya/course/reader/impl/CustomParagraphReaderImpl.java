@@ -0,0 +1,161 @@
+package by.zgirskaya.course.reader.impl;
+
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.metrics.PerformanceMode;
+import by.zgirskaya.course.reader.CustomParagraphReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class CustomParagraphReaderImpl implements CustomParagraphReader {
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int DELIMITER_LENGTH = 4;
+    private static final String EMPTY_PARAGRAPH = "";
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder paragraph = new StringBuilder();
+
+    private int bufferPosition;
+    private int bufferLimit;
+    private int blankRun;
+    private boolean endOfInput;
+    private boolean delimiterFound;
+
+    // Empty paragraphs are only kept when a non-empty one follows them (String.split drops trailing empties)
+    private int pendingEmptyParagraphs;
+    private String heldParagraph;
+
+    public CustomParagraphReaderImpl(Reader reader) {
+        logger.debug("Creating paragraph reader over: {}", reader.getClass().getSimpleName());
+
+        this.reader = reader;
+    }
+
+    public CustomParagraphReaderImpl(ReadableByteChannel channel, Charset charset) {
+        this(Channels.newReader(channel, charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE), BUFFER_SIZE));
+    }
+
+    public static CustomParagraphReaderImpl fromFile(String filePath) throws CustomTextException {
+        return fromFile(filePath, StandardCharsets.UTF_8);
+    }
+
+    public static CustomParagraphReaderImpl fromFile(String filePath, Charset charset) throws CustomTextException {
+        logger.debug("Opening paragraph reader for file: {}, charset: {}", filePath, charset);
+
+        Path path = TextFileValidator.validate(filePath);
+
+        try {
+            return new CustomParagraphReaderImpl(FileChannel.open(path, StandardOpenOption.READ), charset);
+        } catch (IOException e) {
+            throw new CustomTextException("Error opening file: " + filePath, e);
+        }
+    }
+
+    @Override
+    public String readParagraph() throws CustomTextException {
+        if (pendingEmptyParagraphs > 0) {
+            pendingEmptyParagraphs--;
+            return EMPTY_PARAGRAPH;
+        }
+
+        if (heldParagraph != null) {
+            String result = heldParagraph;
+            heldParagraph = null;
+            return result;
+        }
+
+        while (!endOfInput) {
+            String piece = readPiece();
+
+            // Text without any delimiter is returned as is, even when empty
+            if (!piece.isEmpty() || (endOfInput && !delimiterFound)) {
+                if (pendingEmptyParagraphs > 0) {
+                    heldParagraph = piece;
+                    pendingEmptyParagraphs--;
+                    return EMPTY_PARAGRAPH;
+                }
+                return piece;
+            }
+
+            if (!endOfInput) {
+                pendingEmptyParagraphs++;
+            }
+        }
+
+        pendingEmptyParagraphs = 0;
+        return null;
+    }
+
+    private String readPiece() throws CustomTextException {
+        while (true) {
+            if (bufferPosition == bufferLimit && !fillBuffer()) {
+                endOfInput = true;
+                return takeParagraph();
+            }
+
+            char symbol = buffer[bufferPosition++];
+            paragraph.append(symbol);
+
+            if (symbol == ' ' || symbol == '\t') {
+                if (++blankRun == DELIMITER_LENGTH) {
+                    blankRun = 0;
+                    delimiterFound = true;
+                    paragraph.setLength(paragraph.length() - DELIMITER_LENGTH);
+                    return takeParagraph();
+                }
+            } else {
+                blankRun = 0;
+            }
+        }
+    }
+
+    private boolean fillBuffer() throws CustomTextException {
+        try {
+            int read;
+            do {
+                read = reader.read(buffer, 0, buffer.length);
+            } while (read == 0);
+
+            bufferPosition = 0;
+            bufferLimit = Math.max(read, 0);
+            return read > 0;
+        } catch (IOException e) {
+            throw new CustomTextException("Error reading paragraph stream", e);
+        }
+    }
+
+    private String takeParagraph() {
+        String result = paragraph.toString();
+        paragraph.setLength(0);
+
+        if (PerformanceMode.NODE_LOGGING) {
+            logger.debug("Read paragraph of length: {}", result.length());
+        }
+
+        return result;
+    }
+
+    @Override
+    public void close() throws CustomTextException {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new CustomTextException("Error closing paragraph stream", e);
+        }
+    }
+}
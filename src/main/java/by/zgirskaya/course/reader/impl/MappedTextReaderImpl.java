@@ -0,0 +1,139 @@
+package by.zgirskaya.course.reader.impl;
+
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.reader.CustomTextReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class MappedTextReaderImpl implements CustomTextReader {
+    private static final Logger logger = LogManager.getLogger();
+
+    private static final int DEFAULT_REGION_SIZE = 256 * 1024 * 1024;
+    private static final int MIN_REGION_SIZE = 16;
+    private static final int MAX_CHUNKS = Integer.MAX_VALUE / ChunkedCharSequence.CHUNK_SIZE;
+
+    private final Charset charset;
+    private final int regionSize;
+
+    public MappedTextReaderImpl() {
+        this(StandardCharsets.UTF_8);
+    }
+
+    public MappedTextReaderImpl(Charset charset) {
+        this(charset, DEFAULT_REGION_SIZE);
+    }
+
+    public MappedTextReaderImpl(Charset charset, int regionSize) {
+        if (regionSize < MIN_REGION_SIZE) {
+            throw new IllegalArgumentException("Region size must be at least " + MIN_REGION_SIZE + " bytes");
+        }
+
+        this.charset = charset;
+        this.regionSize = regionSize;
+    }
+
+    @Override
+    public String readTextFromFile(String filePath) throws CustomTextException {
+        return readCharSequenceFromFile(filePath).toString();
+    }
+
+    @Override
+    public CharSequence readCharSequenceFromFile(String filePath) throws CustomTextException {
+        logger.debug("Attempting to map file: {}, charset: {}", filePath, charset);
+
+        Path path = TextFileValidator.validate(filePath);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize == 0) {
+                logger.warn("File is empty: {}", filePath);
+                return "";
+            }
+
+            CharSequence content = decode(channel, fileSize);
+            logger.debug("Successfully decoded {} characters from file: {}", content.length(), filePath);
+
+            return content;
+
+        } catch (IOException e) {
+            throw new CustomTextException("Error reading file: " + filePath, e);
+        }
+    }
+
+    private CharSequence decode(FileChannel channel, long fileSize) throws IOException, CustomTextException {
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        List<char[]> chunks = new ArrayList<>();
+        CharBuffer chunk = CharBuffer.allocate(ChunkedCharSequence.CHUNK_SIZE);
+        long position = 0;
+
+        while (position < fileSize) {
+            long size = Math.min(regionSize, fileSize - position);
+            boolean lastRegion = position + size == fileSize;
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+
+            chunk = decodeRegion(decoder, region, chunk, chunks, lastRegion);
+
+            // An incomplete multi-byte sequence at the end of a region is mapped again with the next one
+            if (region.position() == 0) {
+                throw new CustomTextException("Unable to decode mapped region at offset " + position);
+            }
+            position += region.position();
+        }
+
+        while (decoder.flush(chunk).isOverflow()) {
+            chunk = nextChunk(chunk, chunks);
+        }
+
+        long totalLength = (long) chunks.size() * ChunkedCharSequence.CHUNK_SIZE + chunk.position();
+        if (totalLength > Integer.MAX_VALUE) {
+            throw new CustomTextException("Decoded text is too large for a character sequence: " + totalLength);
+        }
+
+        chunks.add(Arrays.copyOf(chunk.array(), chunk.position()));
+        return new ChunkedCharSequence(chunks, (int) totalLength);
+    }
+
+    private CharBuffer decodeRegion(CharsetDecoder decoder, MappedByteBuffer region, CharBuffer chunk,
+                                    List<char[]> chunks, boolean lastRegion)
+            throws CharacterCodingException, CustomTextException {
+        while (true) {
+            CoderResult result = decoder.decode(region, chunk, lastRegion);
+
+            if (result.isOverflow()) {
+                chunk = nextChunk(chunk, chunks);
+            } else if (result.isUnderflow()) {
+                return chunk;
+            } else {
+                result.throwException();
+            }
+        }
+    }
+
+    private CharBuffer nextChunk(CharBuffer chunk, List<char[]> chunks) throws CustomTextException {
+        if (chunks.size() == MAX_CHUNKS) {
+            throw new CustomTextException("Decoded text is too large for a character sequence");
+        }
+
+        chunks.add(chunk.array());
+        return CharBuffer.allocate(ChunkedCharSequence.CHUNK_SIZE);
+    }
+}
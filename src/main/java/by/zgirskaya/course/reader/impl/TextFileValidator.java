@@ -0,0 +1,31 @@
+package by.zgirskaya.course.reader.impl;
+
+import by.zgirskaya.course.exception.CustomTextException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+final class TextFileValidator {
+
+    private TextFileValidator() {
+    }
+
+    static Path validate(String filePath) throws CustomTextException {
+        if (filePath == null || filePath.isBlank()) {
+            throw new CustomTextException("File path cannot be null or empty");
+        }
+
+        Path path = Paths.get(filePath);
+
+        if (!Files.exists(path)) {
+            throw new CustomTextException("File does not exist: " + filePath);
+        }
+
+        if (!Files.isRegularFile(path)) {
+            throw new CustomTextException("Path is not a file: " + filePath);
+        }
+
+        return path;
+    }
+}
@@ -0,0 +1,219 @@
+package by.zgirskaya.course.serializer;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextLeaf;
+import by.zgirskaya.course.exception.CustomTextException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Binary text tree over a buffer, subtrees are materialized only when asked for
+public class BinaryTextDocument {
+  private static final Logger logger = LogManager.getLogger();
+
+  private static final TextComponentType[] TYPES = TextComponentType.values();
+  private static final int INITIAL_READ_SIZE = 64 * 1024;
+
+  private final ByteBuffer buffer;
+  private final String[] strings;
+  private final int rootPosition;
+
+  private final int[] childPositions;
+  // Set when the root holds only leaves of this type, the child positions then point at string indexes
+  private final TextComponentType uniformChildType;
+
+  private BinaryTextDocument(ByteBuffer buffer) throws CustomTextException {
+    this.buffer = buffer;
+
+    try {
+      ByteBuffer reader = buffer.duplicate();
+      byte[] magic = new byte[BinaryTextFormat.MAGIC.length];
+      reader.get(magic);
+      if (!Arrays.equals(magic, BinaryTextFormat.MAGIC)) {
+        throw new CustomTextException("Not a binary text file");
+      }
+
+      byte version = reader.get();
+      if (version != BinaryTextFormat.VERSION) {
+        throw new CustomTextException("Unsupported binary text version: " + version);
+      }
+
+      strings = new String[BinaryTextFormat.getCount(reader)];
+      for (int i = 0; i < strings.length; i++) {
+        int length = BinaryTextFormat.getCount(reader);
+        strings[i] = StandardCharsets.UTF_8.decode(reader.slice(reader.position(), length)).toString();
+        reader.position(reader.position() + length);
+      }
+
+      rootPosition = reader.position();
+      byte rootTag = reader.get();
+      if (isLeaf(rootTag)) {
+        throw new CustomTextException("Binary text root must be a composite");
+      }
+      typeOf(rootTag);
+
+      int childCount = BinaryTextFormat.getCount(reader);
+      BinaryTextFormat.getCount(reader);
+      uniformChildType = isUniform(rootTag) ? typeOf(reader.get()) : null;
+      childPositions = readChildPositions(reader, childCount, uniformChildType != null);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new CustomTextException("Malformed binary text", e);
+    }
+
+    logger.debug("Opened binary text. Bytes: {}, Strings: {}", buffer.limit(), strings.length);
+  }
+
+  public static BinaryTextDocument wrap(ByteBuffer buffer) throws CustomTextException {
+    return new BinaryTextDocument(buffer.slice());
+  }
+
+  // The mapping stays valid after the channel is closed
+  public static BinaryTextDocument map(Path filePath) throws CustomTextException {
+    try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new CustomTextException("Binary text file is too large to map: " + filePath);
+      }
+      return new BinaryTextDocument(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    } catch (IOException e) {
+      throw new CustomTextException("Error mapping binary text file: " + filePath, e);
+    }
+  }
+
+  public static BinaryTextDocument read(ReadableByteChannel channel) throws CustomTextException {
+    ByteBuffer content = ByteBuffer.allocate(INITIAL_READ_SIZE);
+    try {
+      while (channel.read(content) >= 0) {
+        if (!content.hasRemaining()) {
+          content = ByteBuffer.allocate(content.capacity() * 2).put(content.flip());
+        }
+      }
+    } catch (IOException e) {
+      throw new CustomTextException("Error reading binary text", e);
+    }
+    return new BinaryTextDocument(content.flip());
+  }
+
+  public TextComponentType getRootType() {
+    return typeOf(buffer.get(rootPosition));
+  }
+
+  public int getChildCount() {
+    return childPositions.length;
+  }
+
+  public int getStringCount() {
+    return strings.length;
+  }
+
+  // Builds only the subtree of one root child, e.g. a single paragraph
+  public AbstractTextComponent materializeChild(int index) throws CustomTextException {
+    if (index < 0 || index >= childPositions.length) {
+      throw new CustomTextException("Child index out of range: " + index + ", Child count: " + childPositions.length);
+    }
+    if (uniformChildType == null) {
+      return materializeAt(childPositions[index]);
+    }
+
+    try {
+      return readLeaf(buffer.duplicate().position(childPositions[index]), uniformChildType);
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new CustomTextException("Malformed binary text", e);
+    }
+  }
+
+  public TextComposite materialize() throws CustomTextException {
+    return (TextComposite) materializeAt(rootPosition);
+  }
+
+  private AbstractTextComponent materializeAt(int position) throws CustomTextException {
+    try {
+      return readNode(buffer.duplicate().position(position));
+    } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new CustomTextException("Malformed binary text", e);
+    }
+  }
+
+  private AbstractTextComponent readNode(ByteBuffer reader) {
+    byte tag = reader.get();
+    TextComponentType type = typeOf(tag);
+
+    if (isLeaf(tag)) {
+      return readLeaf(reader, type);
+    }
+
+    int childCount = BinaryTextFormat.getCount(reader);
+    BinaryTextFormat.getCount(reader);
+
+    List<AbstractTextComponent> children = new ArrayList<>(childCount);
+    if (isUniform(tag)) {
+      TextComponentType leafType = typeOf(reader.get());
+      for (int i = 0; i < childCount; i++) {
+        children.add(readLeaf(reader, leafType));
+      }
+    } else {
+      for (int i = 0; i < childCount; i++) {
+        children.add(readNode(reader));
+      }
+    }
+
+    TextComposite composite = new TextComposite(type);
+    composite.setChildComponents(children);
+    return composite;
+  }
+
+  private AbstractTextComponent readLeaf(ByteBuffer reader, TextComponentType type) {
+    String text = strings[BinaryTextFormat.getVarint(reader)];
+    return type == TextComponentType.SYMBOL && text.length() == 1
+            ? TextLeaf.symbol(text.charAt(0))
+            : new TextLeaf(text, type);
+  }
+
+  // Start of every root child, found by skipping whole subtrees
+  private static int[] readChildPositions(ByteBuffer reader, int childCount, boolean uniform) {
+    int[] positions = new int[childCount];
+
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = reader.position();
+      if (uniform) {
+        BinaryTextFormat.getVarint(reader);
+        continue;
+      }
+
+      byte tag = reader.get();
+      if (isLeaf(tag)) {
+        BinaryTextFormat.getVarint(reader);
+      } else {
+        BinaryTextFormat.getVarint(reader);
+        int contentLength = BinaryTextFormat.getCount(reader);
+        reader.position(reader.position() + contentLength);
+      }
+    }
+    return positions;
+  }
+
+  private static boolean isLeaf(byte tag) {
+    return (tag & BinaryTextFormat.LEAF_FLAG) != 0;
+  }
+
+  private static boolean isUniform(byte tag) {
+    return (tag & BinaryTextFormat.UNIFORM_FLAG) != 0;
+  }
+
+  private static TextComponentType typeOf(byte tag) {
+    return TYPES[tag & BinaryTextFormat.TYPE_MASK];
+  }
+}
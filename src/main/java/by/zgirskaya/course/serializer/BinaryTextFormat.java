@@ -0,0 +1,59 @@
+package by.zgirskaya.course.serializer;
+
+import java.nio.ByteBuffer;
+
+// Layout, version 1:
+//   magic "TXTB", version byte, string table (varint count, then varint UTF-8 length and bytes per string), root node.
+//   Nodes are written in pre-order. A tag byte holds the TextComponentType ordinal, with LEAF_FLAG set for leaves.
+//   Leaves continue with the varint index of their text in the string table,
+//   composites with the varint child count and the varint byte length of all their children, so readers can skip them.
+//   Composites with UNIFORM_FLAG hold only leaves of one type: that type byte follows, then one string index per child
+final class BinaryTextFormat {
+  static final byte[] MAGIC = {'T', 'X', 'T', 'B'};
+  static final byte VERSION = 1;
+  static final int LEAF_FLAG = 0x80;
+  static final int UNIFORM_FLAG = 0x40;
+  static final int TYPE_MASK = 0x07;
+  static final int MAX_VARINT_BYTES = 5;
+
+  private BinaryTextFormat() {
+  }
+
+  static int varintSize(int value) {
+    int size = 1;
+    while ((value & ~0x7F) != 0) {
+      value >>>= 7;
+      size++;
+    }
+    return size;
+  }
+
+  static void putVarint(ByteBuffer buffer, int value) {
+    while ((value & ~0x7F) != 0) {
+      buffer.put((byte) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    buffer.put((byte) value);
+  }
+
+  static int getVarint(ByteBuffer buffer) {
+    int value = 0;
+    for (int shift = 0; shift < 7 * MAX_VARINT_BYTES; shift += 7) {
+      byte current = buffer.get();
+      value |= (current & 0x7F) << shift;
+      if (current >= 0) {
+        return value;
+      }
+    }
+    throw new IllegalArgumentException("Malformed varint");
+  }
+
+  // Counts and lengths of items taking at least one byte each, so they cannot exceed the remaining bytes
+  static int getCount(ByteBuffer buffer) {
+    int count = getVarint(buffer);
+    if (count < 0 || count > buffer.remaining()) {
+      throw new IllegalArgumentException("Count out of range: " + count);
+    }
+    return count;
+  }
+}
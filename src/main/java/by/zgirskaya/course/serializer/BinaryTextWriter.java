@@ -0,0 +1,185 @@
+package by.zgirskaya.course.serializer;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.exception.CustomTextException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Two passes: the first one collects the string table and the byte length of every composite, the second writes
+public class BinaryTextWriter {
+  private static final Logger logger = LogManager.getLogger();
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  public void write(AbstractTextComponent root, Path filePath) throws CustomTextException {
+    try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      write(root, channel);
+    } catch (IOException e) {
+      throw new CustomTextException("Error writing binary text file: " + filePath, e);
+    }
+  }
+
+  // The channel is left open
+  public void write(AbstractTextComponent root, WritableByteChannel channel) throws CustomTextException {
+    Layout layout = new Layout();
+    layout.measure(root);
+
+    ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    try {
+      buffer.put(BinaryTextFormat.MAGIC).put(BinaryTextFormat.VERSION);
+      BinaryTextFormat.putVarint(buffer, layout.strings.size());
+
+      for (String string : layout.strings) {
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        ensureRemaining(buffer, channel, BinaryTextFormat.MAX_VARINT_BYTES);
+        BinaryTextFormat.putVarint(buffer, bytes.length);
+
+        for (int offset = 0; offset < bytes.length; ) {
+          ensureRemaining(buffer, channel, 1);
+          int length = Math.min(buffer.remaining(), bytes.length - offset);
+          buffer.put(bytes, offset, length);
+          offset += length;
+        }
+      }
+
+      new NodeWriter(layout, buffer, channel).write(root);
+      flush(buffer, channel);
+    } catch (IOException e) {
+      throw new CustomTextException("Error writing binary text", e);
+    }
+
+    logger.debug("Wrote binary text. Strings: {}, Composites: {}", layout.strings.size(), layout.compositeCount);
+  }
+
+  // Only leaves of one type, as lexemes of a symbol or word tree
+  private static boolean isUniform(List<AbstractTextComponent> children) {
+    if (children.isEmpty()) {
+      return false;
+    }
+
+    TextComponentType type = children.getFirst().getComponentType();
+    for (AbstractTextComponent child : children) {
+      if (child instanceof TextComposite || child.getComponentType() != type) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void ensureRemaining(ByteBuffer buffer, WritableByteChannel channel, int bytes) throws IOException {
+    if (buffer.remaining() < bytes) {
+      flush(buffer, channel);
+    }
+  }
+
+  private static void flush(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  private static final class Layout {
+    private final Map<String, Integer> stringIndexes = new HashMap<>();
+    private final List<String> strings = new ArrayList<>();
+    // Children byte length of every composite in pre-order
+    private int[] contentLengths = new int[64];
+    private int compositeCount;
+
+    private int measure(AbstractTextComponent component) {
+      if (!(component instanceof TextComposite composite)) {
+        String text = component.toString();
+        Integer index = stringIndexes.get(text);
+        if (index == null) {
+          index = strings.size();
+          stringIndexes.put(text, index);
+          strings.add(text);
+        }
+        return 1 + BinaryTextFormat.varintSize(index);
+      }
+
+      int slot = compositeCount++;
+      if (slot == contentLengths.length) {
+        contentLengths = Arrays.copyOf(contentLengths, slot * 2);
+      }
+
+      int contentLength = 0;
+      List<AbstractTextComponent> children = composite.getChildComponentsView();
+      if (isUniform(children)) {
+        // Type byte plus the string indexes, leaves lose their own tag
+        contentLength++;
+        for (AbstractTextComponent child : children) {
+          contentLength += measure(child) - 1;
+        }
+      } else {
+        for (AbstractTextComponent child : children) {
+          contentLength += measure(child);
+        }
+      }
+      contentLengths[slot] = contentLength;
+
+      return 1 + BinaryTextFormat.varintSize(children.size()) + BinaryTextFormat.varintSize(contentLength)
+              + contentLength;
+    }
+  }
+
+  private static final class NodeWriter {
+    private final Layout layout;
+    private final ByteBuffer buffer;
+    private final WritableByteChannel channel;
+    private int nextComposite;
+
+    private NodeWriter(Layout layout, ByteBuffer buffer, WritableByteChannel channel) {
+      this.layout = layout;
+      this.buffer = buffer;
+      this.channel = channel;
+    }
+
+    private void write(AbstractTextComponent component) throws IOException {
+      ensureRemaining(buffer, channel, 1 + 2 * BinaryTextFormat.MAX_VARINT_BYTES);
+      int type = component.getComponentType().ordinal();
+
+      if (!(component instanceof TextComposite composite)) {
+        buffer.put((byte) (type | BinaryTextFormat.LEAF_FLAG));
+        BinaryTextFormat.putVarint(buffer, layout.stringIndexes.get(component.toString()));
+        return;
+      }
+
+      List<AbstractTextComponent> children = composite.getChildComponentsView();
+      boolean uniform = isUniform(children);
+      buffer.put((byte) (uniform ? type | BinaryTextFormat.UNIFORM_FLAG : type));
+      BinaryTextFormat.putVarint(buffer, children.size());
+      BinaryTextFormat.putVarint(buffer, layout.contentLengths[nextComposite++]);
+
+      if (!uniform) {
+        for (AbstractTextComponent child : children) {
+          write(child);
+        }
+        return;
+      }
+
+      buffer.put((byte) children.getFirst().getComponentType().ordinal());
+      for (AbstractTextComponent child : children) {
+        ensureRemaining(buffer, channel, BinaryTextFormat.MAX_VARINT_BYTES);
+        BinaryTextFormat.putVarint(buffer, layout.stringIndexes.get(child.toString()));
+      }
+    }
+  }
+}
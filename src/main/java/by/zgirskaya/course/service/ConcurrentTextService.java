@@ -0,0 +1,51 @@
+package by.zgirskaya.course.service;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.service.analysis.SentenceInfo;
+import by.zgirskaya.course.service.analysis.SentenceOverlapIndex;
+import by.zgirskaya.course.service.analysis.SentenceRanking;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+// Asynchronous TextService, failures complete the futures with CustomTextException,
+// cancelled or timed out requests interrupt their analysis
+public interface ConcurrentTextService extends AutoCloseable {
+  <R> CompletableFuture<R> submit(AbstractTextComponent textComponent, TextOperation<R> operation);
+
+  <R> CompletableFuture<R> submit(AbstractTextComponent textComponent, TextOperation<R> operation, Duration timeout);
+
+  // Reads and parses the file as part of the request, leafType is WORD or SYMBOL
+  <R> CompletableFuture<R> submitFile(String filePath, TextComponentType leafType, TextOperation<R> operation);
+
+  // Completes with the results in document order, the first failure cancels the remaining requests
+  <R> CompletableFuture<List<R>> submitAll(List<? extends AbstractTextComponent> textComponents,
+                                           TextOperation<R> operation);
+
+  default CompletableFuture<Integer> findMaxSentenceCountWithSameWords(AbstractTextComponent textComponent) {
+    return submit(textComponent, TextService::findMaxSentenceCountWithSameWords);
+  }
+
+  default CompletableFuture<List<SentenceInfo>> displaySentencesByLexemeCountAscending(
+          AbstractTextComponent textComponent) {
+    return submit(textComponent, TextService::displaySentencesByLexemeCountAscending);
+  }
+
+  default CompletableFuture<SentenceRanking> rankSentencesByLexemeCount(AbstractTextComponent textComponent) {
+    return submit(textComponent, TextService::rankSentencesByLexemeCount);
+  }
+
+  default CompletableFuture<SentenceOverlapIndex> indexSentenceOverlaps(AbstractTextComponent textComponent) {
+    return submit(textComponent, TextService::indexSentenceOverlaps);
+  }
+
+  default CompletableFuture<AbstractTextComponent> changeFirstAndLastLexemesInSentences(
+          AbstractTextComponent textComponent) {
+    return submit(textComponent, TextService::changeFirstAndLastLexemesInSentences);
+  }
+
+  @Override
+  void close();
+}
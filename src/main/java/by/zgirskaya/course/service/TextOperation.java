@@ -0,0 +1,9 @@
+package by.zgirskaya.course.service;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.exception.CustomTextException;
+
+@FunctionalInterface
+public interface TextOperation<R> {
+  R apply(TextService textService, AbstractTextComponent textComponent) throws CustomTextException;
+}
@@ -2,9 +2,16 @@ package by.zgirskaya.course.service;
 
 import by.zgirskaya.course.component.AbstractTextComponent;
 import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.service.analysis.SentenceInfo;
+import by.zgirskaya.course.service.analysis.SentenceOverlapIndex;
+import by.zgirskaya.course.service.analysis.SentenceRanking;
+
+import java.util.List;
 
 public interface TextService {
   int findMaxSentenceCountWithSameWords(AbstractTextComponent textComponent) throws CustomTextException;
-  void displaySentencesByLexemeCountAscending(AbstractTextComponent textComponent) throws CustomTextException;
+  List<SentenceInfo> displaySentencesByLexemeCountAscending(AbstractTextComponent textComponent) throws CustomTextException;
+  SentenceRanking rankSentencesByLexemeCount(AbstractTextComponent textComponent) throws CustomTextException;
+  SentenceOverlapIndex indexSentenceOverlaps(AbstractTextComponent textComponent) throws CustomTextException;
   AbstractTextComponent changeFirstAndLastLexemesInSentences(AbstractTextComponent textComponent) throws CustomTextException;
 }
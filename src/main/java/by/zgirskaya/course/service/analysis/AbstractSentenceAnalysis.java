@@ -0,0 +1,54 @@
+package by.zgirskaya.course.service.analysis;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+
+// Tracks the outermost SENTENCE composite, nested sentences are treated as part of it
+public abstract class AbstractSentenceAnalysis<R> implements TextAnalysis<R> {
+  private static final int NO_SENTENCE = -1;
+
+  private int depth;
+  private int sentenceDepth = NO_SENTENCE;
+
+  @Override
+  public void enterComposite(TextComposite composite) {
+    depth++;
+
+    if (sentenceDepth == NO_SENTENCE) {
+      if (composite.getComponentType() == TextComponentType.SENTENCE) {
+        sentenceDepth = depth;
+        startSentence(composite);
+      }
+    } else if (depth == sentenceDepth + 1) {
+      visitSentenceChild(composite);
+    }
+  }
+
+  @Override
+  public void exitComposite(TextComposite composite) {
+    if (depth == sentenceDepth) {
+      sentenceDepth = NO_SENTENCE;
+      endSentence(composite);
+    }
+    depth--;
+  }
+
+  @Override
+  public void visitLeaf(AbstractTextComponent leaf) {
+    if (sentenceDepth != NO_SENTENCE) {
+      visitSentenceLeaf(leaf);
+    }
+  }
+
+  protected void startSentence(TextComposite sentence) {
+  }
+
+  protected void visitSentenceChild(TextComposite child) {
+  }
+
+  protected void visitSentenceLeaf(AbstractTextComponent leaf) {
+  }
+
+  protected abstract void endSentence(TextComposite sentence);
+}
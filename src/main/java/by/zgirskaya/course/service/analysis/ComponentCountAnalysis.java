@@ -0,0 +1,46 @@
+package by.zgirskaya.course.service.analysis;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+// Number of components of every type below the visited root
+public class ComponentCountAnalysis implements TextAnalysis<Map<TextComponentType, Integer>> {
+  private static final TextComponentType[] TYPES = TextComponentType.values();
+
+  private final int[] counts = new int[TYPES.length];
+  private int depth;
+
+  @Override
+  public void enterComposite(TextComposite composite) {
+    if (depth++ > 0) {
+      counts[composite.getComponentType().ordinal()]++;
+    }
+  }
+
+  @Override
+  public void exitComposite(TextComposite composite) {
+    depth--;
+  }
+
+  @Override
+  public void visitLeaf(AbstractTextComponent leaf) {
+    counts[leaf.getComponentType().ordinal()]++;
+  }
+
+  public int getCount(TextComponentType type) {
+    return counts[type.ordinal()];
+  }
+
+  @Override
+  public Map<TextComponentType, Integer> getResult() {
+    Map<TextComponentType, Integer> result = new EnumMap<>(TextComponentType.class);
+    for (TextComponentType type : TYPES) {
+      result.put(type, counts[type.ordinal()]);
+    }
+    return result;
+  }
+}
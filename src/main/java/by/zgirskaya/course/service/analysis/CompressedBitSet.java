@@ -0,0 +1,90 @@
+package by.zgirskaya.course.service.analysis;
+
+import java.util.Arrays;
+
+// Immutable bit set storing only its non-zero 64-bit words next to their block numbers, so a sentence with
+// ten words costs ten words at most however large the vocabulary is. Intersections merge the blocks
+public final class CompressedBitSet {
+  private static final int BLOCK_SHIFT = 6;
+  private static final int BLOCK_MASK = (1 << BLOCK_SHIFT) - 1;
+
+  static final CompressedBitSet EMPTY = new CompressedBitSet(new int[0], new long[0], 0);
+
+  private final int[] blocks;
+  private final long[] bits;
+  private final int cardinality;
+
+  private CompressedBitSet(int[] blocks, long[] bits, int cardinality) {
+    this.blocks = blocks;
+    this.bits = bits;
+    this.cardinality = cardinality;
+  }
+
+  // The first count values, ascending and distinct
+  static CompressedBitSet of(int[] values, int count) {
+    if (count == 0) {
+      return EMPTY;
+    }
+
+    int[] blocks = new int[count];
+    long[] bits = new long[count];
+    int blockCount = 0;
+
+    for (int i = 0; i < count; i++) {
+      int block = values[i] >>> BLOCK_SHIFT;
+      if (blockCount == 0 || blocks[blockCount - 1] != block) {
+        blocks[blockCount++] = block;
+      }
+      bits[blockCount - 1] |= 1L << (values[i] & BLOCK_MASK);
+    }
+
+    return new CompressedBitSet(Arrays.copyOf(blocks, blockCount), Arrays.copyOf(bits, blockCount), count);
+  }
+
+  public int cardinality() {
+    return cardinality;
+  }
+
+  public boolean contains(int value) {
+    int position = Arrays.binarySearch(blocks, value >>> BLOCK_SHIFT);
+    return position >= 0 && (bits[position] & (1L << (value & BLOCK_MASK))) != 0;
+  }
+
+  // Popcount of the AND, only blocks present in both sets are touched
+  public int intersectionCount(CompressedBitSet other) {
+    int count = 0;
+    int i = 0;
+    int j = 0;
+
+    while (i < blocks.length && j < other.blocks.length) {
+      if (blocks[i] < other.blocks[j]) {
+        i++;
+      } else if (blocks[i] > other.blocks[j]) {
+        j++;
+      } else {
+        count += Long.bitCount(bits[i++] & other.bits[j++]);
+      }
+    }
+    return count;
+  }
+
+  // ORs the set into an uncompressed bit set large enough for its values
+  void orInto(long[] dense) {
+    for (int i = 0; i < blocks.length; i++) {
+      dense[blocks[i]] |= bits[i];
+    }
+  }
+
+  public int[] toArray() {
+    int[] values = new int[cardinality];
+    int count = 0;
+
+    for (int i = 0; i < blocks.length; i++) {
+      int base = blocks[i] << BLOCK_SHIFT;
+      for (long word = bits[i]; word != 0; word &= word - 1) {
+        values[count++] = base + Long.numberOfTrailingZeros(word);
+      }
+    }
+    return values;
+  }
+}
@@ -0,0 +1,95 @@
+package by.zgirskaya.course.service.analysis;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+// Builds a tree with the first and last lexemes of every sentence swapped. Only the composites above the
+// sentences and the swapped sentences are new, the other sentences and all lexemes are those of the visited tree.
+// Change a makeCopy() of the result to leave the visited tree as it is
+public class FirstLastLexemeSwapAnalysis implements TextAnalysis<AbstractTextComponent> {
+  private static final Logger logger = LogManager.getLogger();
+
+  private final Deque<TextComposite> copies = new ArrayDeque<>();
+  private int openSentences;
+  private AbstractTextComponent result;
+
+  @Override
+  public void enterComposite(TextComposite composite) {
+    if (composite.getComponentType() == TextComponentType.SENTENCE) {
+      openSentences++;
+    } else if (openSentences == 0) {
+      copies.push(new TextComposite(composite.getComponentType()));
+    }
+  }
+
+  @Override
+  public void exitComposite(TextComposite composite) {
+    if (composite.getComponentType() == TextComponentType.SENTENCE) {
+      if (--openSentences == 0) {
+        attach(swapFirstAndLastLexemes(composite));
+      }
+    } else if (openSentences == 0) {
+      attach(copies.pop());
+    }
+  }
+
+  @Override
+  public void visitLeaf(AbstractTextComponent leaf) {
+    if (openSentences == 0) {
+      attach(leaf.makeCopy());
+    }
+  }
+
+  @Override
+  public AbstractTextComponent getResult() {
+    return result;
+  }
+
+  private void attach(AbstractTextComponent component) {
+    if (copies.isEmpty()) {
+      result = component;
+    } else {
+      copies.peek().addChildComponent(component);
+    }
+  }
+
+  // The sentence itself when there is nothing to swap
+  private TextComposite swapFirstAndLastLexemes(TextComposite sentence) {
+    List<AbstractTextComponent> children = sentence.getChildComponentsView();
+    int firstIndex = -1;
+    int lastIndex = -1;
+
+    for (int i = 0; i < children.size(); i++) {
+      AbstractTextComponent child = children.get(i);
+      if (child instanceof TextComposite &&
+              child.getComponentType() == TextComponentType.LEXEME) {
+        if (firstIndex == -1) {
+          firstIndex = i;
+        }
+        lastIndex = i;
+      }
+    }
+
+    if (firstIndex == -1 || firstIndex == lastIndex) {
+      return sentence;
+    }
+
+    List<AbstractTextComponent> newChildren = new ArrayList<>(children);
+    Collections.swap(newChildren, firstIndex, lastIndex);
+
+    TextComposite swapped = new TextComposite(sentence.getComponentType());
+    swapped.setChildComponents(newChildren);
+
+    logger.debug("Swapped lexemes at positions {} and {}", firstIndex, lastIndex);
+    return swapped;
+  }
+}
@@ -0,0 +1,33 @@
+package by.zgirskaya.course.service.analysis;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComposite;
+
+// Answered by the word -> sentences index, so the cost stays linear in the number of words
+public class MaxSentencesWithSameWordsAnalysis implements TextAnalysis<Integer> {
+  private final WordSentenceIndex index = new WordSentenceIndex();
+
+  @Override
+  public void enterComposite(TextComposite composite) {
+    index.enterComposite(composite);
+  }
+
+  @Override
+  public void exitComposite(TextComposite composite) {
+    index.exitComposite(composite);
+  }
+
+  @Override
+  public void visitLeaf(AbstractTextComponent leaf) {
+    index.visitLeaf(leaf);
+  }
+
+  public WordSentenceIndex getIndex() {
+    return index;
+  }
+
+  @Override
+  public Integer getResult() {
+    return index.getMaxSentenceCount();
+  }
+}
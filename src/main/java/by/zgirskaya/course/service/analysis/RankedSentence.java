@@ -0,0 +1,15 @@
+package by.zgirskaya.course.service.analysis;
+
+import by.zgirskaya.course.component.TextComposite;
+
+// Position is the index of the sentence in document order, the text is rendered only when asked for
+public record RankedSentence(TextComposite sentence, int lexemeCount, int position) {
+
+  public String text() {
+    return sentence.toString().trim();
+  }
+
+  public SentenceInfo toSentenceInfo() {
+    return new SentenceInfo(text(), lexemeCount);
+  }
+}
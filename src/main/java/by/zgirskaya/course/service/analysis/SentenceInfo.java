@@ -0,0 +1,4 @@
+package by.zgirskaya.course.service.analysis;
+
+public record SentenceInfo(String sentenceText, int lexemeCount) {
+}
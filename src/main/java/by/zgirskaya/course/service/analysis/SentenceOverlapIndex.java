@@ -0,0 +1,252 @@
+package by.zgirskaya.course.service.analysis;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.WordDictionary;
+
+import java.io.Serial;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Sentence x word bitmap: the distinct words of every sentence and the sentences of every word as compressed
+// bit sets. Overlaps are AND plus popcount, candidates for a sentence are the OR of the sentence sets of its words
+public class SentenceOverlapIndex extends AbstractSentenceAnalysis<SentenceOverlapIndex> {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int SEQUENTIAL_ROWS = 64;
+
+  private final WordIdResolver wordIds = new WordIdResolver();
+  private final List<TextComposite> sentences = new ArrayList<>();
+  private final List<CompressedBitSet> sentenceWords = new ArrayList<>();
+
+  // Sentences of every word in text order, turned into bit sets on the first query
+  private int[][] wordSentences = new int[INITIAL_CAPACITY][];
+  private int[] wordSentenceCounts = new int[INITIAL_CAPACITY];
+  private int wordIdLimit;
+  private CompressedBitSet[] wordSets;
+
+  private int currentSentence;
+  private int[] currentWords = new int[INITIAL_CAPACITY];
+  private int currentWordCount;
+
+  public static SentenceOverlapIndex of(AbstractTextComponent textComponent) {
+    SentenceOverlapIndex index = new SentenceOverlapIndex();
+    textComponent.accept(index);
+    return index;
+  }
+
+  @Override
+  protected void startSentence(TextComposite sentence) {
+    currentSentence = sentences.size();
+    currentWordCount = 0;
+    sentences.add(sentence);
+  }
+
+  @Override
+  protected void visitSentenceLeaf(AbstractTextComponent leaf) {
+    if (leaf.getComponentType() != TextComponentType.WORD) {
+      return;
+    }
+
+    int wordId = wordIds.resolve(leaf);
+    if (wordId == WordDictionary.NO_WORD) {
+      return;
+    }
+
+    if (wordId >= wordSentences.length) {
+      int capacity = Math.max(wordId + 1, wordSentences.length * 2);
+      wordSentences = Arrays.copyOf(wordSentences, capacity);
+      wordSentenceCounts = Arrays.copyOf(wordSentenceCounts, capacity);
+    }
+    wordIdLimit = Math.max(wordIdLimit, wordId + 1);
+
+    int[] postings = wordSentences[wordId];
+    int count = wordSentenceCounts[wordId];
+    // A word repeated inside one sentence is counted once
+    if (count > 0 && postings[count - 1] == currentSentence) {
+      return;
+    }
+
+    if (postings == null || count == postings.length) {
+      postings = postings == null ? new int[INITIAL_CAPACITY] : Arrays.copyOf(postings, count * 2);
+      wordSentences[wordId] = postings;
+    }
+    postings[count] = currentSentence;
+    wordSentenceCounts[wordId] = count + 1;
+
+    if (currentWordCount == currentWords.length) {
+      currentWords = Arrays.copyOf(currentWords, currentWordCount * 2);
+    }
+    currentWords[currentWordCount++] = wordId;
+  }
+
+  @Override
+  protected void endSentence(TextComposite sentence) {
+    Arrays.sort(currentWords, 0, currentWordCount);
+    sentenceWords.add(CompressedBitSet.of(currentWords, currentWordCount));
+  }
+
+  @Override
+  public SentenceOverlapIndex getResult() {
+    return this;
+  }
+
+  public int getSentenceCount() {
+    return sentences.size();
+  }
+
+  public TextComposite getSentence(int sentenceIndex) {
+    return sentences.get(sentenceIndex);
+  }
+
+  public int getWordCount(int sentenceIndex) {
+    return sentenceWords.get(sentenceIndex).cardinality();
+  }
+
+  public CompressedBitSet getSentenceWords(int sentenceIndex) {
+    return sentenceWords.get(sentenceIndex);
+  }
+
+  public int sharedWordCount(int first, int second) {
+    return sentenceWords.get(first).intersectionCount(sentenceWords.get(second));
+  }
+
+  // Other sentences sharing at least minShared distinct words with the sentence, in text order
+  public int[] sentencesSharingAtLeast(int sentenceIndex, int minShared) {
+    Objects.checkIndex(sentenceIndex, sentences.size());
+    checkMinShared(minShared);
+
+    List<SentencePair> pairs = new ArrayList<>();
+    collectRow(sentenceIndex, minShared, false, wordSets(), new long[candidateWords()], pairs);
+
+    int[] result = new int[pairs.size()];
+    for (int i = 0; i < result.length; i++) {
+      SentencePair pair = pairs.get(i);
+      result[i] = pair.first() == sentenceIndex ? pair.second() : pair.first();
+    }
+    return result;
+  }
+
+  // The word found in the most sentences, the first such word on ties
+  public Optional<WordGroup> largestCommonWordGroup() {
+    CompressedBitSet[] sets = wordSets();
+    int bestWordId = WordDictionary.NO_WORD;
+
+    for (int wordId = 0; wordId < sets.length; wordId++) {
+      if (sets[wordId] != null
+              && (bestWordId == WordDictionary.NO_WORD || sets[wordId].cardinality() > sets[bestWordId].cardinality())) {
+        bestWordId = wordId;
+      }
+    }
+
+    return bestWordId == WordDictionary.NO_WORD
+            ? Optional.empty()
+            : Optional.of(new WordGroup(wordIds.word(bestWordId), sets[bestWordId].toArray()));
+  }
+
+  public List<SentencePair> pairsSharingAtLeast(int minShared) {
+    return pairsSharingAtLeast(minShared, ForkJoinPool.commonPool());
+  }
+
+  // All pairs sharing at least minShared distinct words ordered by both indexes, rows are split across the pool
+  public List<SentencePair> pairsSharingAtLeast(int minShared, ForkJoinPool pool) {
+    checkMinShared(minShared);
+    return pool.invoke(new PairsTask(this, wordSets(), minShared, 0, sentences.size()));
+  }
+
+  private void collectRow(int row, int minShared, boolean laterOnly, CompressedBitSet[] sets, long[] candidates,
+                          List<SentencePair> pairs) {
+    CompressedBitSet words = sentenceWords.get(row);
+    if (words.cardinality() < minShared) {
+      return;
+    }
+
+    Arrays.fill(candidates, 0);
+    for (int wordId : words.toArray()) {
+      sets[wordId].orInto(candidates);
+    }
+
+    int from = laterOnly ? row + 1 : 0;
+    for (int block = from >>> 6; block < candidates.length; block++) {
+      long bits = block == from >>> 6 ? candidates[block] & (-1L << (from & 63)) : candidates[block];
+
+      for (; bits != 0; bits &= bits - 1) {
+        int other = (block << 6) + Long.numberOfTrailingZeros(bits);
+        if (other == row) {
+          continue;
+        }
+
+        int shared = words.intersectionCount(sentenceWords.get(other));
+        if (shared >= minShared) {
+          pairs.add(new SentencePair(Math.min(row, other), Math.max(row, other), shared));
+        }
+      }
+    }
+  }
+
+  private synchronized CompressedBitSet[] wordSets() {
+    if (wordSets == null) {
+      wordSets = new CompressedBitSet[wordIdLimit];
+      for (int wordId = 0; wordId < wordIdLimit; wordId++) {
+        if (wordSentences[wordId] != null) {
+          wordSets[wordId] = CompressedBitSet.of(wordSentences[wordId], wordSentenceCounts[wordId]);
+        }
+      }
+    }
+    return wordSets;
+  }
+
+  private int candidateWords() {
+    return (sentences.size() + 63) >>> 6;
+  }
+
+  private static void checkMinShared(int minShared) {
+    if (minShared < 1) {
+      throw new IllegalArgumentException("Minimum of shared words must be positive: " + minShared);
+    }
+  }
+
+  private static class PairsTask extends RecursiveTask<List<SentencePair>> {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    // Tasks only live inside one query, they are never serialized
+    private final transient SentenceOverlapIndex index;
+    private final transient CompressedBitSet[] sets;
+    private final int minShared;
+    private final int from;
+    private final int to;
+
+    private PairsTask(SentenceOverlapIndex index, CompressedBitSet[] sets, int minShared, int from, int to) {
+      this.index = index;
+      this.sets = sets;
+      this.minShared = minShared;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected List<SentencePair> compute() {
+      if (to - from <= SEQUENTIAL_ROWS) {
+        List<SentencePair> pairs = new ArrayList<>();
+        long[] candidates = new long[index.candidateWords()];
+        for (int row = from; row < to; row++) {
+          index.collectRow(row, minShared, true, sets, candidates, pairs);
+        }
+        return pairs;
+      }
+
+      int middle = (from + to) >>> 1;
+      PairsTask right = new PairsTask(index, sets, minShared, middle, to);
+      right.fork();
+      List<SentencePair> pairs = new PairsTask(index, sets, minShared, from, middle).compute();
+      pairs.addAll(right.join());
+      return pairs;
+    }
+  }
+}
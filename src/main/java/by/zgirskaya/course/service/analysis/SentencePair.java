@@ -0,0 +1,5 @@
+package by.zgirskaya.course.service.analysis;
+
+// Sentence indexes in text order, first < second
+public record SentencePair(int first, int second, int sharedWords) {
+}
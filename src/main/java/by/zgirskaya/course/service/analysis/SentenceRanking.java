@@ -0,0 +1,121 @@
+package by.zgirskaya.course.service.analysis;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+// Sentences with at least one lexeme and non-blank text, ranked by lexeme count with ties in document order.
+// Lexeme counts are small, so queries place sentences by counting sort and build only the requested ranks
+public class SentenceRanking extends AbstractSentenceAnalysis<SentenceRanking> {
+  private static final int INITIAL_CAPACITY = 16;
+
+  private final List<TextComposite> sentences = new ArrayList<>();
+  private int[] lexemeCounts = new int[INITIAL_CAPACITY];
+  private int[] histogram = new int[INITIAL_CAPACITY];
+  private int maxLexemeCount;
+
+  private int lexemeCount;
+  private boolean hasText;
+
+  public static SentenceRanking of(AbstractTextComponent textComponent) {
+    SentenceRanking ranking = new SentenceRanking();
+    textComponent.accept(ranking);
+    return ranking;
+  }
+
+  @Override
+  protected void startSentence(TextComposite sentence) {
+    lexemeCount = 0;
+    hasText = false;
+  }
+
+  @Override
+  protected void visitSentenceChild(TextComposite child) {
+    if (child.getComponentType() == TextComponentType.LEXEME) {
+      lexemeCount++;
+    }
+  }
+
+  // Separators are blanks, so the trimmed sentence is empty exactly when every leaf is
+  @Override
+  protected void visitSentenceLeaf(AbstractTextComponent leaf) {
+    if (!hasText) {
+      String text = leaf.toString();
+      for (int i = 0; i < text.length() && !hasText; i++) {
+        hasText = text.charAt(i) > ' ';
+      }
+    }
+  }
+
+  @Override
+  protected void endSentence(TextComposite sentence) {
+    if (lexemeCount == 0 || !hasText) {
+      return;
+    }
+
+    int position = sentences.size();
+    if (position == lexemeCounts.length) {
+      lexemeCounts = Arrays.copyOf(lexemeCounts, position * 2);
+    }
+    if (lexemeCount >= histogram.length) {
+      histogram = Arrays.copyOf(histogram, Math.max(lexemeCount + 1, histogram.length * 2));
+    }
+
+    sentences.add(sentence);
+    lexemeCounts[position] = lexemeCount;
+    histogram[lexemeCount]++;
+    maxLexemeCount = Math.max(maxLexemeCount, lexemeCount);
+  }
+
+  @Override
+  public SentenceRanking getResult() {
+    return this;
+  }
+
+  public int getSentenceCount() {
+    return sentences.size();
+  }
+
+  public List<RankedSentence> shortest(int k) {
+    return select(0, Math.min(Math.max(k, 0), sentences.size()), true);
+  }
+
+  public List<RankedSentence> longest(int k) {
+    return select(0, Math.min(Math.max(k, 0), sentences.size()), false);
+  }
+
+  // Ranks [from, to) in ascending order, e.g. one page of the full ranking
+  public List<RankedSentence> range(int from, int to) {
+    Objects.checkFromToIndex(from, to, sentences.size());
+    return select(from, to, true);
+  }
+
+  private List<RankedSentence> select(int from, int to, boolean ascending) {
+    if (from == to) {
+      return List.of();
+    }
+
+    // First rank of every lexeme count
+    int[] nextRank = new int[maxLexemeCount + 1];
+    int rank = 0;
+    for (int i = 0; i <= maxLexemeCount; i++) {
+      int count = ascending ? i : maxLexemeCount - i;
+      nextRank[count] = rank;
+      rank += histogram[count];
+    }
+
+    RankedSentence[] selected = new RankedSentence[to - from];
+    for (int position = 0; position < sentences.size(); position++) {
+      int sentenceRank = nextRank[lexemeCounts[position]]++;
+      if (sentenceRank >= from && sentenceRank < to) {
+        selected[sentenceRank - from] = new RankedSentence(sentences.get(position), lexemeCounts[position], position);
+      }
+    }
+    return List.of(selected);
+  }
+}
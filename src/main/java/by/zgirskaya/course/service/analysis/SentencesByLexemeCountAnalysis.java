@@ -0,0 +1,40 @@
+package by.zgirskaya.course.service.analysis;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComposite;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Sentences with at least one lexeme and non-blank text, ascending by lexeme count
+public class SentencesByLexemeCountAnalysis implements TextAnalysis<List<SentenceInfo>> {
+  private final SentenceRanking ranking = new SentenceRanking();
+
+  @Override
+  public void enterComposite(TextComposite composite) {
+    ranking.enterComposite(composite);
+  }
+
+  @Override
+  public void exitComposite(TextComposite composite) {
+    ranking.exitComposite(composite);
+  }
+
+  @Override
+  public void visitLeaf(AbstractTextComponent leaf) {
+    ranking.visitLeaf(leaf);
+  }
+
+  public SentenceRanking getRanking() {
+    return ranking;
+  }
+
+  @Override
+  public List<SentenceInfo> getResult() {
+    List<SentenceInfo> result = new ArrayList<>(ranking.getSentenceCount());
+    for (RankedSentence sentence : ranking.range(0, ranking.getSentenceCount())) {
+      result.add(sentence.toSentenceInfo());
+    }
+    return result;
+  }
+}
@@ -0,0 +1,8 @@
+package by.zgirskaya.course.service.analysis;
+
+import by.zgirskaya.course.component.TextVisitor;
+
+// Collects its result while the engine walks the tree, results are read after the walk
+public interface TextAnalysis<R> extends TextVisitor {
+  R getResult();
+}
@@ -0,0 +1,85 @@
+package by.zgirskaya.course.service.analysis;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextNode;
+import by.zgirskaya.course.component.TextVisitor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+// Runs every registered analysis during one traversal of the tree
+public class TextAnalysisEngine {
+  private static final Logger logger = LogManager.getLogger();
+
+  private final List<TextAnalysis<?>> analyses = new ArrayList<>();
+
+  public TextAnalysisEngine register(TextAnalysis<?> analysis) {
+    analyses.add(analysis);
+    return this;
+  }
+
+  public void run(AbstractTextComponent textComponent) {
+    logger.info("Running {} analyses in a single traversal. Component type: {}",
+            analyses.size(), textComponent.getComponentType());
+
+    TextVisitor visitor = analyses.size() == 1 ? analyses.getFirst() : new MulticastVisitor(analyses);
+    textComponent.accept(new InterruptibleVisitor(visitor));
+
+    logger.info("Analyses completed: {}", analyses.size());
+  }
+
+  // Walks read-only views of the nodes, the immutable tree is not copied
+  public void run(TextNode node) {
+    run(node.asComponent());
+  }
+
+  // Stops the traversal once the running thread is interrupted, e.g. by a cancelled request
+  private record InterruptibleVisitor(TextVisitor visitor) implements TextVisitor {
+
+    @Override
+    public void enterComposite(TextComposite composite) {
+      if (Thread.currentThread().isInterrupted()) {
+        throw new CancellationException("Text analysis interrupted");
+      }
+      visitor.enterComposite(composite);
+    }
+
+    @Override
+    public void exitComposite(TextComposite composite) {
+      visitor.exitComposite(composite);
+    }
+
+    @Override
+    public void visitLeaf(AbstractTextComponent leaf) {
+      visitor.visitLeaf(leaf);
+    }
+  }
+
+  private record MulticastVisitor(List<TextAnalysis<?>> analyses) implements TextVisitor {
+
+    @Override
+    public void enterComposite(TextComposite composite) {
+      for (TextAnalysis<?> analysis : analyses) {
+        analysis.enterComposite(composite);
+      }
+    }
+
+    @Override
+    public void exitComposite(TextComposite composite) {
+      for (TextAnalysis<?> analysis : analyses) {
+        analysis.exitComposite(composite);
+      }
+    }
+
+    @Override
+    public void visitLeaf(AbstractTextComponent leaf) {
+      for (TextAnalysis<?> analysis : analyses) {
+        analysis.visitLeaf(leaf);
+      }
+    }
+  }
+}
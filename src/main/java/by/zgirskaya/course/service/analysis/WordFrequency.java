@@ -0,0 +1,4 @@
+package by.zgirskaya.course.service.analysis;
+
+public record WordFrequency(String word, int sentenceCount) {
+}
@@ -0,0 +1,5 @@
+package by.zgirskaya.course.service.analysis;
+
+// Sentences sharing the word, indexes in text order
+public record WordGroup(String word, int[] sentenceIndexes) {
+}
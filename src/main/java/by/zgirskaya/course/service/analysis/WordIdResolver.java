@@ -0,0 +1,70 @@
+package by.zgirskaya.course.service.analysis;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextLeaf;
+import by.zgirskaya.course.component.TextSlice;
+import by.zgirskaya.course.component.WordDictionary;
+
+import java.util.Arrays;
+
+// Dense word ids local to one analysis, so its arrays grow with the words of the document and not with
+// the vocabulary of a corpus dictionary. Only the private dictionary is ever written: ids of the first
+// dictionary met on the leaves are mapped once per distinct word, other leaves are folded and looked up in place.
+// The map from corpus ids is a plain int[] up to the largest corpus id met, read once per occurrence
+class WordIdResolver {
+  private final WordDictionary localDictionary = new WordDictionary();
+  private int[] localIds = new int[0];
+  private WordDictionary sourceDictionary;
+
+  int resolve(AbstractTextComponent leaf) {
+    WordDictionary leafDictionary = null;
+    int leafWordId = WordDictionary.NO_WORD;
+    if (leaf instanceof TextLeaf textLeaf) {
+      leafDictionary = textLeaf.getDictionary();
+      leafWordId = textLeaf.getWordId();
+    } else if (leaf instanceof TextSlice slice) {
+      leafDictionary = slice.getDictionary();
+      leafWordId = slice.getWordId();
+    }
+
+    if (sourceDictionary == null) {
+      sourceDictionary = leafDictionary;
+    }
+    if (leafDictionary != null && leafDictionary == sourceDictionary) {
+      return mapSourceId(leafWordId);
+    }
+
+    // Slices are folded without building their String
+    return leaf instanceof TextSlice slice
+            ? localDictionary.idOf(slice.getSource(), slice.getStart(), slice.getEnd())
+            : localDictionary.idOf(leaf.toString());
+  }
+
+  // Never adds the word, NO_WORD when no leaf had it
+  int find(String word) {
+    return localDictionary.find(word);
+  }
+
+  String word(int wordId) {
+    return localDictionary.word(wordId);
+  }
+
+  private int mapSourceId(int sourceId) {
+    if (sourceId == WordDictionary.NO_WORD) {
+      return WordDictionary.NO_WORD;
+    }
+
+    if (sourceId >= localIds.length) {
+      int mapped = localIds.length;
+      localIds = Arrays.copyOf(localIds, Math.max(sourceId + 1, mapped * 2));
+      Arrays.fill(localIds, mapped, localIds.length, WordDictionary.NO_WORD);
+    }
+
+    int localId = localIds[sourceId];
+    if (localId == WordDictionary.NO_WORD) {
+      localId = localDictionary.idOf(sourceDictionary.word(sourceId));
+      localIds[sourceId] = localId;
+    }
+    return localId;
+  }
+}
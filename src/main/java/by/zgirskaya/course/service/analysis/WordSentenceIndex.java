@@ -0,0 +1,163 @@
+package by.zgirskaya.course.service.analysis;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.WordDictionary;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Inverted index word -> sentences containing it, built in one pass over the tree, words are kept as dictionary ids
+public class WordSentenceIndex extends AbstractSentenceAnalysis<WordSentenceIndex> {
+  private static final int INITIAL_POSTINGS_CAPACITY = 4;
+  private static final int[] NO_SENTENCES = new int[0];
+
+  private static final Comparator<WordFrequency> BY_FREQUENCY = Comparator
+          .comparingInt(WordFrequency::sentenceCount)
+          .thenComparing(WordFrequency::word, Comparator.reverseOrder());
+
+  private static final int INITIAL_WORD_CAPACITY = 64;
+
+  private final WordIdResolver wordIds = new WordIdResolver();
+  private Postings[] postings = new Postings[INITIAL_WORD_CAPACITY];
+  private int distinctWordCount;
+  private final List<TextComposite> sentences = new ArrayList<>();
+
+  private int currentSentence = -1;
+  private int maxSentenceCount;
+
+  public static WordSentenceIndex of(AbstractTextComponent textComponent) {
+    WordSentenceIndex index = new WordSentenceIndex();
+    textComponent.accept(index);
+    return index;
+  }
+
+  @Override
+  protected void startSentence(TextComposite sentence) {
+    currentSentence = sentences.size();
+    sentences.add(sentence);
+  }
+
+  @Override
+  protected void visitSentenceLeaf(AbstractTextComponent leaf) {
+    if (leaf.getComponentType() != TextComponentType.WORD) {
+      return;
+    }
+
+    int wordId = wordIds.resolve(leaf);
+    if (wordId == WordDictionary.NO_WORD) {
+      return;
+    }
+
+    if (wordId >= postings.length) {
+      postings = Arrays.copyOf(postings, Math.max(wordId + 1, postings.length * 2));
+    }
+    Postings wordPostings = postings[wordId];
+    if (wordPostings == null) {
+      wordPostings = new Postings();
+      postings[wordId] = wordPostings;
+      distinctWordCount++;
+    }
+
+    // A word repeated inside one sentence is counted once
+    if (wordPostings.lastSentence != currentSentence) {
+      wordPostings.add(currentSentence);
+      maxSentenceCount = Math.max(maxSentenceCount, wordPostings.count);
+    }
+  }
+
+  @Override
+  protected void endSentence(TextComposite sentence) {
+    currentSentence = -1;
+  }
+
+  @Override
+  public WordSentenceIndex getResult() {
+    return this;
+  }
+
+  public int getMaxSentenceCount() {
+    return maxSentenceCount;
+  }
+
+  public int getDistinctWordCount() {
+    return distinctWordCount;
+  }
+
+  public int getSentenceCount() {
+    return sentences.size();
+  }
+
+  public TextComposite getSentence(int sentenceIndex) {
+    return sentences.get(sentenceIndex);
+  }
+
+  public int getSentenceCount(String word) {
+    Postings wordPostings = find(word);
+    return wordPostings == null ? 0 : wordPostings.count;
+  }
+
+  // Indexes of the sentences containing the word, in text order
+  public int[] getSentenceIndexes(String word) {
+    Postings wordPostings = find(word);
+    return wordPostings == null ? NO_SENTENCES : Arrays.copyOf(wordPostings.sentences, wordPostings.count);
+  }
+
+  public List<TextComposite> getSentencesContaining(String word) {
+    int[] indexes = getSentenceIndexes(word);
+    List<TextComposite> result = new ArrayList<>(indexes.length);
+    for (int index : indexes) {
+      result.add(sentences.get(index));
+    }
+    return result;
+  }
+
+  // Most widespread words first, ties ordered alphabetically
+  public List<WordFrequency> topK(int k) {
+    if (k <= 0) {
+      return List.of();
+    }
+
+    PriorityQueue<WordFrequency> heap = new PriorityQueue<>(Math.min(k, distinctWordCount) + 1, BY_FREQUENCY);
+    for (int wordId = 0; wordId < postings.length; wordId++) {
+      if (postings[wordId] == null) {
+        continue;
+      }
+
+      WordFrequency candidate = new WordFrequency(wordIds.word(wordId), postings[wordId].count);
+      if (heap.size() < k) {
+        heap.add(candidate);
+      } else if (BY_FREQUENCY.compare(candidate, heap.peek()) > 0) {
+        heap.poll();
+        heap.add(candidate);
+      }
+    }
+
+    List<WordFrequency> result = new ArrayList<>(heap);
+    result.sort(BY_FREQUENCY.reversed());
+    return result;
+  }
+
+  private Postings find(String word) {
+    int wordId = wordIds.find(word);
+    return wordId == WordDictionary.NO_WORD || wordId >= postings.length ? null : postings[wordId];
+  }
+
+  private static class Postings {
+    private int[] sentences = new int[INITIAL_POSTINGS_CAPACITY];
+    private int count;
+    private int lastSentence = -1;
+
+    private void add(int sentenceIndex) {
+      if (count == sentences.length) {
+        sentences = Arrays.copyOf(sentences, count * 2);
+      }
+      sentences[count++] = sentenceIndex;
+      lastSentence = sentenceIndex;
+    }
+  }
+}
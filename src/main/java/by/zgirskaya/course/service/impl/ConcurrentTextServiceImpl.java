@@ -0,0 +1,176 @@
+package by.zgirskaya.course.service.impl;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.parser.TokenizerParser;
+import by.zgirskaya.course.reader.CustomTextReader;
+import by.zgirskaya.course.reader.impl.CustomTextReaderImpl;
+import by.zgirskaya.course.service.ConcurrentTextService;
+import by.zgirskaya.course.service.TextOperation;
+import by.zgirskaya.course.service.TextService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// One virtual thread per request, the semaphore caps how many requests analyze at the same time.
+// The timeout covers the wait for a permit as well as the analysis itself
+public class ConcurrentTextServiceImpl implements ConcurrentTextService {
+  private static final Logger logger = LogManager.getLogger();
+
+  private static final int DEFAULT_MAX_IN_FLIGHT = 256;
+  private static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+
+  private final TextService textService;
+  private final CustomTextReader reader;
+  private final Duration defaultTimeout;
+  private final Semaphore inFlight;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  private final TokenizerParser wordParser;
+  private final TokenizerParser symbolParser;
+
+  public ConcurrentTextServiceImpl() throws CustomTextException {
+    this(new TextServiceImpl(), new CustomTextReaderImpl(), DEFAULT_MAX_IN_FLIGHT, DEFAULT_TIMEOUT);
+  }
+
+  public ConcurrentTextServiceImpl(TextService textService, CustomTextReader reader, int maxInFlight,
+                                   Duration defaultTimeout) throws CustomTextException {
+    if (maxInFlight < 1) {
+      throw new CustomTextException("Max in-flight requests must be positive");
+    }
+    if (defaultTimeout.isNegative() || defaultTimeout.isZero()) {
+      throw new CustomTextException("Timeout must be positive");
+    }
+
+    this.textService = textService;
+    this.reader = reader;
+    this.defaultTimeout = defaultTimeout;
+    this.inFlight = new Semaphore(maxInFlight);
+    this.wordParser = new TokenizerParser(TextComponentType.WORD);
+    this.symbolParser = new TokenizerParser(TextComponentType.SYMBOL);
+
+    logger.debug("Created concurrent text service. Max in flight: {}, Default timeout: {}",
+            maxInFlight, defaultTimeout);
+  }
+
+  @Override
+  public <R> CompletableFuture<R> submit(AbstractTextComponent textComponent, TextOperation<R> operation) {
+    return submit(textComponent, operation, defaultTimeout);
+  }
+
+  @Override
+  public <R> CompletableFuture<R> submit(AbstractTextComponent textComponent, TextOperation<R> operation,
+                                         Duration timeout) {
+    return schedule(() -> operation.apply(textService, textComponent), timeout);
+  }
+
+  @Override
+  public <R> CompletableFuture<R> submitFile(String filePath, TextComponentType leafType,
+                                             TextOperation<R> operation) {
+    if (leafType != TextComponentType.WORD && leafType != TextComponentType.SYMBOL) {
+      return CompletableFuture.failedFuture(new CustomTextException("Leaf type must be WORD or SYMBOL"));
+    }
+    TokenizerParser parser = leafType == TextComponentType.WORD ? wordParser : symbolParser;
+
+    return schedule(() -> {
+      String text = reader.readTextFromFile(filePath);
+      TextComposite textComposite = new TextComposite(TextComponentType.PARAGRAPH);
+      parser.parse(text, textComposite);
+
+      return operation.apply(textService, textComposite);
+    }, defaultTimeout);
+  }
+
+  @Override
+  public <R> CompletableFuture<List<R>> submitAll(List<? extends AbstractTextComponent> textComponents,
+                                                  TextOperation<R> operation) {
+    List<CompletableFuture<R>> results = new ArrayList<>(textComponents.size());
+    for (AbstractTextComponent textComponent : textComponents) {
+      results.add(submit(textComponent, operation));
+    }
+
+    CompletableFuture<List<R>> all = new CompletableFuture<>();
+    for (CompletableFuture<R> result : results) {
+      result.whenComplete((value, error) -> {
+        if (error != null) {
+          all.completeExceptionally(error);
+        }
+      });
+    }
+    CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[0]))
+            .thenRun(() -> all.complete(results.stream().map(CompletableFuture::join).toList()));
+
+    // A failed request or a cancelled batch takes the remaining requests down with it
+    all.whenComplete((value, error) -> {
+      if (error != null) {
+        results.forEach(result -> result.cancel(true));
+      }
+    });
+    return all;
+  }
+
+  private <R> CompletableFuture<R> schedule(Request<R> request, Duration timeout) {
+    CompletableFuture<R> result = new CompletableFuture<>();
+
+    Future<?> task;
+    try {
+      task = executor.submit(() -> run(request, result));
+    } catch (RejectedExecutionException e) {
+      result.completeExceptionally(new CustomTextException("Concurrent text service is closed", e));
+      return result;
+    }
+
+    // Timeouts and cancellations by the caller stop the virtual thread as well
+    result.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS)
+            .whenComplete((value, error) -> {
+              if (error != null) {
+                task.cancel(true);
+              }
+            });
+    return result;
+  }
+
+  private <R> void run(Request<R> request, CompletableFuture<R> result) {
+    try {
+      inFlight.acquire();
+    } catch (InterruptedException e) {
+      result.completeExceptionally(new CancellationException("Request cancelled while waiting"));
+      return;
+    }
+
+    try {
+      if (!result.isDone()) {
+        result.complete(request.call());
+      }
+    } catch (CustomTextException | RuntimeException e) {
+      result.completeExceptionally(e);
+    } finally {
+      inFlight.release();
+    }
+  }
+
+  // Interrupts every running request, pending futures complete with CancellationException
+  @Override
+  public void close() {
+    logger.debug("Closing concurrent text service");
+    executor.shutdownNow();
+  }
+
+  @FunctionalInterface
+  private interface Request<R> {
+    R call() throws CustomTextException;
+  }
+}
@@ -2,208 +2,161 @@ package by.zgirskaya.course.service.impl;
 
 import by.zgirskaya.course.component.AbstractTextComponent;
 import by.zgirskaya.course.component.TextComponentType;
-import by.zgirskaya.course.component.TextComposite;
 import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.metrics.MetricsRegistry;
+import by.zgirskaya.course.metrics.Stage;
 import by.zgirskaya.course.service.TextService;
+import by.zgirskaya.course.service.analysis.FirstLastLexemeSwapAnalysis;
+import by.zgirskaya.course.service.analysis.MaxSentencesWithSameWordsAnalysis;
+import by.zgirskaya.course.service.analysis.SentenceInfo;
+import by.zgirskaya.course.service.analysis.SentenceOverlapIndex;
+import by.zgirskaya.course.service.analysis.SentenceRanking;
+import by.zgirskaya.course.service.analysis.SentencesByLexemeCountAnalysis;
+import by.zgirskaya.course.service.analysis.TextAnalysisEngine;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.util.List;
 
 public class TextServiceImpl implements TextService {
   private static final Logger logger = LogManager.getLogger();
 
-  @Override
-  public int findMaxSentenceCountWithSameWords(AbstractTextComponent textComponent) throws CustomTextException {
-    logger.info("Finding max sentence count with same words. Component type: {}",
-            textComponent.getComponentType());
-
-    if (textComponent.getComponentType() != TextComponentType.PARAGRAPH &&
-            textComponent.getComponentType() != TextComponentType.SENTENCE) {
-      throw new CustomTextException("Component must be paragraph or sentence type");
-    }
+  private static final String FIND_MAX_STAGE = "service.findMaxSentenceCountWithSameWords";
+  private static final String DISPLAY_STAGE = "service.displaySentencesByLexemeCountAscending";
+  private static final String RANK_STAGE = "service.rankSentencesByLexemeCount";
+  private static final String OVERLAP_STAGE = "service.indexSentenceOverlaps";
+  private static final String SWAP_STAGE = "service.changeFirstAndLastLexemesInSentences";
 
-    List<Set<String>> sentencesWords = collectAllSentencesWords(textComponent);
-    sentencesWords.removeIf(Set::isEmpty);
-    int result = findMaxSentencesWithSameWords(sentencesWords);
+  private final MetricsRegistry registry;
 
-    logger.info("Max sentence count with same words: {}", result);
+  public TextServiceImpl() {
+    this(MetricsRegistry.getDefault());
+  }
 
-    return result;
+  // Latency and allocated bytes of every operation go to the service.<operation> stage
+  public TextServiceImpl(MetricsRegistry registry) {
+    this.registry = registry;
   }
 
   @Override
-  public void displaySentencesByLexemeCountAscending(AbstractTextComponent textComponent) throws CustomTextException {
-    logger.info("Displaying sentences by lexeme count ascending. Component type: {}",
-            textComponent.getComponentType());
+  public int findMaxSentenceCountWithSameWords(AbstractTextComponent textComponent) throws CustomTextException {
+    Stage.Sample sample = registry.stage(FIND_MAX_STAGE).start();
+    try {
+      logger.info("Finding max sentence count with same words. Component type: {}",
+              textComponent.getComponentType());
+
+      if (textComponent.getComponentType() != TextComponentType.PARAGRAPH &&
+              textComponent.getComponentType() != TextComponentType.SENTENCE) {
+        throw new CustomTextException("Component must be paragraph or sentence type");
+      }
 
-    if (textComponent.getComponentType() != TextComponentType.PARAGRAPH &&
-            textComponent.getComponentType() != TextComponentType.SENTENCE) {
-      throw new CustomTextException("Component must be paragraph or sentence type");
-    }
+      MaxSentencesWithSameWordsAnalysis analysis = new MaxSentencesWithSameWordsAnalysis();
+      new TextAnalysisEngine().register(analysis).run(textComponent);
+      int result = analysis.getResult();
 
-    List<SentenceInfo> sentencesInfo = collectSentencesInfo(textComponent);
-    sentencesInfo.removeIf(info -> info.lexemeCount() == 0 || info.sentenceText().trim().isEmpty());
-    sentencesInfo.sort(Comparator.comparingInt(SentenceInfo::lexemeCount));
+      logger.info("Max sentence count with same words: {}", result);
 
-    logger.info("Sentences in the ascending order by lexemes count:");
-    for (SentenceInfo info : sentencesInfo) {
-      logger.info("Lexemes count: {} -> {}", info.lexemeCount(), info.sentenceText());
+      return result;
+    } finally {
+      sample.close();
     }
-
-    logger.info("Displayed {} sentences sorted by lexeme count", sentencesInfo.size());
   }
 
   @Override
-  public AbstractTextComponent changeFirstAndLastLexemesInSentences(AbstractTextComponent textComponent) throws CustomTextException {
-    logger.info("Changing first and last lexemes in sentences. Component type: {}",
-            textComponent.getComponentType());
-
-    if (textComponent.getComponentType() != TextComponentType.PARAGRAPH &&
-            textComponent.getComponentType() != TextComponentType.SENTENCE) {
-      throw new CustomTextException("Component must be paragraph or sentence type");
-    }
-
-    TextComposite copy = (TextComposite) textComponent.makeCopy();
-    logger.debug("Created copy of component");
-
-    changeLexemesInCopy(copy);
-    logger.info("Successfully changed lexemes in copy");
-
-    return copy;
-  }
-
-  private void changeLexemesInCopy(TextComposite copy) {
-    if (copy.getComponentType() == TextComponentType.SENTENCE) {
-      changeFirstAndLastLexemesInSentence(copy);
-    } else {
-      for (AbstractTextComponent child : copy.getChildComponents()) {
-        if (child instanceof TextComposite composite) {
-          changeLexemesInCopy(composite);
-        }
+  public List<SentenceInfo> displaySentencesByLexemeCountAscending(AbstractTextComponent textComponent)
+          throws CustomTextException {
+    Stage.Sample sample = registry.stage(DISPLAY_STAGE).start();
+    try {
+      logger.info("Displaying sentences by lexeme count ascending. Component type: {}",
+              textComponent.getComponentType());
+
+      if (textComponent.getComponentType() != TextComponentType.PARAGRAPH &&
+              textComponent.getComponentType() != TextComponentType.SENTENCE) {
+        throw new CustomTextException("Component must be paragraph or sentence type");
       }
-    }
-  }
 
-  private void changeFirstAndLastLexemesInSentence(TextComposite sentence) {
-    List<AbstractTextComponent> children = sentence.getChildComponents();
-    List<TextComposite> lexemes = new ArrayList<>();
+      SentencesByLexemeCountAnalysis analysis = new SentencesByLexemeCountAnalysis();
+      new TextAnalysisEngine().register(analysis).run(textComponent);
+      List<SentenceInfo> sentencesInfo = analysis.getResult();
 
-    for (AbstractTextComponent child : children) {
-      if (child instanceof TextComposite &&
-              child.getComponentType() == TextComponentType.LEXEME) {
-        lexemes.add((TextComposite) child);
+      logger.info("Sentences in the ascending order by lexemes count:");
+      for (SentenceInfo info : sentencesInfo) {
+        logger.info("Lexemes count: {} -> {}", info.lexemeCount(), info.sentenceText());
       }
-    }
-
-    if (lexemes.size() >= 2) {
-      TextComposite firstLexeme = lexemes.getFirst();
-      TextComposite lastLexeme = lexemes.getLast();
 
-      int firstIndex = children.indexOf(firstLexeme);
-      int lastIndex = children.indexOf(lastLexeme);
+      logger.info("Displayed {} sentences sorted by lexeme count", sentencesInfo.size());
 
-      if (firstIndex != -1 && lastIndex != -1 && firstIndex != lastIndex) {
-        List<AbstractTextComponent> newChildren = new ArrayList<>(children);
-        Collections.swap(newChildren, firstIndex, lastIndex);
-        sentence.setChildComponents(newChildren);
-
-        logger.debug("Swapped lexemes at positions {} and {}", firstIndex, lastIndex);
-      }
+      return sentencesInfo;
+    } finally {
+      sample.close();
     }
   }
 
-  private List<Set<String>> collectAllSentencesWords(AbstractTextComponent component) {
-    List<Set<String>> sentencesWords = new ArrayList<>();
-    collectSentencesWords(component, sentencesWords);
-    return sentencesWords;
-  }
-
-  private void collectSentencesWords(AbstractTextComponent component, List<Set<String>> sentencesWords) {
-    if (component instanceof TextComposite composite) {
-      if (composite.getComponentType() == TextComponentType.SENTENCE) {
-        Set<String> words = extractWordsFromSentence(composite);
-        sentencesWords.add(words);
-      } else {
-        for (AbstractTextComponent child : composite.getChildComponents()) {
-          collectSentencesWords(child, sentencesWords);
-        }
+  // Query object for the shortest, longest or a page of sentences, only returned sentences get rendered
+  @Override
+  public SentenceRanking rankSentencesByLexemeCount(AbstractTextComponent textComponent) throws CustomTextException {
+    Stage.Sample sample = registry.stage(RANK_STAGE).start();
+    try {
+      logger.info("Ranking sentences by lexeme count. Component type: {}", textComponent.getComponentType());
+
+      if (textComponent.getComponentType() != TextComponentType.PARAGRAPH &&
+              textComponent.getComponentType() != TextComponentType.SENTENCE) {
+        throw new CustomTextException("Component must be paragraph or sentence type");
       }
-    }
-  }
 
-  private Set<String> extractWordsFromSentence(TextComposite sentence) {
-    Set<String> words = new HashSet<>();
-    extractWords(sentence, words);
-    return words;
-  }
+      SentenceRanking ranking = new SentenceRanking();
+      new TextAnalysisEngine().register(ranking).run(textComponent);
 
-  private void extractWords(AbstractTextComponent component, Set<String> words) {
-    if (component instanceof TextComposite composite) {
-      for (AbstractTextComponent child : composite.getChildComponents()) {
-        extractWords(child, words);
-      }
-    } else if (component.getComponentType() == TextComponentType.WORD) {
-      String word = component.toString().toLowerCase();
-      if (!word.isEmpty()) {
-        words.add(word);
-      }
+      logger.info("Ranked {} sentences by lexeme count", ranking.getSentenceCount());
+
+      return ranking;
+    } finally {
+      sample.close();
     }
   }
 
-  private int findMaxSentencesWithSameWords(List<Set<String>> sentencesWords) {
-    if (sentencesWords.isEmpty()) return 0;
-
-    Set<String> allWords = sentencesWords.stream()
-            .flatMap(Set::stream)
-            .collect(Collectors.toSet());
-
-    int maxCount = 0;
-
-    for (String word : allWords) {
-      int currentSentenceCount = 0;
-      for (Set<String> sentenceWords : sentencesWords) {
-        if (sentenceWords.contains(word)) {
-          currentSentenceCount++;
-        }
+  // Sentence x word bitmap for pairwise overlap queries, all-pairs queries run on a fork-join pool
+  @Override
+  public SentenceOverlapIndex indexSentenceOverlaps(AbstractTextComponent textComponent) throws CustomTextException {
+    Stage.Sample sample = registry.stage(OVERLAP_STAGE).start();
+    try {
+      logger.info("Indexing sentence overlaps. Component type: {}", textComponent.getComponentType());
+
+      if (textComponent.getComponentType() != TextComponentType.PARAGRAPH &&
+              textComponent.getComponentType() != TextComponentType.SENTENCE) {
+        throw new CustomTextException("Component must be paragraph or sentence type");
       }
-      maxCount = Math.max(maxCount, currentSentenceCount);
-    }
 
-    return maxCount;
-  }
+      SentenceOverlapIndex index = new SentenceOverlapIndex();
+      new TextAnalysisEngine().register(index).run(textComponent);
 
-  private List<SentenceInfo> collectSentencesInfo(AbstractTextComponent component) {
-    List<SentenceInfo> sentencesInfo = new ArrayList<>();
-    collectSentencesInfo(component, sentencesInfo);
-    return sentencesInfo;
-  }
+      logger.info("Indexed {} sentences for overlap queries", index.getSentenceCount());
 
-  private void collectSentencesInfo(AbstractTextComponent component, List<SentenceInfo> sentencesInfo) {
-    if (component instanceof TextComposite composite) {
-      if (composite.getComponentType() == TextComponentType.SENTENCE) {
-        int lexemeCount = countLexemesInSentence(composite);
-        String sentenceText = composite.toString().trim();
-        sentencesInfo.add(new SentenceInfo(sentenceText, lexemeCount));
-      } else {
-        for (AbstractTextComponent child : composite.getChildComponents()) {
-          collectSentencesInfo(child, sentencesInfo);
-        }
-      }
+      return index;
+    } finally {
+      sample.close();
     }
   }
 
-  private int countLexemesInSentence(TextComposite sentence) {
-    int count = 0;
-    for (AbstractTextComponent child : sentence.getChildComponents()) {
-      if (child instanceof TextComposite &&
-              child.getComponentType() == TextComponentType.LEXEME) {
-        count++;
+  @Override
+  public AbstractTextComponent changeFirstAndLastLexemesInSentences(AbstractTextComponent textComponent) throws CustomTextException {
+    Stage.Sample sample = registry.stage(SWAP_STAGE).start();
+    try {
+      logger.info("Changing first and last lexemes in sentences. Component type: {}",
+              textComponent.getComponentType());
+
+      if (textComponent.getComponentType() != TextComponentType.PARAGRAPH &&
+              textComponent.getComponentType() != TextComponentType.SENTENCE) {
+        throw new CustomTextException("Component must be paragraph or sentence type");
       }
+
+      FirstLastLexemeSwapAnalysis analysis = new FirstLastLexemeSwapAnalysis();
+      new TextAnalysisEngine().register(analysis).run(textComponent);
+      logger.info("Successfully changed lexemes in copy");
+
+      return analysis.getResult();
+    } finally {
+      sample.close();
     }
-    return count;
   }
-
-  private record SentenceInfo(String sentenceText, int lexemeCount) {}
-}
\ No newline at end of file
+}
@@ -0,0 +1,131 @@
+package by.zgirskaya.course.batch;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.parser.TokenizerParser;
+import by.zgirskaya.course.service.impl.TextServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchProcessorTest {
+
+  @TempDir
+  Path tempDir;
+
+  private static String documentText(int index) {
+    StringBuilder sb = new StringBuilder();
+    for (int paragraph = 0; paragraph <= index % 3; paragraph++) {
+      sb.append("    Paragraph ").append(paragraph).append(" of file ").append(index).append(". ");
+      sb.append("Some words repeat, some words do not! ");
+      sb.append("Does file ").append(index).append(" repeat words?");
+    }
+    return sb.toString();
+  }
+
+  private static Map<String, String[]> readRows(Path reportFile) throws IOException {
+    List<String> lines = Files.readAllLines(reportFile);
+    assertEquals("file", lines.getFirst().split("\t")[0]);
+
+    Map<String, String[]> rows = new HashMap<>();
+    for (String line : lines.subList(1, lines.size())) {
+      String[] columns = line.split("\t", -1);
+      rows.put(Path.of(columns[0]).getFileName().toString(), columns);
+    }
+    return rows;
+  }
+
+  private static int countSentences(TextComposite tree) {
+    int count = 0;
+    for (AbstractTextComponent paragraph : tree.getChildComponentsView()) {
+      count += ((TextComposite) paragraph).getChildComponentCount();
+    }
+    return count;
+  }
+
+  @Test
+  void testPipelineMatchesSequentialService() throws IOException, CustomTextException {
+    int fileCount = 40;
+    List<Path> files = new ArrayList<>();
+    for (int i = 0; i < fileCount; i++) {
+      files.add(Files.writeString(tempDir.resolve("doc" + i + ".txt"), documentText(i)));
+    }
+    Path reportFile = tempDir.resolve("report.tsv");
+
+    // Queues of one document force every stage to wait for the next one
+    BatchReport report = new BatchProcessor(2, 3, 2, 1).process(files, reportFile);
+
+    assertEquals(fileCount, report.fileCount());
+    assertEquals(0, report.failedCount());
+
+    Map<String, String[]> rows = readRows(reportFile);
+    assertEquals(fileCount, rows.size());
+
+    TokenizerParser parser = new TokenizerParser(TextComponentType.WORD);
+    TextServiceImpl textService = new TextServiceImpl();
+    long characters = 0;
+    for (int i = 0; i < fileCount; i++) {
+      String text = documentText(i);
+      TextComposite tree = new TextComposite(TextComponentType.PARAGRAPH);
+      parser.parse(text, tree);
+
+      String[] row = rows.get("doc" + i + ".txt");
+      assertEquals(String.valueOf(text.length()), row[1]);
+      assertEquals(String.valueOf(tree.getChildComponentCount()), row[2]);
+      assertEquals(String.valueOf(countSentences(tree)), row[3]);
+      assertEquals(String.valueOf(textService.findMaxSentenceCountWithSameWords(tree)), row[6]);
+      assertEquals("", row[8]);
+      characters += text.length();
+    }
+    assertEquals(characters, report.characters());
+  }
+
+  @Test
+  void testFailedFileIsReportedAndOthersContinue() throws IOException, CustomTextException {
+    Path first = Files.writeString(tempDir.resolve("first.txt"), documentText(1));
+    Path missing = tempDir.resolve("missing.txt");
+    Path last = Files.writeString(tempDir.resolve("last.txt"), documentText(2));
+    Path reportFile = tempDir.resolve("report.tsv");
+
+    BatchReport report = new BatchProcessor(1, 1, 1, 1).process(List.of(first, missing, last), reportFile);
+
+    assertEquals(3, report.fileCount());
+    assertEquals(1, report.failedCount());
+
+    Map<String, String[]> rows = readRows(reportFile);
+    assertTrue(rows.get("missing.txt")[8].contains("missing.txt"));
+    assertEquals("", rows.get("first.txt")[8]);
+    assertEquals("", rows.get("last.txt")[8]);
+  }
+
+  @Test
+  void testDirectoryInputSkipsReportFile() throws IOException, CustomTextException {
+    Path nested = Files.createDirectory(tempDir.resolve("nested"));
+    Files.writeString(tempDir.resolve("a.txt"), documentText(0));
+    Files.writeString(nested.resolve("b.txt"), documentText(1));
+    Path reportFile = tempDir.resolve("report.tsv");
+    Files.writeString(reportFile, "old report");
+
+    BatchReport report = new BatchProcessor().process(tempDir, reportFile);
+
+    assertEquals(2, report.fileCount());
+    assertEquals(Map.of("a.txt", 1, "b.txt", 1).keySet(), readRows(reportFile).keySet());
+  }
+
+  @Test
+  void testInvalidConfigurationIsRejected() {
+    assertThrows(CustomTextException.class, () -> new BatchProcessor(1, 0, 1, 1));
+    assertThrows(CustomTextException.class, () -> new BatchProcessor().process(tempDir.resolve("none"), tempDir.resolve("r")));
+  }
+}
@@ -1,9 +1,19 @@
 package by.zgirskaya.course.component;
 
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.service.impl.TextServiceImpl;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Random;
 
 class TextComponentTest {
 
@@ -156,4 +166,473 @@ class TextComponentTest {
     assertEquals(2, composite.getChildComponents().size());
     assertEquals("word !", composite.toString());
   }
-}
\ No newline at end of file
+
+  @Test
+  void testSymbolLeavesAreShared() {
+    TextLeaf first = TextLeaf.symbol('a');
+    TextLeaf second = TextLeaf.symbol('a');
+
+    assertSame(first, second);
+    assertSame(first, first.makeCopy());
+    assertTrue(first.isShared());
+    assertEquals("a", first.toString());
+    assertEquals(TextComponentType.SYMBOL, first.getComponentType());
+  }
+
+  @Test
+  void testSharedSymbolLeafTypeCannotChange() {
+    TextLeaf symbol = TextLeaf.symbol('!');
+
+    assertThrows(UnsupportedOperationException.class, () -> symbol.setComponentType(TextComponentType.WORD));
+  }
+
+  @Test
+  void testRegularLeafTypeChangesAndCopyIsNew() {
+    TextLeaf leaf = new TextLeaf("a", TextComponentType.SYMBOL);
+    TextLeaf copy = leaf.makeCopy();
+
+    assertFalse(leaf.isShared());
+    assertNotSame(leaf, copy);
+    assertEquals("a", copy.toString());
+
+    leaf.setComponentType(TextComponentType.WORD);
+    assertEquals(TextComponentType.WORD, leaf.getComponentType());
+    assertEquals(TextComponentType.SYMBOL, copy.getComponentType());
+  }
+
+  @Test
+  void testSetChildComponentKeepsCopyApart() {
+    TextComposite original = createDocument();
+    TextComposite copy = original.makeCopy();
+    TextComposite originalLexeme = lexemeAt(original, 0);
+    String copyText = copy.toString();
+
+    originalLexeme.setChildComponent(0, new TextLeaf("Hi", TextComponentType.WORD));
+
+    assertEquals("Hi", originalLexeme.getChildComponent(0).toString());
+    assertTrue(original.toString().startsWith("Hi "));
+    assertEquals(copyText, copy.toString());
+  }
+
+  @Test
+  void testTextCompositeZeroCopyAccess() {
+    TextComposite sentence = new TextComposite(TextComponentType.SENTENCE);
+    TextLeaf word1 = new TextLeaf("Hello", TextComponentType.WORD);
+    TextLeaf word2 = new TextLeaf("World", TextComponentType.WORD);
+    sentence.addChildComponent(word1);
+
+    List<AbstractTextComponent> view = sentence.getChildComponentsView();
+    sentence.addChildComponent(word2);
+
+    assertSame(view, sentence.getChildComponentsView());
+    assertEquals(List.of(word1, word2), view);
+    assertThrows(UnsupportedOperationException.class, () -> view.add(word1));
+
+    assertEquals(2, sentence.getChildComponentCount());
+    assertSame(word2, sentence.getChildComponent(1));
+
+    List<AbstractTextComponent> visited = new ArrayList<>();
+    sentence.forEachChildComponent(visited::add);
+    assertEquals(List.of(word1, word2), visited);
+  }
+
+  @Test
+  void testTextCompositeViewFollowsSetChildComponents() {
+    TextComposite sentence = new TextComposite(TextComponentType.SENTENCE);
+    TextLeaf word = new TextLeaf("word", TextComponentType.WORD);
+
+    sentence.setChildComponents(List.of(word));
+
+    assertEquals(List.of(word), sentence.getChildComponentsView());
+  }
+
+  private static TextComposite lexeme(String word) {
+    TextComposite lexeme = new TextComposite(TextComponentType.LEXEME);
+    lexeme.addChildComponent(new TextLeaf(word, TextComponentType.WORD));
+    return lexeme;
+  }
+
+  @Test
+  void testTextCompositeCachesRendering() {
+    TextComposite paragraph = new TextComposite(TextComponentType.PARAGRAPH);
+    TextComposite sentence = new TextComposite(TextComponentType.SENTENCE);
+    paragraph.addChildComponent(sentence);
+    sentence.addChildComponent(lexeme("Hello"));
+    sentence.addChildComponent(lexeme("World"));
+
+    String rendered = paragraph.toString();
+
+    assertEquals("Hello World ", rendered);
+    assertSame(rendered, paragraph.toString());
+    assertEquals("Hello World ", sentence.toString());
+  }
+
+  @Test
+  void testTextCompositeRenderingInvalidatedUpParentChain() {
+    TextComposite text = new TextComposite(TextComponentType.PARAGRAPH);
+    TextComposite paragraph = new TextComposite(TextComponentType.PARAGRAPH);
+    TextComposite sentence = new TextComposite(TextComponentType.SENTENCE);
+    TextComposite lexeme = lexeme("Hello");
+    text.addChildComponent(paragraph);
+    paragraph.addChildComponent(sentence);
+    sentence.addChildComponent(lexeme);
+    assertEquals("Hello \t", text.toString());
+
+    lexeme.addChildComponent(TextLeaf.symbol('!'));
+    assertEquals("Hello! \t", text.toString());
+
+    sentence.setChildComponents(List.of(lexeme("Bye"), lexeme("all")));
+    assertEquals("Bye all \t", text.toString());
+    assertEquals("Hello!", lexeme.toString());
+
+    lexeme.addChildComponent(TextLeaf.symbol('?'));
+    assertEquals("Bye all \t", text.toString());
+
+    paragraph.setComponentType(TextComponentType.SENTENCE);
+    assertEquals("Bye all ", text.toString());
+  }
+
+  @Test
+  void testTextCompositeRenderingInvalidatesEverySharingParent() {
+    TextComposite shared = lexeme("shared");
+    TextComposite first = new TextComposite(TextComponentType.SENTENCE);
+    TextComposite second = new TextComposite(TextComponentType.SENTENCE);
+    first.addChildComponent(shared);
+    second.addChildComponent(shared);
+    assertEquals("shared ", first.toString());
+    assertEquals("shared ", second.toString());
+
+    shared.addChildComponent(TextLeaf.symbol('.'));
+
+    assertEquals("shared. ", first.toString());
+    assertEquals("shared. ", second.toString());
+  }
+
+  private static TextComposite createDocument() {
+    TextComposite text = new TextComposite(TextComponentType.PARAGRAPH);
+    for (int i = 0; i < 3; i++) {
+      TextComposite paragraph = new TextComposite(TextComponentType.PARAGRAPH);
+      TextComposite sentence = new TextComposite(TextComponentType.SENTENCE);
+      sentence.addChildComponent(lexeme("Привет"));
+      sentence.addChildComponent(lexeme("world" + i));
+      paragraph.addChildComponent(sentence);
+      text.addChildComponent(paragraph);
+    }
+    return text;
+  }
+
+  @Test
+  void testWriteToAppendableMatchesToString() throws CustomTextException {
+    TextComposite text = createDocument();
+    StringWriter writer = new StringWriter();
+
+    text.writeTo(writer);
+
+    assertEquals(text.toString(), writer.toString());
+  }
+
+  @Test
+  void testWriteToChannelEncodesText() throws CustomTextException {
+    TextComposite text = createDocument();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    text.writeTo(Channels.newChannel(out), StandardCharsets.UTF_8);
+
+    assertEquals(text.toString(), out.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void testWriteToWrapsIOException() {
+    Appendable broken = new Appendable() {
+      @Override
+      public Appendable append(CharSequence csq) throws IOException {
+        throw new IOException("broken");
+      }
+
+      @Override
+      public Appendable append(CharSequence csq, int start, int end) throws IOException {
+        throw new IOException("broken");
+      }
+
+      @Override
+      public Appendable append(char c) throws IOException {
+        throw new IOException("broken");
+      }
+    };
+
+    assertThrows(CustomTextException.class, () -> createDocument().writeTo(broken));
+  }
+
+  @Test
+  void testCopySharesLeavesAndStaysIndependent() {
+    TextComposite original = createDocument();
+    String originalText = original.toString();
+
+    TextComposite copy = original.makeCopy();
+    assertEquals(originalText, copy.toString());
+    assertEquals(original.getChildComponentCount(), copy.getChildComponentCount());
+
+    TextComposite originalLexeme = lexemeAt(original, 0);
+    TextComposite copiedLexeme = lexemeAt(copy, 0);
+    assertNotSame(originalLexeme, copiedLexeme);
+    assertSame(originalLexeme.getChildComponent(0), copiedLexeme.getChildComponent(0));
+
+    originalLexeme.addChildComponent(TextLeaf.symbol('!'));
+    assertEquals(originalText, copy.toString());
+    assertNotEquals(originalText, original.toString());
+
+    String changedText = original.toString();
+    copiedLexeme.setChildComponents(List.of(new TextLeaf("Bye", TextComponentType.WORD)));
+    assertEquals(changedText, original.toString());
+    assertTrue(copy.toString().startsWith("Bye "));
+  }
+
+  @Test
+  void testReadOnlyAnalysisLeavesCopyUnmaterialized() throws CustomTextException {
+    TextComposite original = createDocument();
+    TextComposite copy = original.makeCopy();
+    TextServiceImpl service = new TextServiceImpl();
+
+    for (int i = 0; i < 3; i++) {
+      service.findMaxSentenceCountWithSameWords(copy);
+      service.displaySentencesByLexemeCountAscending(copy);
+      service.changeFirstAndLastLexemesInSentences(copy);
+      assertEquals(original.toString(), copy.toString());
+    }
+
+    assertSame(original.getChildComponent(0), copy.getChildComponent(0));
+    assertEquals(1, dependentCount(original));
+  }
+
+  @Test
+  void testCopyOfCopyKeepsSnapshot() {
+    TextComposite original = createDocument();
+    TextComposite copy = original.makeCopy();
+    String snapshot = copy.toString();
+
+    TextComposite copyOfCopy = copy.makeCopy();
+    lexemeAt(copy, 0).addChildComponent(TextLeaf.symbol('?'));
+    lexemeAt(original, 1).addChildComponent(TextLeaf.symbol('.'));
+
+    assertEquals(snapshot, copyOfCopy.toString());
+    assertNotEquals(snapshot, copy.toString());
+    assertNotEquals(snapshot, original.toString());
+  }
+
+  @Test
+  void testCopiesMatchDeepCopiesUnderRandomEdits() {
+    Random random = new Random(42);
+    List<TextComposite> trees = new ArrayList<>(List.of(createDocument()));
+    List<String> expected = new ArrayList<>(List.of(trees.getFirst().toString()));
+
+    for (int step = 0; step < 2000; step++) {
+      int treeIndex = random.nextInt(trees.size());
+      TextComposite tree = trees.get(treeIndex);
+
+      if (random.nextInt(4) == 0) {
+        trees.add(tree.makeCopy());
+        expected.add(expected.get(treeIndex));
+        continue;
+      }
+
+      TextComposite reference = deepCopy(tree);
+      List<Integer> path = randomPath(tree, random);
+      int operation = random.nextInt(3);
+      String word = "w" + step;
+      edit(navigate(tree, path), operation, word);
+      edit(navigate(reference, path), operation, word);
+      expected.set(treeIndex, reference.toString());
+
+      for (int i = 0; i < trees.size(); i++) {
+        assertEquals(expected.get(i), trees.get(i).toString(), "tree " + i + " after step " + step);
+      }
+    }
+  }
+
+  @Test
+  void testTextNodeModificationsShareUnchangedSubtrees() {
+    TextNode document = TextNode.builder(TextComponentType.PARAGRAPH)
+            .open(TextComponentType.PARAGRAPH)
+            .open(TextComponentType.SENTENCE)
+            .open(TextComponentType.LEXEME).leaf("Hello", TextComponentType.WORD).close()
+            .open(TextComponentType.LEXEME).leaf("World", TextComponentType.WORD).close()
+            .close()
+            .close()
+            .open(TextComponentType.PARAGRAPH)
+            .open(TextComponentType.SENTENCE)
+            .open(TextComponentType.LEXEME).leaf("Bye", TextComponentType.WORD).leaf(".", TextComponentType.SYMBOL).close()
+            .close()
+            .close()
+            .build();
+    assertEquals("Hello World \tBye. \t", document.toString());
+
+    TextNode swapped = document.updateAt(new int[]{0, 0}, sentence -> sentence.withChildrenSwapped(0, 1));
+
+    assertEquals("World Hello \tBye. \t", swapped.toString());
+    assertEquals("Hello World \tBye. \t", document.toString());
+    assertSame(document.getChild(1), swapped.getChild(1));
+    assertSame(document.getChild(0).getChild(0).getChild(0), swapped.getChild(0).getChild(0).getChild(1));
+    assertSame(TextNode.symbol('.'), swapped.getChild(1).getChild(0).getChild(0).getChild(1));
+
+    TextNode extended = swapped.withChildAdded(TextNode.composite(TextComponentType.PARAGRAPH, List.of()));
+    assertEquals(3, extended.getChildCount());
+    assertEquals(2, swapped.getChildCount());
+    assertThrows(UnsupportedOperationException.class, () -> extended.getChildren().add(document));
+    assertThrows(UnsupportedOperationException.class, () -> TextNode.symbol('!').withChildAdded(document));
+    assertThrows(IllegalStateException.class, () -> TextNode.builder(TextComponentType.PARAGRAPH).close());
+  }
+
+  @Test
+  void testTextNodeConvertsToAndFromComposite() {
+    TextComposite composite = createDocument();
+
+    TextNode node = TextNode.fromComponent(composite);
+    AbstractTextComponent restored = node.toComponent();
+
+    assertEquals(composite.toString(), node.toString());
+    assertEquals(composite.toString(), restored.toString());
+    assertEquals(composite.getChildComponentCount(), ((TextComposite) restored).getChildComponentCount());
+  }
+
+  @Test
+  void testWordDictionaryFoldsCaseIntoStableIds() {
+    WordDictionary dictionary = new WordDictionary();
+    String source = "say Hello, HELLO and hello";
+
+    int hello = dictionary.idOf("Hello");
+    assertEquals(0, hello);
+    assertEquals(hello, dictionary.idOf(source, 11, 16));
+    assertEquals(hello, dictionary.find("hELLo"));
+    assertEquals("hello", dictionary.word(hello));
+    assertEquals(WordDictionary.NO_WORD, dictionary.find("and"));
+    assertEquals(WordDictionary.NO_WORD, dictionary.idOf(source, 3, 3));
+    assertEquals(1, dictionary.size());
+
+    // Enough words to grow the table several times
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i + 1, dictionary.idOf("Word" + i));
+    }
+    for (int i = 0; i < 1000; i++) {
+      assertEquals(i + 1, dictionary.find("WORD" + i));
+    }
+    assertEquals(hello, dictionary.find("hello"));
+    assertThrows(IndexOutOfBoundsException.class, () -> dictionary.word(1001));
+  }
+
+  @Test
+  void testWordDictionaryGivesDenseIdsUnderConcurrentUse() throws InterruptedException {
+    WordDictionary dictionary = new WordDictionary();
+    int words = 5000;
+    int[][] ids = new int[4][words];
+    List<Thread> threads = new ArrayList<>();
+
+    for (int t = 0; t < ids.length; t++) {
+      int[] threadIds = ids[t];
+      int offset = t * 997;
+      threads.add(Thread.ofPlatform().start(() -> {
+        for (int i = 0; i < words; i++) {
+          int word = (i + offset) % words;
+          threadIds[word] = dictionary.idOf(word % 2 == 0 ? "Word" + word : "WORD" + word);
+        }
+      }));
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    assertEquals(words, dictionary.size());
+    boolean[] seen = new boolean[words];
+    for (int word = 0; word < words; word++) {
+      int id = ids[0][word];
+      for (int[] threadIds : ids) {
+        assertEquals(id, threadIds[word]);
+      }
+      assertFalse(seen[id]);
+      seen[id] = true;
+      assertEquals("word" + word, dictionary.word(id));
+      assertEquals(id, dictionary.find("wOrD" + word));
+    }
+  }
+
+  @Test
+  void testWordLeavesCarryDictionaryIds() {
+    WordDictionary dictionary = new WordDictionary();
+    String source = "Java and java";
+
+    TextLeaf leaf = TextLeaf.word("JAVA", dictionary);
+    TextSlice slice = TextSlice.word(source, 9, 13, dictionary);
+
+    assertEquals("JAVA", leaf.toString());
+    assertEquals("java", slice.toString());
+    assertSame(dictionary, leaf.getDictionary());
+    assertEquals(leaf.getWordId(), slice.getWordId());
+    assertNull(new TextLeaf("java", TextComponentType.WORD).getDictionary());
+    assertEquals(WordDictionary.NO_WORD, new TextSlice(source, 0, 4, TextComponentType.WORD).getWordId());
+  }
+
+  // Goes through getChildComponents(), so edits of the returned lexeme stay in the given tree
+  private static TextComposite lexemeAt(TextComposite document, int paragraphIndex) {
+    TextComposite paragraph = (TextComposite) document.getChildComponents().get(paragraphIndex);
+    TextComposite sentence = (TextComposite) paragraph.getChildComponents().getFirst();
+    return (TextComposite) sentence.getChildComponents().getFirst();
+  }
+
+  private static int dependentCount(TextComposite composite) {
+    int count = composite.getDependentCount();
+    for (AbstractTextComponent child : composite.getChildComponentsView()) {
+      if (child instanceof TextComposite childComposite) {
+        count += dependentCount(childComposite);
+      }
+    }
+    return count;
+  }
+
+  private static TextComposite deepCopy(TextComposite composite) {
+    TextComposite copy = new TextComposite(composite.getComponentType());
+    for (AbstractTextComponent child : composite.getChildComponentsView()) {
+      copy.addChildComponent(child instanceof TextComposite childComposite ? deepCopy(childComposite) : child);
+    }
+    return copy;
+  }
+
+  private static List<Integer> randomPath(TextComposite tree, Random random) {
+    List<Integer> path = new ArrayList<>();
+    TextComposite node = tree;
+    while (random.nextInt(4) != 0) {
+      List<Integer> compositeIndexes = new ArrayList<>();
+      for (int i = 0; i < node.getChildComponentCount(); i++) {
+        if (node.getChildComponent(i) instanceof TextComposite) {
+          compositeIndexes.add(i);
+        }
+      }
+      if (compositeIndexes.isEmpty()) {
+        break;
+      }
+      int index = compositeIndexes.get(random.nextInt(compositeIndexes.size()));
+      path.add(index);
+      node = (TextComposite) node.getChildComponent(index);
+    }
+    return path;
+  }
+
+  private static TextComposite navigate(TextComposite tree, List<Integer> path) {
+    TextComposite node = tree;
+    for (int index : path) {
+      node = (TextComposite) node.getChildComponents().get(index);
+    }
+    return node;
+  }
+
+  private static void edit(TextComposite node, int operation, String word) {
+    switch (operation) {
+      case 0 -> node.addChildComponent(lexeme(word));
+      case 1 -> {
+        List<AbstractTextComponent> children = node.getChildComponents();
+        Collections.reverse(children);
+        node.setChildComponents(children);
+      }
+      default -> node.setComponentType(node.getComponentType() == TextComponentType.LEXEME
+              ? TextComponentType.SENTENCE : TextComponentType.LEXEME);
+    }
+  }
+}
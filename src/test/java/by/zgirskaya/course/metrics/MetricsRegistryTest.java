@@ -0,0 +1,120 @@
+package by.zgirskaya.course.metrics;
+
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.parser.LexemeParser;
+import by.zgirskaya.course.parser.ParagraphParser;
+import by.zgirskaya.course.parser.SentenceParser;
+import by.zgirskaya.course.parser.SymbolParser;
+import by.zgirskaya.course.service.impl.TextServiceImpl;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetricsRegistryTest {
+
+  @Test
+  void testHistogramPercentilesStayWithinBucketError() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long value = 1; value <= 10_000; value++) {
+      histogram.record(value * 1000);
+    }
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    assertEquals(10_000, snapshot.count());
+    assertEquals(5_000_500.0, snapshot.mean(), 0.001);
+    assertEquals(10_000_000, snapshot.max());
+
+    long[] expected = {5_000_000, 9_000_000, 9_900_000};
+    long[] actual = {snapshot.p50(), snapshot.p90(), snapshot.p99()};
+    for (int i = 0; i < expected.length; i++) {
+      assertTrue(actual[i] >= expected[i] && actual[i] <= expected[i] * 1.125,
+              "Expected about " + expected[i] + " but was " + actual[i]);
+    }
+  }
+
+  @Test
+  void testBucketsCoverEveryValue() {
+    Random random = new Random(7);
+    for (int i = 0; i < 10_000; i++) {
+      long value = (random.nextLong() >>> 1) >>> random.nextInt(63);
+      int index = LatencyHistogram.bucketIndex(value);
+
+      assertTrue(value <= LatencyHistogram.bucketUpperBound(index), "Value: " + value);
+      assertTrue(index == 0 || value > LatencyHistogram.bucketUpperBound(index - 1), "Value: " + value);
+    }
+    assertEquals(Long.MAX_VALUE, LatencyHistogram.bucketUpperBound(LatencyHistogram.bucketIndex(Long.MAX_VALUE)));
+  }
+
+  @Test
+  void testParsersAndServiceFeedTheRegistry() throws CustomTextException {
+    MetricsRegistry registry = MetricsRegistry.getDefault();
+    long documents = registry.counter(MetricsRegistry.DOCUMENTS).getCount();
+    long sentences = registry.counter(MetricsRegistry.SENTENCES).getCount();
+    long symbols = registry.counter(MetricsRegistry.SYMBOLS).getCount();
+    long symbolCalls = registry.histogram("parse.SymbolParser").getCount();
+
+    ParagraphParser parser = new ParagraphParser(new SentenceParser(new LexemeParser(new SymbolParser())));
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    parser.parse("One two. Three!    Four five six.", root);
+
+    assertEquals(documents + 1, registry.counter(MetricsRegistry.DOCUMENTS).getCount());
+    assertEquals(sentences + 3, registry.counter(MetricsRegistry.SENTENCES).getCount());
+    assertEquals(symbols + 25, registry.counter(MetricsRegistry.SYMBOLS).getCount());
+    // One sample per paragraph, not per lexeme
+    assertEquals(symbolCalls + 2, registry.histogram("parse.SymbolParser").getCount());
+
+    MetricsRegistry serviceRegistry = new MetricsRegistry();
+    new TextServiceImpl(serviceRegistry).rankSentencesByLexemeCount(root);
+
+    Stage stage = serviceRegistry.stage("service.rankSentencesByLexemeCount");
+    assertEquals(1, stage.getLatency().getCount());
+    assertTrue(stage.getLatency().getMax() > 0);
+    assertTrue(serviceRegistry.dump().contains("histogram service.rankSentencesByLexemeCount count=1 "));
+    assertTrue(serviceRegistry.dump().contains("counter service.rankSentencesByLexemeCount.allocatedBytes "));
+  }
+
+  @Test
+  void testVirtualThreadsAddNoAllocations() throws InterruptedException {
+    Stage stage = new MetricsRegistry().stage("operation");
+    Runnable operation = () -> {
+      Stage.Sample sample = stage.start();
+      String[] allocated = new String[1024];
+      sample.close();
+      assertEquals(1024, allocated.length);
+    };
+
+    Thread.ofVirtual().start(operation).join();
+    assertEquals(1, stage.getLatency().getCount());
+    assertEquals(0, stage.getAllocatedBytes().getCount());
+
+    Thread.ofPlatform().start(operation).join();
+    assertEquals(2, stage.getLatency().getCount());
+    assertTrue(stage.getAllocatedBytes().getCount() > 0);
+  }
+
+  @Test
+  void testMetricsArePublishedAsMBeans() throws Exception {
+    MBeanServer server = MBeanServerFactory.newMBeanServer();
+    MetricsRegistry registry = new MetricsRegistry();
+    registry.counter("documents").add(3);
+
+    registry.publish(server);
+    registry.histogram("parse.WordParser").record(2_000);
+
+    assertEquals(3L, server.getAttribute(new ObjectName("by.zgirskaya.course:type=Counter,name=documents"), "Count"));
+    ObjectName histogram = new ObjectName("by.zgirskaya.course:type=Histogram,name=parse.WordParser");
+    assertEquals(1L, server.getAttribute(histogram, "Count"));
+    assertEquals(2_000L, server.getAttribute(histogram, "P99"));
+    assertThrows(CustomTextException.class, () -> registry.publish(server));
+
+    registry.unpublish();
+    assertFalse(server.isRegistered(histogram));
+  }
+}
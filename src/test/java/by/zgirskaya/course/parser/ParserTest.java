@@ -1,18 +1,34 @@
 package by.zgirskaya.course.parser;
 
 import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.CompactTextDocument;
 import by.zgirskaya.course.component.TextComponentType;
 import by.zgirskaya.course.component.TextComposite;
 import by.zgirskaya.course.component.TextLeaf;
+import by.zgirskaya.course.component.TextNode;
+import by.zgirskaya.course.component.TextSlice;
+import by.zgirskaya.course.component.TextVisitor;
+import by.zgirskaya.course.component.WordDictionary;
 import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.reader.impl.CustomParagraphReaderImpl;
+import by.zgirskaya.course.service.impl.TextServiceImpl;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class ParserTest {
 
+  static final Path FIXTURE = Path.of("recourses", "text.txt");
+
   @Test
   void testSymbolParser() {
     SymbolParser parser = new SymbolParser();
@@ -34,6 +50,126 @@ class ParserTest {
     assertEquals("c", children.get(2).toString());
   }
 
+  @Test
+  void testOffsetWordParserEmitsSlices() {
+    WordParser parser = new WordParser(WordParser.Letters.ASCII);
+    TextComposite parent = new TextComposite(TextComponentType.LEXEME);
+
+    parser.parse("(hello123world!test", parent);
+
+    List<AbstractTextComponent> children = parent.getChildComponents();
+    assertEquals(List.of("hello", "world", "test"), children.stream().map(AbstractTextComponent::toString).toList());
+    assertInstanceOf(TextSlice.class, children.getFirst());
+    assertEquals(1, ((TextSlice) children.getFirst()).getStart());
+    assertEquals(TextComponentType.WORD, children.getFirst().getComponentType());
+    assertSame(parser.getDictionary(), ((TextSlice) children.getFirst()).getDictionary());
+    assertEquals(parser.getDictionary().find("hello"), ((TextSlice) children.getFirst()).getWordId());
+    assertNull(new WordParser(WordParser.Letters.ASCII, null).getDictionary());
+  }
+
+  @Test
+  void testWordParserWithCorpusDictionaryTagsWords() {
+    WordDictionary corpus = new WordDictionary();
+    TextComposite regexParent = new TextComposite(TextComponentType.LEXEME);
+    TextComposite offsetParent = new TextComposite(TextComponentType.LEXEME);
+
+    new WordParser(null, corpus).parse("Hello-world", regexParent);
+    new WordParser(WordParser.Letters.ASCII, corpus).parse("(WORLD)", offsetParent);
+
+    TextLeaf hello = (TextLeaf) regexParent.getChildComponent(0);
+    TextSlice world = (TextSlice) offsetParent.getChildComponent(0);
+    assertSame(corpus, hello.getDictionary());
+    assertEquals(corpus.find("world"), world.getWordId());
+    assertEquals(((TextLeaf) regexParent.getChildComponent(1)).getWordId(), world.getWordId());
+    assertEquals(2, corpus.size());
+  }
+
+  @Test
+  void testOffsetWordParserUnicodeLetters() {
+    TextComposite ascii = new TextComposite(TextComponentType.LEXEME);
+    TextComposite unicode = new TextComposite(TextComponentType.LEXEME);
+    String lexeme = "Привет,мир-Hello\uD835\uDC00";
+
+    new WordParser(WordParser.Letters.ASCII).parse(lexeme, ascii);
+    new WordParser(WordParser.Letters.UNICODE).parse(lexeme, unicode);
+
+    assertEquals(List.of("Hello"), ascii.getChildComponents().stream().map(AbstractTextComponent::toString).toList());
+    assertEquals(List.of("Привет", "мир", "Hello\uD835\uDC00"),
+            unicode.getChildComponents().stream().map(AbstractTextComponent::toString).toList());
+  }
+
+  @Test
+  void testOffsetWordChainMatchesRegexChainWithoutEmptyWords() throws CustomTextException, IOException {
+    String text = Files.readString(FIXTURE) + "    ...leading  punctuation\u0001 and\ttabs    ";
+
+    TextComposite expected = new TextComposite(TextComponentType.PARAGRAPH);
+    new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser()))).parse(text, expected);
+
+    TextComposite actual = new TextComposite(TextComponentType.PARAGRAPH);
+    new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser(WordParser.Letters.ASCII))))
+            .parse(text, actual);
+
+    assertEquals(expected.getChildComponentCount(), actual.getChildComponentCount());
+    for (int p = 0; p < expected.getChildComponentCount(); p++) {
+      TextComposite expectedParagraph = (TextComposite) expected.getChildComponent(p);
+      TextComposite actualParagraph = (TextComposite) actual.getChildComponent(p);
+      assertEquals(expectedParagraph.getChildComponentCount(), actualParagraph.getChildComponentCount());
+
+      for (int s = 0; s < expectedParagraph.getChildComponentCount(); s++) {
+        TextComposite expectedSentence = (TextComposite) expectedParagraph.getChildComponent(s);
+        TextComposite actualSentence = (TextComposite) actualParagraph.getChildComponent(s);
+        assertEquals(expectedSentence.getChildComponentCount(), actualSentence.getChildComponentCount());
+
+        for (int l = 0; l < expectedSentence.getChildComponentCount(); l++) {
+          List<String> expectedWords = ((TextComposite) expectedSentence.getChildComponent(l)).getChildComponentsView()
+                  .stream().map(AbstractTextComponent::toString).filter(word -> !word.isEmpty()).toList();
+          List<String> actualWords = ((TextComposite) actualSentence.getChildComponent(l)).getChildComponentsView()
+                  .stream().map(AbstractTextComponent::toString).toList();
+          assertEquals(expectedWords, actualWords);
+        }
+      }
+    }
+  }
+
+  @Test
+  void testParseMetricsCountEveryLevelOncePerDocument() throws CustomTextException, IOException {
+    String text = Files.readString(FIXTURE);
+    ParagraphParser parser = new ParagraphParser(new SentenceParser(new LexemeParser(new SymbolParser())));
+
+    for (int run = 0; run < 2; run++) {
+      TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+      if (run == 0) {
+        parser.parse(text, root);
+      } else {
+        parser.parse(text, root, ForkJoinPool.commonPool());
+      }
+
+      List<TextComposite> paragraphs = childComposites(List.of(root));
+      List<TextComposite> sentences = childComposites(paragraphs);
+      List<TextComposite> lexemes = childComposites(sentences);
+      long symbols = lexemes.stream().mapToLong(TextComposite::getChildComponentCount).sum();
+
+      List<Long> produced = parser.getLastDocumentMetrics().stream()
+              .map(snapshot -> snapshot.produced())
+              .toList();
+      assertEquals(List.of((long) paragraphs.size(), (long) sentences.size(), (long) lexemes.size(), symbols), produced);
+      assertEquals(List.of("ParagraphParser", "SentenceParser", "LexemeParser", "SymbolParser"),
+              parser.getLastDocumentMetrics().stream().map(snapshot -> snapshot.level()).toList());
+      assertEquals(1, parser.getLastDocumentMetrics().getFirst().calls());
+      assertEquals(lexemes.size(), parser.getLastDocumentMetrics().getLast().calls());
+    }
+  }
+
+  private static List<TextComposite> childComposites(List<TextComposite> parents) {
+    List<TextComposite> children = new ArrayList<>();
+    for (TextComposite parent : parents) {
+      for (AbstractTextComponent child : parent.getChildComponentsView()) {
+        children.add((TextComposite) child);
+      }
+    }
+    return children;
+  }
+
   @Test
   void testSymbolParserWithEmptyString() {
     SymbolParser parser = new SymbolParser();
@@ -254,4 +390,341 @@ class ParserTest {
     assertEquals("Test", firstWord.toString());
     assertEquals(TextComponentType.WORD, firstWord.getComponentType());
   }
-}
\ No newline at end of file
+
+  @Test
+  void testStreamingParagraphParserMatchesStringParsing() throws CustomTextException {
+    ParagraphParser paragraphParser = new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser())));
+    String text = "    Hello world.    How are you?  Fine!        Bye.    ";
+
+    TextComposite expected = new TextComposite(TextComponentType.PARAGRAPH);
+    paragraphParser.parse(text, expected);
+
+    TextComposite actual = new TextComposite(TextComponentType.PARAGRAPH);
+    paragraphParser.parse(new CustomParagraphReaderImpl(new StringReader(text)), actual);
+
+    assertSameStructure(expected, actual);
+  }
+
+  @Test
+  void testStreamingParagraphParserHandsOffParagraphs() throws CustomTextException {
+    ParagraphParser paragraphParser = new ParagraphParser(new SentenceParser(new LexemeParser(new SymbolParser())));
+    List<TextComposite> paragraphs = new ArrayList<>();
+
+    paragraphParser.parse(new CustomParagraphReaderImpl(new StringReader("One.    Two.    Three.")), paragraphs::add);
+
+    assertEquals(3, paragraphs.size());
+    assertEquals("One. ", paragraphs.getFirst().toString());
+  }
+
+  @Test
+  void testParagraphParserAcceptsCharSequence() throws CustomTextException {
+    ParagraphParser paragraphParser = new ParagraphParser(new SentenceParser(new LexemeParser(new SymbolParser())));
+    String text = "First paragraph.    Second paragraph.";
+
+    TextComposite expected = new TextComposite(TextComponentType.PARAGRAPH);
+    paragraphParser.parse(text, expected);
+
+    TextComposite actual = new TextComposite(TextComponentType.PARAGRAPH);
+    paragraphParser.parse(new StringBuilder(text), actual);
+
+    assertSameStructure(expected, actual);
+  }
+
+  @Test
+  void testParallelParsingMatchesSequentialParsing() throws CustomTextException, IOException {
+    ParagraphParser paragraphParser = new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser())));
+    String text = Files.readString(FIXTURE).repeat(40);
+
+    TextComposite expected = new TextComposite(TextComponentType.PARAGRAPH);
+    paragraphParser.parse(text, expected);
+
+    TextComposite actual = new TextComposite(TextComponentType.PARAGRAPH);
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      paragraphParser.parse(text, actual, pool);
+    } finally {
+      pool.shutdown();
+    }
+
+    assertSameStructure(expected, actual);
+  }
+
+  @Test
+  void testIncrementalEditsMatchFullReparse() throws CustomTextException {
+    ParagraphParser paragraphParser = new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser())));
+    String[] insertions = {"", " ", "  ", "    ", "\t", "a", "Hi. ", "x!", "  b.  ", "        "};
+    Random random = new Random(42);
+
+    TextComposite actual = new TextComposite(TextComponentType.PARAGRAPH);
+    IncrementalDocument document = paragraphParser.parseIncremental("    First one.    Second?", actual);
+
+    for (int i = 0; i < 2000; i++) {
+      int offset = random.nextInt(document.length() + 1);
+      int deletedLength = random.nextInt(Math.min(6, document.length() - offset) + 1);
+      document.apply(new TextEdit(offset, deletedLength, insertions[random.nextInt(insertions.length)]));
+
+      TextComposite expected = new TextComposite(TextComponentType.PARAGRAPH);
+      paragraphParser.parse(document.getText(), expected);
+      assertSameStructure(expected, actual);
+    }
+  }
+
+  @Test
+  void testIncrementalEditReusesUntouchedParagraphs() throws CustomTextException, IOException {
+    ParagraphParser paragraphParser = new ParagraphParser(new SentenceParser(new LexemeParser(new SymbolParser())));
+    String text = Files.readString(FIXTURE).repeat(20);
+
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    IncrementalDocument document = paragraphParser.parseIncremental(text, root);
+    List<AbstractTextComponent> before = root.getChildComponents();
+
+    int offset = text.indexOf("    ", text.length() / 2) + 10;
+    assertEquals(1, document.apply(TextEdit.insert(offset, "edited ")));
+
+    List<AbstractTextComponent> after = root.getChildComponents();
+    assertEquals(before.size(), after.size());
+    int changed = 0;
+    for (int i = 0; i < before.size(); i++) {
+      if (before.get(i) != after.get(i)) {
+        changed++;
+      }
+    }
+    assertEquals(1, changed);
+
+    TextComposite expected = new TextComposite(TextComponentType.PARAGRAPH);
+    paragraphParser.parse(document.getText(), expected);
+    assertSameStructure(expected, root);
+
+    assertThrows(CustomTextException.class, () -> document.apply(TextEdit.delete(document.length(), 1)));
+  }
+
+  @Test
+  void testParseCacheHandsOutReadOnlyViews() throws CustomTextException, IOException {
+    ParagraphParser paragraphParser = new ParagraphParser(new SentenceParser(new LexemeParser(new SymbolParser())));
+    ParseCache cache = new ParseCache(64L * 1024 * 1024);
+    String text = Files.readString(FIXTURE);
+
+    TextComposite expected = new TextComposite(TextComponentType.PARAGRAPH);
+    paragraphParser.parse(text, expected);
+
+    TextComposite first = cache.parse(text, paragraphParser);
+    TextComposite second = cache.parse(new StringBuilder(text), paragraphParser);
+    assertSameStructure(expected, first);
+    assertSameStructure(expected, second);
+    assertEquals(new TextServiceImpl().findMaxSentenceCountWithSameWords(expected),
+            new TextServiceImpl().findMaxSentenceCountWithSameWords(second));
+
+    TextComposite paragraph = (TextComposite) first.getChildComponent(1);
+    assertThrows(UnsupportedOperationException.class, () -> paragraph.setChildComponents(List.of()));
+    assertThrows(UnsupportedOperationException.class,
+            () -> first.addChildComponent(new TextComposite(TextComponentType.PARAGRAPH)));
+
+    TextComposite editable = first.makeCopy();
+    ((TextComposite) editable.getChildComponents().get(1)).setChildComponents(List.of());
+    editable.addChildComponent(new TextComposite(TextComponentType.PARAGRAPH));
+    assertSameStructure(expected, cache.parse(text, paragraphParser));
+    assertSameStructure(expected, second);
+
+    ParseCache.Stats stats = cache.getStats();
+    assertEquals(2, stats.hits());
+    assertEquals(1, stats.misses());
+    assertEquals(1, stats.entryCount());
+    assertTrue(stats.estimatedBytes() > 0);
+  }
+
+  @Test
+  void testParseCacheKeysIncludeChainConfiguration() throws CustomTextException {
+    ParseCache cache = new ParseCache(64L * 1024 * 1024);
+    String text = "    Some words, 42 more. Next!";
+    ParagraphParser words = new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser())));
+    ParagraphParser offsetWords =
+            new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser(WordParser.Letters.ASCII))));
+    ParagraphParser symbols = new ParagraphParser(new SentenceParser(new LexemeParser(new SymbolParser())));
+
+    assertNotEquals(words.getChainSignature(), offsetWords.getChainSignature());
+    assertNotEquals(words.getChainSignature(), symbols.getChainSignature());
+
+    TextComposite wordTree = cache.parse(text, words);
+    cache.parse(text, offsetWords);
+    TextComposite symbolTree = cache.parse(text, symbols);
+    cache.parse(text, new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser()))));
+
+    assertNotEquals(wordTree.toString(), symbolTree.toString());
+    assertEquals(1, cache.getStats().hits());
+    assertEquals(3, cache.getStats().misses());
+  }
+
+  @Test
+  void testParseCacheEvictsLeastRecentlyUsed() throws CustomTextException {
+    ParagraphParser paragraphParser = new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser())));
+    String[] texts = {"    Alpha beta. Gamma!", "    Delta epsilon. Zeta!", "    Eta theta. Iota!"};
+
+    ParseCache probe = new ParseCache(Long.MAX_VALUE);
+    probe.parse(texts[0], paragraphParser);
+    long entryBytes = probe.getStats().estimatedBytes();
+
+    // Room for two documents of the same shape
+    ParseCache cache = new ParseCache(entryBytes * 2 + entryBytes / 2);
+    cache.parse(texts[0], paragraphParser);
+    cache.parse(texts[1], paragraphParser);
+    cache.parse(texts[0], paragraphParser);
+    cache.parse(texts[2], paragraphParser);
+
+    assertEquals(1, cache.getStats().evictions());
+    assertEquals(2, cache.getStats().entryCount());
+
+    cache.parse(texts[0], paragraphParser);
+    assertEquals(2, cache.getStats().hits());
+    cache.parse(texts[1], paragraphParser);
+    assertEquals(4, cache.getStats().misses());
+  }
+
+  @Test
+  void testTokenizerParserMatchesRegexChainOnFixture() throws CustomTextException, IOException {
+    String text = Files.readString(FIXTURE);
+
+    assertTokenizerMatchesRegexChain(text, TextComponentType.WORD);
+    assertTokenizerMatchesRegexChain(text, TextComponentType.SYMBOL);
+  }
+
+  @Test
+  void testTokenizerParserMatchesRegexChainOnEdgeCases() throws CustomTextException {
+    String[] texts = {
+            "", "    ", "        ", "a.      ", "  a", "!abc 123 x1y", "Hi.\n\tThere!  You?",
+            "Stop.    \u0001    Go.", "a\u0001 b\u0002", "\u0001a. \u0002", "x.\u000B\fy"
+    };
+
+    for (String text : texts) {
+      assertTokenizerMatchesRegexChain(text, TextComponentType.WORD);
+      assertTokenizerMatchesRegexChain(text, TextComponentType.SYMBOL);
+    }
+  }
+
+  @Test
+  void testTokenizerParserMatchesRegexChainOnRandomInput() throws CustomTextException {
+    char[] alphabet = {'a', 'B', '1', '.', '!', '?', ',', ' ', ' ', ' ', '\t', '\n', '\r', '\u0001'};
+    Random random = new Random(42);
+
+    for (int i = 0; i < 2000; i++) {
+      char[] text = new char[random.nextInt(40)];
+      for (int j = 0; j < text.length; j++) {
+        text[j] = alphabet[random.nextInt(alphabet.length)];
+      }
+
+      assertTokenizerMatchesRegexChain(new String(text), TextComponentType.WORD);
+      assertTokenizerMatchesRegexChain(new String(text), TextComponentType.SYMBOL);
+    }
+  }
+
+  @Test
+  void testTokenizerParserRejectsCompositeLeafType() {
+    assertThrows(CustomTextException.class, () -> new TokenizerParser(TextComponentType.LEXEME));
+  }
+
+  @Test
+  void testCompactDocumentMatchesCompositeTree() throws CustomTextException, IOException {
+    String text = Files.readString(FIXTURE);
+
+    for (TextComponentType leafType : new TextComponentType[]{TextComponentType.WORD, TextComponentType.SYMBOL}) {
+      TokenizerParser parser = new TokenizerParser(leafType);
+      TextComposite expected = new TextComposite(TextComponentType.PARAGRAPH);
+      parser.parse(text, expected);
+
+      CompactTextDocument document = parser.parseCompact(text);
+
+      assertSameStructure(expected, document.getRoot());
+      assertSameStructure(expected, document.getRoot().makeCopy());
+
+      StringBuilder written = new StringBuilder();
+      document.getRoot().writeTo(written);
+      assertEquals(expected.toString(), written.toString());
+    }
+  }
+
+  @Test
+  void testImmutableDocumentMatchesCompositeTree() throws CustomTextException, IOException {
+    String text = Files.readString(FIXTURE);
+
+    for (TextComponentType leafType : new TextComponentType[]{TextComponentType.WORD, TextComponentType.SYMBOL}) {
+      TokenizerParser parser = new TokenizerParser(leafType);
+      TextComposite expected = new TextComposite(TextComponentType.PARAGRAPH);
+      parser.parse(text, expected);
+
+      TextNode document = parser.parseNode(text);
+
+      assertSameStructure(expected, (TextComposite) document.toComponent());
+      assertSameStructure(expected, (TextComposite) TextNode.fromComponent(expected).toComponent());
+      assertEquals(expected.toString(), document.toString());
+      assertEquals(expected.toString().length(), document.getRenderedLength());
+    }
+  }
+
+  @Test
+  void testParagraphParserBuildsImmutableDocument() throws CustomTextException, IOException {
+    String text = Files.readString(FIXTURE) + "    Ünïcode wörds, 𝒳y and z.";
+
+    for (AbstractParser leafParser : List.of(new WordParser(), new WordParser(WordParser.Letters.ASCII),
+            new WordParser(WordParser.Letters.UNICODE), new SymbolParser())) {
+      ParagraphParser parser = new ParagraphParser(new SentenceParser(new LexemeParser(leafParser)));
+      TextComposite expected = new TextComposite(TextComponentType.PARAGRAPH);
+      parser.parse(text, expected);
+      List<Long> expectedProduced = parser.getLastDocumentMetrics().stream().map(s -> s.produced()).toList();
+
+      TextNode document = parser.parseNode(text);
+
+      assertSameStructure(expected, document.asComponent());
+      assertEquals(expected.toString(), document.toString());
+      assertEquals(expectedProduced, parser.getLastDocumentMetrics().stream().map(s -> s.produced()).toList());
+
+      List<TextComponentType> visited = new ArrayList<>();
+      document.accept(new TextVisitor() {
+        @Override
+        public void visitLeaf(AbstractTextComponent leaf) {
+          visited.add(leaf.getComponentType());
+        }
+      });
+      assertEquals(expectedProduced.getLast(), visited.size());
+    }
+  }
+
+  @Test
+  void testCompactDocumentIsReadOnly() throws CustomTextException {
+    TextComposite root = new TokenizerParser(TextComponentType.SYMBOL).parseCompact("Read only.").getRoot();
+
+    assertThrows(UnsupportedOperationException.class,
+            () -> root.addChildComponent(new TextComposite(TextComponentType.PARAGRAPH)));
+    assertThrows(UnsupportedOperationException.class,
+            () -> root.getChildComponents().getFirst().setComponentType(TextComponentType.SENTENCE));
+    assertThrows(UnsupportedOperationException.class,
+            () -> root.setChildComponent(0, new TextComposite(TextComponentType.PARAGRAPH)));
+  }
+
+  private void assertTokenizerMatchesRegexChain(String text, TextComponentType leafType) throws CustomTextException {
+    AbstractParser leafParser = leafType == TextComponentType.WORD ? new WordParser() : new SymbolParser();
+    ParagraphParser paragraphParser = new ParagraphParser(new SentenceParser(new LexemeParser(leafParser)));
+
+    TextComposite expected = new TextComposite(TextComponentType.PARAGRAPH);
+    paragraphParser.parse(text, expected);
+
+    TextComposite actual = new TextComposite(TextComponentType.PARAGRAPH);
+    new TokenizerParser(leafType).parse(text, actual);
+
+    assertSameStructure(expected, actual);
+  }
+
+  static void assertSameStructure(AbstractTextComponent expected, AbstractTextComponent actual) {
+    assertEquals(expected.getComponentType(), actual.getComponentType());
+    assertEquals(expected.toString(), actual.toString());
+    assertEquals(expected instanceof TextComposite, actual instanceof TextComposite);
+
+    if (expected instanceof TextComposite expectedComposite) {
+      List<AbstractTextComponent> expectedChildren = expectedComposite.getChildComponents();
+      List<AbstractTextComponent> actualChildren = ((TextComposite) actual).getChildComponents();
+      assertEquals(expectedChildren.size(), actualChildren.size());
+
+      for (int i = 0; i < expectedChildren.size(); i++) {
+        assertSameStructure(expectedChildren.get(i), actualChildren.get(i));
+      }
+    }
+  }
+}
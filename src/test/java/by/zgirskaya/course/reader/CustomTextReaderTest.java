@@ -0,0 +1,103 @@
+package by.zgirskaya.course.reader;
+
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.reader.impl.CustomParagraphReaderImpl;
+import by.zgirskaya.course.reader.impl.MappedTextReaderImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CustomTextReaderTest {
+
+  private static final String PARAGRAPH_DELIMITER = "\\p{Blank}{4}";
+
+  @TempDir
+  Path tempDir;
+
+  private List<String> readAllParagraphs(CustomParagraphReader reader) throws CustomTextException {
+    List<String> paragraphs = new ArrayList<>();
+    String paragraph;
+    while ((paragraph = reader.readParagraph()) != null) {
+      paragraphs.add(paragraph);
+    }
+    return paragraphs;
+  }
+
+  @Test
+  void testParagraphReaderMatchesSplit() throws CustomTextException {
+    String[] texts = {
+            "",
+            "    ",
+            "single paragraph",
+            "    First.    Second.\tThird.",
+            "First.      Second.        Third.        ",
+            "Tabs\t\t\t\there.  \t  and mixed.      ",
+            "Line\n    break.\n"
+    };
+
+    for (String text : texts) {
+      try (CustomParagraphReader reader = new CustomParagraphReaderImpl(new StringReader(text))) {
+        assertEquals(List.of(text.split(PARAGRAPH_DELIMITER)), readAllParagraphs(reader), "Input: '" + text + "'");
+      }
+    }
+  }
+
+  @Test
+  void testParagraphReaderFromFile() throws Exception {
+    String text = "    First paragraph.    Second paragraph!";
+    Path file = tempDir.resolve("text.txt");
+    Files.writeString(file, text, StandardCharsets.UTF_8);
+
+    try (CustomParagraphReader reader = CustomParagraphReaderImpl.fromFile(file.toString())) {
+      assertEquals(List.of("", "First paragraph.", "Second paragraph!"), readAllParagraphs(reader));
+    }
+  }
+
+  @Test
+  void testParagraphReaderWithMissingFile() {
+    assertThrows(CustomTextException.class,
+            () -> CustomParagraphReaderImpl.fromFile(tempDir.resolve("missing.txt").toString()));
+  }
+
+  @Test
+  void testMappedReaderDecodesAcrossRegions() throws Exception {
+    String text = "Привет, мир! Hello world. ".repeat(5000) + "Конец.";
+    Path file = tempDir.resolve("utf8.txt");
+    Files.writeString(file, text, StandardCharsets.UTF_8);
+
+    // Small regions force multi-byte characters to be split between mapped regions
+    CustomTextReader reader = new MappedTextReaderImpl(StandardCharsets.UTF_8, 17);
+    CharSequence content = reader.readCharSequenceFromFile(file.toString());
+
+    assertEquals(text.length(), content.length());
+    assertEquals(text, content.toString());
+    assertEquals(text.substring(70000, 70100), content.subSequence(70000, 70100).toString());
+  }
+
+  @Test
+  void testMappedReaderUsesExplicitCharset() throws Exception {
+    String text = "Café déjà vu";
+    Path file = tempDir.resolve("latin1.txt");
+    Files.writeString(file, text, StandardCharsets.ISO_8859_1);
+
+    assertEquals(text, new MappedTextReaderImpl(StandardCharsets.ISO_8859_1).readTextFromFile(file.toString()));
+  }
+
+  @Test
+  void testMappedReaderWithEmptyAndMissingFile() throws Exception {
+    Path file = Files.createFile(tempDir.resolve("empty.txt"));
+    MappedTextReaderImpl reader = new MappedTextReaderImpl();
+
+    assertEquals("", reader.readTextFromFile(file.toString()));
+    assertThrows(CustomTextException.class,
+            () -> reader.readCharSequenceFromFile(tempDir.resolve("missing.txt").toString()));
+  }
+}
@@ -0,0 +1,141 @@
+package by.zgirskaya.course.serializer;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextLeaf;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.parser.TokenizerParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTextTest {
+
+  private static final Path FIXTURE = Path.of("recourses", "text.txt");
+
+  @TempDir
+  Path tempDir;
+
+  private static TextComposite parse(String text, TextComponentType leafType) throws CustomTextException {
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    new TokenizerParser(leafType).parse(text, root);
+    return root;
+  }
+
+  private static void assertSameStructure(AbstractTextComponent expected, AbstractTextComponent actual) {
+    assertEquals(expected.getComponentType(), actual.getComponentType());
+    assertEquals(expected.toString(), actual.toString());
+    assertEquals(expected instanceof TextComposite, actual instanceof TextComposite);
+
+    if (expected instanceof TextComposite expectedComposite) {
+      List<AbstractTextComponent> expectedChildren = expectedComposite.getChildComponents();
+      List<AbstractTextComponent> actualChildren = ((TextComposite) actual).getChildComponents();
+      assertEquals(expectedChildren.size(), actualChildren.size());
+
+      for (int i = 0; i < expectedChildren.size(); i++) {
+        assertSameStructure(expectedChildren.get(i), actualChildren.get(i));
+      }
+    }
+  }
+
+  @Test
+  void testMappedFileRoundTrip() throws IOException, CustomTextException {
+    String text = Files.readString(FIXTURE).repeat(50);
+
+    for (TextComponentType leafType : List.of(TextComponentType.WORD, TextComponentType.SYMBOL)) {
+      TextComposite expected = parse(text, leafType);
+      Path file = tempDir.resolve(leafType + ".txtb");
+      new BinaryTextWriter().write(expected, file);
+
+      BinaryTextDocument document = BinaryTextDocument.map(file);
+      assertEquals(TextComponentType.PARAGRAPH, document.getRootType());
+      assertEquals(expected.getChildComponentCount(), document.getChildCount());
+      assertSameStructure(expected, document.materialize());
+
+      // Every string is stored once, uniform lexemes drop the per leaf tag
+      assertTrue(Files.size(file) < 2L * text.length(), "Binary size: " + Files.size(file));
+    }
+  }
+
+  @Test
+  void testChildrenAreMaterializedOnDemand() throws IOException, CustomTextException {
+    TextComposite expected = parse(Files.readString(FIXTURE), TextComponentType.SYMBOL);
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BinaryTextWriter().write(expected, Channels.newChannel(out));
+    BinaryTextDocument document = BinaryTextDocument.read(Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+
+    for (int i = expected.getChildComponentCount() - 1; i >= 0; i--) {
+      assertSameStructure(expected.getChildComponent(i), document.materializeChild(i));
+    }
+    assertThrows(CustomTextException.class, () -> document.materializeChild(expected.getChildComponentCount()));
+  }
+
+  @Test
+  void testLeavesOfAnyTypeAndLongTextsRoundTrip() throws CustomTextException {
+    TextComposite root = new TextComposite(TextComponentType.SENTENCE);
+    root.addChildComponent(new TextLeaf("x".repeat(200_000), TextComponentType.WORD));
+    root.addChildComponent(new TextLeaf("жук", TextComponentType.LEXEME));
+    root.addChildComponent(new TextComposite(TextComponentType.PARAGRAPH));
+    root.addChildComponent(TextLeaf.symbol('!'));
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BinaryTextWriter().write(root, Channels.newChannel(out));
+    BinaryTextDocument document = BinaryTextDocument.wrap(ByteBuffer.wrap(out.toByteArray()));
+
+    TextComposite actual = document.materialize();
+    assertSameStructure(root, actual);
+    assertSame(TextLeaf.symbol('!'), actual.getChildComponent(3));
+    assertEquals(3, document.getStringCount());
+  }
+
+  @Test
+  void testInvalidInputIsRejected() throws CustomTextException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    new BinaryTextWriter().write(parse("    Some text.", TextComponentType.WORD), Channels.newChannel(out));
+    byte[] bytes = out.toByteArray();
+
+    byte[] wrongMagic = bytes.clone();
+    wrongMagic[0] = 'X';
+    byte[] wrongVersion = bytes.clone();
+    wrongVersion[4] = 99;
+    byte[] truncated = Arrays.copyOf(bytes, bytes.length - 3);
+
+    assertThrows(CustomTextException.class, () -> BinaryTextDocument.wrap(ByteBuffer.wrap(wrongMagic)));
+    assertThrows(CustomTextException.class, () -> BinaryTextDocument.wrap(ByteBuffer.wrap(wrongVersion)));
+    assertThrows(CustomTextException.class, () -> BinaryTextDocument.wrap(ByteBuffer.wrap(truncated)).materialize());
+
+    // Counts decoding to negative or huge values must not reach an allocation
+    for (byte[] count : new byte[][]{{-1, -1, -1, -1, 0x0F}, {-1, -1, -1, -1, 0x07}}) {
+      byte[] corrupt = new byte[5 + count.length];
+      System.arraycopy(bytes, 0, corrupt, 0, 5);
+      System.arraycopy(count, 0, corrupt, 5, count.length);
+      assertThrows(CustomTextException.class, () -> BinaryTextDocument.wrap(ByteBuffer.wrap(corrupt)));
+    }
+
+    ByteArrayOutputStream rootOut = new ByteArrayOutputStream();
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    root.addChildComponent(new TextComposite(TextComponentType.PARAGRAPH));
+    new BinaryTextWriter().write(root, Channels.newChannel(rootOut));
+    byte[] hugeChildCount = rootOut.toByteArray();
+    // Header, empty string table, root tag, then the child count
+    assertEquals(1, hugeChildCount[7]);
+    byte[] corruptRoot = new byte[hugeChildCount.length + 4];
+    System.arraycopy(hugeChildCount, 0, corruptRoot, 0, 7);
+    System.arraycopy(new byte[]{-1, -1, -1, -1, 0x07}, 0, corruptRoot, 7, 5);
+    System.arraycopy(hugeChildCount, 8, corruptRoot, 12, hugeChildCount.length - 8);
+    assertThrows(CustomTextException.class, () -> BinaryTextDocument.wrap(ByteBuffer.wrap(corruptRoot)));
+  }
+}
@@ -0,0 +1,185 @@
+package by.zgirskaya.course.service;
+
+import by.zgirskaya.course.component.AbstractTextComponent;
+import by.zgirskaya.course.component.TextComponentType;
+import by.zgirskaya.course.component.TextComposite;
+import by.zgirskaya.course.component.TextLeaf;
+import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.parser.TokenizerParser;
+import by.zgirskaya.course.reader.impl.CustomTextReaderImpl;
+import by.zgirskaya.course.service.impl.ConcurrentTextServiceImpl;
+import by.zgirskaya.course.service.impl.TextServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTextServiceTest {
+
+  private static final int MAX_IN_FLIGHT = 4;
+
+  @TempDir
+  Path tempDir;
+
+  private ConcurrentTextService concurrentService;
+  private TokenizerParser wordParser;
+
+  @BeforeEach
+  void setUp() throws CustomTextException {
+    concurrentService = new ConcurrentTextServiceImpl(new TextServiceImpl(), new CustomTextReaderImpl(),
+            MAX_IN_FLIGHT, Duration.ofSeconds(30));
+    wordParser = new TokenizerParser(TextComponentType.WORD);
+  }
+
+  @AfterEach
+  void tearDown() {
+    concurrentService.close();
+  }
+
+  private TextComposite parseWords(String text) {
+    TextComposite textComposite = new TextComposite(TextComponentType.PARAGRAPH);
+    wordParser.parse(text, textComposite);
+    return textComposite;
+  }
+
+  private static String documentText(int index) {
+    return "    Word " + index + " here. Word again here! Only " + index + " once?";
+  }
+
+  @Test
+  void testManyRequestsMatchSynchronousService() throws Exception {
+    TextServiceImpl textService = new TextServiceImpl();
+    List<CompletableFuture<Integer>> results = new ArrayList<>();
+    List<Integer> expected = new ArrayList<>();
+
+    for (int i = 0; i < 2000; i++) {
+      TextComposite document = parseWords(documentText(i % 10));
+      results.add(concurrentService.findMaxSentenceCountWithSameWords(document));
+      expected.add(textService.findMaxSentenceCountWithSameWords(document));
+    }
+
+    for (int i = 0; i < results.size(); i++) {
+      assertEquals(expected.get(i), results.get(i).get(10, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  void testInFlightRequestsAreCapped() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    TextComposite document = parseWords(documentText(1));
+
+    List<AbstractTextComponent> documents = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      documents.add(document);
+    }
+
+    List<Integer> results = concurrentService.submitAll(documents, (textService, component) -> {
+      maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+      try {
+        Thread.sleep(1);
+        return textService.findMaxSentenceCountWithSameWords(component);
+      } catch (InterruptedException e) {
+        throw new CustomTextException(e);
+      } finally {
+        running.decrementAndGet();
+      }
+    }).get(10, TimeUnit.SECONDS);
+
+    assertEquals(200, results.size());
+    assertTrue(maxRunning.get() <= MAX_IN_FLIGHT, "Max running: " + maxRunning.get());
+  }
+
+  @Test
+  void testTimeoutInterruptsRequest() throws Exception {
+    CountDownLatch interrupted = new CountDownLatch(1);
+
+    CompletableFuture<Object> result = concurrentService.submit(parseWords(documentText(1)),
+            (textService, component) -> {
+              try {
+                Thread.sleep(10_000);
+              } catch (InterruptedException e) {
+                interrupted.countDown();
+              }
+              return null;
+            }, Duration.ofMillis(50));
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(TimeoutException.class, exception.getCause());
+    assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void testServiceErrorsCompleteFutureExceptionally() {
+    TextComposite lexeme = new TextComposite(TextComponentType.LEXEME);
+    lexeme.addChildComponent(new TextLeaf("word", TextComponentType.WORD));
+
+    ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> concurrentService.changeFirstAndLastLexemesInSentences(lexeme).get(5, TimeUnit.SECONDS));
+    assertInstanceOf(CustomTextException.class, exception.getCause());
+  }
+
+  @Test
+  void testFailureCancelsRemainingRequests() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    TextComposite document = parseWords(documentText(1));
+    TextComposite sentence = (TextComposite) ((TextComposite) document.getChildComponent(1)).getChildComponent(0);
+
+    List<AbstractTextComponent> documents = List.of(document, sentence.getChildComponent(0), document);
+    CompletableFuture<List<Integer>> results = concurrentService.submitAll(documents, (textService, component) -> {
+      if (component.getComponentType() == TextComponentType.LEXEME) {
+        return textService.findMaxSentenceCountWithSameWords(component);
+      }
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        throw new CancellationException("Interrupted");
+      }
+      return 0;
+    });
+
+    ExecutionException exception = assertThrows(ExecutionException.class, () -> results.get(5, TimeUnit.SECONDS));
+    assertInstanceOf(CustomTextException.class, exception.getCause());
+    release.countDown();
+  }
+
+  @Test
+  void testFileRequestsReadAndParse() throws Exception {
+    Path file = Files.writeString(tempDir.resolve("text.txt"), documentText(3));
+
+    int result = concurrentService.submitFile(file.toString(), TextComponentType.WORD,
+            TextService::findMaxSentenceCountWithSameWords).get(5, TimeUnit.SECONDS);
+
+    assertEquals(new TextServiceImpl().findMaxSentenceCountWithSameWords(parseWords(documentText(3))), result);
+
+    ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> concurrentService.submitFile(tempDir.resolve("none.txt").toString(), TextComponentType.SYMBOL,
+                    TextService::findMaxSentenceCountWithSameWords).get(5, TimeUnit.SECONDS));
+    assertInstanceOf(CustomTextException.class, exception.getCause());
+  }
+
+  @Test
+  void testClosedServiceRejectsRequests() {
+    concurrentService.close();
+
+    ExecutionException exception = assertThrows(ExecutionException.class,
+            () -> concurrentService.findMaxSentenceCountWithSameWords(parseWords(documentText(1)))
+                    .get(5, TimeUnit.SECONDS));
+    assertInstanceOf(CustomTextException.class, exception.getCause());
+  }
+}
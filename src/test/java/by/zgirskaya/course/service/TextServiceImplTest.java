@@ -4,14 +4,39 @@ import by.zgirskaya.course.component.AbstractTextComponent;
 import by.zgirskaya.course.component.TextComponentType;
 import by.zgirskaya.course.component.TextComposite;
 import by.zgirskaya.course.component.TextLeaf;
+import by.zgirskaya.course.component.TextNode;
+import by.zgirskaya.course.component.WordDictionary;
 import by.zgirskaya.course.exception.CustomTextException;
+import by.zgirskaya.course.parser.LexemeParser;
+import by.zgirskaya.course.parser.ParagraphParser;
+import by.zgirskaya.course.parser.SentenceParser;
+import by.zgirskaya.course.parser.TokenizerParser;
+import by.zgirskaya.course.parser.WordParser;
+import by.zgirskaya.course.service.analysis.FirstLastLexemeSwapAnalysis;
+import by.zgirskaya.course.service.analysis.MaxSentencesWithSameWordsAnalysis;
+import by.zgirskaya.course.service.analysis.RankedSentence;
+import by.zgirskaya.course.service.analysis.SentenceInfo;
+import by.zgirskaya.course.service.analysis.SentenceOverlapIndex;
+import by.zgirskaya.course.service.analysis.SentencePair;
+import by.zgirskaya.course.service.analysis.SentenceRanking;
+import by.zgirskaya.course.service.analysis.SentencesByLexemeCountAnalysis;
+import by.zgirskaya.course.service.analysis.TextAnalysisEngine;
+import by.zgirskaya.course.service.analysis.WordFrequency;
+import by.zgirskaya.course.service.analysis.WordGroup;
+import by.zgirskaya.course.service.analysis.WordSentenceIndex;
 import by.zgirskaya.course.service.impl.TextServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayOutputStream;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -269,4 +294,294 @@ class TextServiceImplTest {
 
     assertDoesNotThrow(() -> textService.changeFirstAndLastLexemesInSentences(emptyText));
   }
-}
\ No newline at end of file
+
+  @Test
+  void testServiceWorksOnCompactDocument() throws CustomTextException {
+    String source = "Java is great.    Python is also great! Java and Python.";
+    TokenizerParser parser = new TokenizerParser(TextComponentType.WORD);
+
+    TextComposite composite = new TextComposite(TextComponentType.PARAGRAPH);
+    parser.parse(source, composite);
+    TextComposite compact = parser.parseCompact(source).getRoot();
+
+    assertEquals(textService.findMaxSentenceCountWithSameWords(composite),
+            textService.findMaxSentenceCountWithSameWords(compact));
+    assertEquals(textService.changeFirstAndLastLexemesInSentences(composite).toString(),
+            textService.changeFirstAndLastLexemesInSentences(compact).toString());
+    assertDoesNotThrow(() -> textService.displaySentencesByLexemeCountAscending(compact));
+  }
+
+  @Test
+  void testServiceWorksOnImmutableDocument() throws CustomTextException {
+    String source = "Java is great.    Python is also great! Java and Python.";
+    ParagraphParser parser = new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser())));
+
+    TextComposite composite = new TextComposite(TextComponentType.PARAGRAPH);
+    parser.parse(source, composite);
+    TextNode document = parser.parseNode(source);
+    AbstractTextComponent view = document.asComponent();
+
+    assertEquals(textService.findMaxSentenceCountWithSameWords(composite),
+            textService.findMaxSentenceCountWithSameWords(view));
+    assertEquals(textService.displaySentencesByLexemeCountAscending(composite),
+            textService.displaySentencesByLexemeCountAscending(view));
+    assertEquals(textService.changeFirstAndLastLexemesInSentences(composite).toString(),
+            textService.changeFirstAndLastLexemesInSentences(view).toString());
+    assertSame(document, TextNode.fromComponent(view));
+
+    MaxSentencesWithSameWordsAnalysis sameWords = new MaxSentencesWithSameWordsAnalysis();
+    new TextAnalysisEngine().register(sameWords).run(document);
+    assertEquals(textService.findMaxSentenceCountWithSameWords(composite), sameWords.getResult());
+
+    assertThrows(UnsupportedOperationException.class,
+            () -> ((TextComposite) view).addChildComponent(new TextComposite(TextComponentType.PARAGRAPH)));
+    assertEquals(composite.toString(), view.makeCopy().toString());
+  }
+
+  @Test
+  void testAnalysisEngineRunsAllAnalysesInOneTraversal() throws CustomTextException {
+    TextComposite sentence1 = createSentence("java", "is", "great");
+    TextComposite sentence2 = createSentence("python", "is", "also", "great");
+    TextComposite sentence3 = createSentence("java", "python");
+    text.addChildComponent(createParagraph(sentence1, sentence2, sentence3));
+
+    MaxSentencesWithSameWordsAnalysis sameWords = new MaxSentencesWithSameWordsAnalysis();
+    SentencesByLexemeCountAnalysis byLexemeCount = new SentencesByLexemeCountAnalysis();
+    FirstLastLexemeSwapAnalysis swap = new FirstLastLexemeSwapAnalysis();
+
+    new TextAnalysisEngine()
+            .register(sameWords)
+            .register(byLexemeCount)
+            .register(swap)
+            .run(text);
+
+    assertEquals(textService.findMaxSentenceCountWithSameWords(text), sameWords.getResult());
+    assertEquals(textService.changeFirstAndLastLexemesInSentences(text).toString(), swap.getResult().toString());
+
+    List<SentenceInfo> sentencesInfo = byLexemeCount.getResult();
+    assertEquals(List.of(2, 3, 4), sentencesInfo.stream().map(SentenceInfo::lexemeCount).toList());
+    assertEquals("java python", sentencesInfo.getFirst().sentenceText());
+  }
+
+  @Test
+  void testSentenceRankingMatchesFullSort() throws CustomTextException {
+    Random random = new Random(42);
+    TextComposite root = new TextComposite(TextComponentType.PARAGRAPH);
+    for (int i = 0; i < 300; i++) {
+      String[] words = new String[1 + random.nextInt(6)];
+      for (int j = 0; j < words.length; j++) {
+        words[j] = "w" + i + "_" + j;
+      }
+      root.addChildComponent(createParagraph(createSentence(words)));
+    }
+
+    List<SentenceInfo> expected = new ArrayList<>();
+    for (AbstractTextComponent paragraph : root.getChildComponents()) {
+      TextComposite sentence = (TextComposite) ((TextComposite) paragraph).getChildComponent(0);
+      expected.add(new SentenceInfo(sentence.toString().trim(), sentence.getChildComponentCount()));
+    }
+    expected.sort(Comparator.comparingInt(SentenceInfo::lexemeCount));
+
+    SentenceRanking ranking = textService.rankSentencesByLexemeCount(root);
+    assertEquals(300, ranking.getSentenceCount());
+    assertEquals(expected, textService.displaySentencesByLexemeCountAscending(root));
+    assertEquals(expected.subList(0, 10), ranking.shortest(10).stream().map(RankedSentence::toSentenceInfo).toList());
+    assertEquals(expected.subList(120, 150),
+            ranking.range(120, 150).stream().map(RankedSentence::toSentenceInfo).toList());
+
+    List<RankedSentence> longest = ranking.longest(25);
+    assertEquals(25, longest.size());
+    int longestCount = expected.getLast().lexemeCount();
+    for (int i = 0; i < longest.size(); i++) {
+      assertEquals(longestCount, longest.get(i).lexemeCount());
+      if (i > 0) {
+        assertTrue(longest.get(i - 1).position() < longest.get(i).position());
+      }
+    }
+
+    assertEquals(300, ranking.shortest(1000).size());
+    assertTrue(ranking.longest(0).isEmpty());
+    assertThrows(IndexOutOfBoundsException.class, () -> ranking.range(290, 301));
+  }
+
+  @Test
+  void testSentenceRankingSkipsBlankSentences() throws CustomTextException {
+    TextComposite blank = new TextComposite(TextComponentType.SENTENCE);
+    TextComposite blankLexeme = new TextComposite(TextComponentType.LEXEME);
+    blankLexeme.addChildComponent(new TextLeaf("", TextComponentType.WORD));
+    blank.addChildComponent(blankLexeme);
+
+    text.addChildComponent(createParagraph(blank, createSentence("one", "two"),
+            new TextComposite(TextComponentType.SENTENCE)));
+
+    List<RankedSentence> ranked = textService.rankSentencesByLexemeCount(text).shortest(5);
+    assertEquals(1, ranked.size());
+    assertEquals("one two", ranked.getFirst().text());
+    assertEquals(1, ranked.getFirst().position() + 1);
+  }
+
+  @Test
+  void testWordSentenceIndexAnswersQueries() {
+    TextComposite sentence1 = createSentence("Java", "is", "great", "java");
+    TextComposite sentence2 = createSentence("python", "is", "also", "great");
+    TextComposite sentence3 = createSentence("java", "is", "fun");
+    text.addChildComponent(createParagraph(sentence1, sentence2, sentence3));
+
+    WordSentenceIndex index = WordSentenceIndex.of(text);
+
+    assertEquals(3, index.getSentenceCount());
+    assertEquals(3, index.getMaxSentenceCount());
+    assertEquals(2, index.getSentenceCount("JAVA"));
+    assertEquals(0, index.getSentenceCount("rust"));
+    assertArrayEquals(new int[]{0, 2}, index.getSentenceIndexes("java"));
+    assertEquals(List.of(sentence1, sentence3), index.getSentencesContaining("java"));
+    assertEquals(List.of(new WordFrequency("is", 3), new WordFrequency("great", 2), new WordFrequency("java", 2)),
+            index.topK(3));
+    assertEquals(index.getDistinctWordCount(), index.topK(100).size());
+    assertTrue(index.topK(0).isEmpty());
+  }
+
+  @Test
+  void testWordSentenceIndexMixesDictionaryAndPlainLeaves() throws CustomTextException {
+    String source = "Java is great. python is also great. java is fun.";
+    TextComposite parsed = new TextComposite(TextComponentType.PARAGRAPH);
+    WordDictionary corpus = new WordDictionary();
+    new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser(WordParser.Letters.ASCII, corpus))))
+            .parse(source, parsed);
+    // Leaves without a dictionary id are folded and looked up in the dictionary of the parsed ones
+    parsed.addChildComponent(createParagraph(createSentence("JAVA", "rocks")));
+
+    WordSentenceIndex index = WordSentenceIndex.of(parsed);
+
+    assertEquals(4, index.getSentenceCount());
+    assertArrayEquals(new int[]{0, 2, 3}, index.getSentenceIndexes("Java"));
+    assertEquals(List.of(new WordFrequency("is", 3), new WordFrequency("java", 3)), index.topK(2));
+    assertEquals(7, index.getDistinctWordCount());
+  }
+
+  @Test
+  void testWordSentenceIndexMatchesPairwiseCount() throws CustomTextException {
+    Random random = new Random(42);
+    TextComposite paragraph = new TextComposite(TextComponentType.PARAGRAPH);
+    List<Set<String>> sentencesWords = new ArrayList<>();
+
+    for (int i = 0; i < 500; i++) {
+      String[] words = new String[1 + random.nextInt(8)];
+      Set<String> sentenceWords = new HashSet<>();
+      for (int j = 0; j < words.length; j++) {
+        words[j] = "w" + random.nextInt(200);
+        sentenceWords.add(words[j]);
+      }
+      sentencesWords.add(sentenceWords);
+      paragraph.addChildComponent(createSentence(words));
+    }
+
+    int expected = 0;
+    for (int i = 0; i < 200; i++) {
+      String word = "w" + i;
+      expected = Math.max(expected, (int) sentencesWords.stream().filter(words -> words.contains(word)).count());
+    }
+
+    assertEquals(expected, textService.findMaxSentenceCountWithSameWords(paragraph));
+    assertEquals(expected, WordSentenceIndex.of(paragraph).topK(1).getFirst().sentenceCount());
+  }
+
+  @Test
+  void testSentenceOverlapIndexAnswersQueries() throws CustomTextException {
+    TextComposite sentence1 = createSentence("Java", "is", "great", "java");
+    TextComposite sentence2 = createSentence("python", "is", "also", "great");
+    TextComposite sentence3 = createSentence("java", "is", "fun");
+    TextComposite sentence4 = createSentence("rust");
+    text.addChildComponent(createParagraph(sentence1, sentence2, sentence3, sentence4));
+
+    SentenceOverlapIndex index = textService.indexSentenceOverlaps(text);
+
+    assertEquals(4, index.getSentenceCount());
+    assertEquals(3, index.getWordCount(0));
+    assertEquals(2, index.sharedWordCount(0, 1));
+    assertEquals(2, index.sharedWordCount(2, 0));
+    assertEquals(0, index.sharedWordCount(0, 3));
+    assertArrayEquals(new int[]{1, 2}, index.sentencesSharingAtLeast(0, 2));
+    assertArrayEquals(new int[]{0, 2}, index.sentencesSharingAtLeast(1, 1));
+    assertArrayEquals(new int[0], index.sentencesSharingAtLeast(3, 1));
+    assertEquals(List.of(new SentencePair(0, 1, 2), new SentencePair(0, 2, 2)), index.pairsSharingAtLeast(2));
+
+    WordGroup group = index.largestCommonWordGroup().orElseThrow();
+    assertEquals("is", group.word());
+    assertArrayEquals(new int[]{0, 1, 2}, group.sentenceIndexes());
+
+    assertThrows(IllegalArgumentException.class, () -> index.pairsSharingAtLeast(0));
+    assertThrows(IndexOutOfBoundsException.class, () -> index.sentencesSharingAtLeast(4, 1));
+    assertTrue(SentenceOverlapIndex.of(new TextComposite(TextComponentType.PARAGRAPH))
+            .largestCommonWordGroup().isEmpty());
+  }
+
+  @Test
+  void testAnalysesLeaveCorpusDictionaryUntouched() throws CustomTextException {
+    WordDictionary corpus = new WordDictionary();
+    for (int i = 0; i < 10_000; i++) {
+      corpus.idOf("filler" + i);
+    }
+
+    TextComposite parsed = new TextComposite(TextComponentType.PARAGRAPH);
+    new ParagraphParser(new SentenceParser(new LexemeParser(new WordParser(WordParser.Letters.ASCII, corpus))))
+            .parse("Java is fun. Java is great.", parsed);
+    parsed.addChildComponent(createParagraph(createSentence("JAVA", "rocks")));
+    int corpusSize = corpus.size();
+
+    SentenceOverlapIndex overlaps = textService.indexSentenceOverlaps(parsed);
+    WordSentenceIndex index = WordSentenceIndex.of(parsed);
+
+    assertEquals(corpusSize, corpus.size());
+    assertEquals(2, overlaps.sharedWordCount(0, 1));
+    assertEquals(1, overlaps.sharedWordCount(1, 2));
+    assertEquals("java", overlaps.largestCommonWordGroup().orElseThrow().word());
+    assertEquals(5, index.getDistinctWordCount());
+    assertEquals(List.of(new WordFrequency("java", 3)), index.topK(1));
+  }
+
+  @Test
+  void testSentenceOverlapIndexMatchesPairwiseSets() throws CustomTextException {
+    Random random = new Random(7);
+    TextComposite paragraph = new TextComposite(TextComponentType.PARAGRAPH);
+    List<Set<String>> sentencesWords = new ArrayList<>();
+
+    // More than one row task and word ids spread over many 64-bit blocks
+    for (int i = 0; i < 300; i++) {
+      String[] words = new String[random.nextInt(12)];
+      Set<String> sentenceWords = new HashSet<>();
+      for (int j = 0; j < words.length; j++) {
+        words[j] = "w" + random.nextInt(random.nextBoolean() ? 40 : 400);
+        sentenceWords.add(words[j]);
+      }
+      sentencesWords.add(sentenceWords);
+      paragraph.addChildComponent(createSentence(words));
+    }
+
+    SentenceOverlapIndex index = SentenceOverlapIndex.of(paragraph);
+    List<SentencePair> expectedPairs = new ArrayList<>();
+    for (int i = 0; i < sentencesWords.size(); i++) {
+      List<Integer> expectedRow = new ArrayList<>();
+      for (int j = 0; j < sentencesWords.size(); j++) {
+        Set<String> shared = new HashSet<>(sentencesWords.get(i));
+        shared.retainAll(sentencesWords.get(j));
+
+        assertEquals(shared.size(), index.sharedWordCount(i, j));
+        if (j != i && shared.size() >= 2) {
+          expectedRow.add(j);
+        }
+        if (j > i && shared.size() >= 2) {
+          expectedPairs.add(new SentencePair(i, j, shared.size()));
+        }
+      }
+      assertArrayEquals(expectedRow.stream().mapToInt(Integer::intValue).toArray(),
+              index.sentencesSharingAtLeast(i, 2));
+    }
+
+    try (ForkJoinPool pool = new ForkJoinPool(4)) {
+      assertEquals(expectedPairs, index.pairsSharingAtLeast(2, pool));
+    }
+    assertEquals(textService.findMaxSentenceCountWithSameWords(paragraph),
+            index.largestCommonWordGroup().orElseThrow().sentenceIndexes().length);
+  }
+}